@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The children of a {@link MarkupContainer} with many children, in order of addition and indexed by
+ * their id.
+ * <p>
+ * Children are held in an array, removed children leave a gap until the array is compacted. The
+ * index is an open addressing hash table (linear probing) holding the positions of the children in
+ * the array, so no entries are allocated per child. The index is not serialized, only the children
+ * are.
+ */
+final class ChildMap implements Serializable, Iterable<Component>
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Marks a free slot in the index.
+	 */
+	private static final int FREE = -1;
+
+	/**
+	 * Children in order of addition, {@code null} for removed children.
+	 */
+	private transient Component[] children;
+
+	/**
+	 * Count of used positions in {@link #children}, including the removed ones.
+	 */
+	private transient int end;
+
+	/**
+	 * Count of children.
+	 */
+	private transient int size;
+
+	/**
+	 * Position of the children in {@link #children} by hash of their id, or {@code null} if the
+	 * index has to be rebuilt.
+	 */
+	private transient int[] index;
+
+	/**
+	 * Construct.
+	 * 
+	 * @param capacity
+	 *            initial capacity
+	 */
+	ChildMap(int capacity)
+	{
+		children = new Component[Math.max(capacity, 4)];
+
+		rebuildIndex();
+	}
+
+	/**
+	 * @return count of children
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Get the child with the given id.
+	 * 
+	 * @param id
+	 *            id of child
+	 * @return child or {@code null}
+	 */
+	Component get(String id)
+	{
+		int slot = find(id);
+		return slot == FREE ? null : children[index[slot]];
+	}
+
+	/**
+	 * Put a child, replacing a previous child with the same id.
+	 * 
+	 * @param child
+	 *            child to put
+	 * @return the replaced child or {@code null}
+	 */
+	Component put(Component child)
+	{
+		String id = child.getId();
+
+		int slot = find(id);
+		if (slot != FREE)
+		{
+			int position = index[slot];
+			Component replaced = children[position];
+			children[position] = child;
+			return replaced;
+		}
+
+		if (end == children.length)
+		{
+			// grow, or just compact if there are enough gaps
+			resize(size + 1 > children.length * 3 / 4 ? children.length * 2 : children.length);
+		}
+		children[end] = child;
+		insert(id, end);
+		end++;
+		size++;
+
+		return null;
+	}
+
+	/**
+	 * Remove the child with the given id.
+	 * 
+	 * @param id
+	 *            id of child
+	 * @return the removed child or {@code null}
+	 */
+	Component remove(String id)
+	{
+		int slot = find(id);
+		if (slot == FREE)
+		{
+			return null;
+		}
+
+		int position = index[slot];
+		Component removed = children[position];
+		children[position] = null;
+		closeGap(slot);
+		size--;
+
+		while (end > 0 && children[end - 1] == null)
+		{
+			end--;
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Get the child preceding the child with the given id.
+	 * 
+	 * @param id
+	 *            id of child
+	 * @return previous child or {@code null}
+	 */
+	Component previous(String id)
+	{
+		int slot = find(id);
+		if (slot != FREE)
+		{
+			for (int position = index[slot] - 1; position >= 0; position--)
+			{
+				if (children[position] != null)
+				{
+					return children[position];
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the first child or {@code null}
+	 */
+	Component first()
+	{
+		for (int position = 0; position < end; position++)
+		{
+			if (children[position] != null)
+			{
+				return children[position];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return a copy of all children
+	 */
+	List<Component> values()
+	{
+		List<Component> values = new ArrayList<>(size);
+		for (int position = 0; position < end; position++)
+		{
+			if (children[position] != null)
+			{
+				values.add(children[position]);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Iterates over the children in order of addition.
+	 * <p>
+	 * Note: The iterator does not detect modifications, after a removal the positions of children
+	 * might change.
+	 */
+	@Override
+	public Iterator<Component> iterator()
+	{
+		return new Iterator<>()
+		{
+			private int position = skipGaps(0);
+
+			@Override
+			public boolean hasNext()
+			{
+				return position < end;
+			}
+
+			@Override
+			public Component next()
+			{
+				if (position >= end)
+				{
+					throw new NoSuchElementException();
+				}
+				Component next = children[position];
+				position = skipGaps(position + 1);
+				return next;
+			}
+		};
+	}
+
+	private int skipGaps(int position)
+	{
+		while (position < end && children[position] == null)
+		{
+			position++;
+		}
+		return position;
+	}
+
+	private static int hash(String id)
+	{
+		int hash = id.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Find the slot of the given id in the index.
+	 * 
+	 * @return slot or {@link #FREE}
+	 */
+	private int find(String id)
+	{
+		if (index == null)
+		{
+			rebuildIndex();
+		}
+
+		int mask = index.length - 1;
+		int slot = hash(id) & mask;
+		while (index[slot] != FREE)
+		{
+			if (children[index[slot]].getId().equals(id))
+			{
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return FREE;
+	}
+
+	private void insert(String id, int position)
+	{
+		int mask = index.length - 1;
+		int slot = hash(id) & mask;
+		while (index[slot] != FREE)
+		{
+			slot = (slot + 1) & mask;
+		}
+		index[slot] = position;
+	}
+
+	/**
+	 * Shift following entries back into the gap of a removed slot, so no tombstones are needed.
+	 */
+	private void closeGap(int gap)
+	{
+		int mask = index.length - 1;
+		int slot = gap;
+		while (true)
+		{
+			slot = (slot + 1) & mask;
+			if (index[slot] == FREE)
+			{
+				break;
+			}
+
+			// move the entry if the gap lies between its preferred slot and its current slot
+			int preferred = hash(children[index[slot]].getId()) & mask;
+			if (((slot - preferred) & mask) >= ((slot - gap) & mask))
+			{
+				index[gap] = index[slot];
+				gap = slot;
+			}
+		}
+		index[gap] = FREE;
+	}
+
+	/**
+	 * Compact the children into an array of the given capacity.
+	 */
+	private void resize(int capacity)
+	{
+		Component[] compacted = new Component[capacity];
+		int count = 0;
+		for (int position = 0; position < end; position++)
+		{
+			if (children[position] != null)
+			{
+				compacted[count++] = children[position];
+			}
+		}
+		children = compacted;
+		end = count;
+
+		rebuildIndex();
+	}
+
+	private void rebuildIndex()
+	{
+		// keep the load factor of the index below 1/2
+		int capacity = Integer.highestOneBit(Math.max(children.length, 4) * 2 - 1) * 2;
+		if (index == null || index.length != capacity)
+		{
+			index = new int[capacity];
+		}
+		Arrays.fill(index, FREE);
+
+		for (int position = 0; position < end; position++)
+		{
+			if (children[position] != null)
+			{
+				insert(children[position].getId(), position);
+			}
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+
+		out.writeInt(size);
+		for (int position = 0; position < end; position++)
+		{
+			if (children[position] != null)
+			{
+				out.writeObject(children[position]);
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+
+		size = in.readInt();
+		children = new Component[Math.max(size, 4)];
+		for (end = 0; end < size; end++)
+		{
+			children[end] = (Component)in.readObject();
+		}
+
+		// children might not be completely deserialized yet, so the index is rebuilt lazily
+		index = null;
+	}
+}
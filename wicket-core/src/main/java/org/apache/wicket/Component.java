@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.wicket.ajax.IAjaxRegionMarkupIdProvider;
 import org.apache.wicket.application.IComponentInstantiationListener;
@@ -495,9 +496,30 @@ public abstract class Component
 	 * #data object points directly to value of that attribute. Otherwise the data is of type
 	 * Object[] where the attributes are ordered as specified above.
 	 * <p>
+	 * An array may have spare trailing <code>null</code> slots, sized by the capacity learned for
+	 * the component's class (see {@link #DATA_CAPACITY}), so attributes can be added and removed
+	 * without copying the array. Spare slots are trimmed on {@link #detach()}, thus they never
+	 * end up in a serialized page.
 	 */
 	Object data = null;
 
+	/**
+	 * Capacity of {@link #data} arrays learned per component class, i.e. the maximum count of
+	 * attributes observed on instances of that class, up to {@link #MAX_DATA_CAPACITY}.
+	 * Components of the same class usually carry the same attributes, so following instances
+	 * allocate their array in one step instead of growing it by one slot per added attribute.
+	 */
+	private static final ClassValue<AtomicInteger> DATA_CAPACITY = new ClassValue<>()
+	{
+		@Override
+		protected AtomicInteger computeValue(Class<?> type)
+		{
+			return new AtomicInteger(2);
+		}
+	};
+
+	private static final int MAX_DATA_CAPACITY = 8;
+
 	final int data_start()
 	{
 		return getFlag(FLAG_MODEL_SET) ? 1 : 0;
@@ -511,7 +533,13 @@ public abstract class Component
 		}
 		else if (data instanceof Object[] && !(data instanceof MetaDataEntry<?>[]))
 		{
-			return ((Object[])data).length;
+			Object[] array = (Object[])data;
+			int length = array.length;
+			while (array[length - 1] == null)
+			{
+				length--;
+			}
+			return length;
 		}
 		else
 		{
@@ -519,6 +547,36 @@ public abstract class Component
 		}
 	}
 
+	/**
+	 * Get the capacity for a new {@link #data} array.
+	 * 
+	 * @param required
+	 *            the required length
+	 * @return capacity
+	 */
+	private int data_capacity(int required)
+	{
+		int learned = DATA_CAPACITY.get(getClass())
+			.accumulateAndGet(Math.min(required, MAX_DATA_CAPACITY), Math::max);
+		return Math.max(required, learned);
+	}
+
+	/**
+	 * Drop spare slots of the {@link #data} array.
+	 */
+	final void data_trim()
+	{
+		if (data instanceof Object[] && !(data instanceof MetaDataEntry<?>[]))
+		{
+			Object[] array = (Object[])data;
+			int length = data_length();
+			if (length < array.length)
+			{
+				data = Arrays.copyOf(array, length);
+			}
+		}
+	}
+
 	final Object data_get(int index)
 	{
 		if (data == null)
@@ -581,7 +639,7 @@ public abstract class Component
 		}
 		else if (currentLength == 1)
 		{
-			Object[] array = new Object[2];
+			Object[] array = new Object[data_capacity(2)];
 			if (position == 0)
 			{
 				array[0] = object;
@@ -596,18 +654,16 @@ public abstract class Component
 		}
 		else
 		{
-			Object[] array = new Object[currentLength + 1];
 			Object[] current = (Object[])data;
-			int after = currentLength - position;
-			if (position > 0)
+			Object[] array = current;
+			if (currentLength == current.length)
 			{
+				// no spare slot left
+				array = new Object[data_capacity(currentLength + 1)];
 				System.arraycopy(current, 0, array, 0, position);
 			}
+			System.arraycopy(current, position, array, position + 1, currentLength - position);
 			array[position] = object;
-			if (after > 0)
-			{
-				System.arraycopy(current, position, array, position + 1, after);
-			}
 			data = array;
 		}
 	}
@@ -638,18 +694,11 @@ public abstract class Component
 		}
 		else
 		{
+			// shift in place, leaving a spare slot at the end
 			Object[] current = (Object[])data;
-			data = new Object[currentLength - 1];
-
-			if (position > 0)
-			{
-				System.arraycopy(current, 0, data, 0, position);
-			}
-			if (position != currentLength - 1)
-			{
-				final int left = currentLength - position - 1;
-				System.arraycopy(current, position + 1, data, position, left);
-			}
+			System.arraycopy(current, position + 1, current, position,
+				currentLength - position - 1);
+			current[currentLength - 1] = null;
 		}
 	}
 
@@ -1128,6 +1177,8 @@ public abstract class Component
 
 			// detach any behaviors
 			Behaviors.detach(this);
+
+			data_trim();
 		}
 		catch (Exception x)
 		{
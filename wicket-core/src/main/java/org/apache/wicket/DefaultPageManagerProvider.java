@@ -17,27 +17,38 @@
 package org.apache.wicket;
 
 import java.io.File;
+import java.time.Duration;
 
 import org.apache.wicket.page.IPageManager;
 import org.apache.wicket.page.PageManager;
+import org.apache.wicket.pageStore.AbstractPersistentPageStore;
 import org.apache.wicket.pageStore.AsynchronousPageStore;
+import org.apache.wicket.pageStore.BudgetingPageStore;
 import org.apache.wicket.pageStore.CachingPageStore;
+import org.apache.wicket.pageStore.CompressingPageStore;
 import org.apache.wicket.pageStore.CryptingPageStore;
+import org.apache.wicket.pageStore.DeltaPageStore;
 import org.apache.wicket.pageStore.DiskPageStore;
 import org.apache.wicket.pageStore.FilePageStore;
 import org.apache.wicket.pageStore.GroupingPageStore;
 import org.apache.wicket.pageStore.IPageStore;
+import org.apache.wicket.pageStore.IPersistentPageStore;
 import org.apache.wicket.pageStore.InMemoryPageStore;
 import org.apache.wicket.pageStore.InSessionPageStore;
+import org.apache.wicket.pageStore.MappedDiskPageStore;
 import org.apache.wicket.pageStore.NoopPageStore;
+import org.apache.wicket.pageStore.OffHeapPageStore;
 import org.apache.wicket.pageStore.RequestPageStore;
 import org.apache.wicket.pageStore.SerializedPage;
 import org.apache.wicket.pageStore.SerializingPageStore;
 import org.apache.wicket.serialize.ISerializer;
+import org.apache.wicket.serialize.compress.ICompressor;
 import org.apache.wicket.settings.FrameworkSettings;
 import org.apache.wicket.settings.StoreSettings;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A provider of a {@link PageManager} managing @link IManageablePage}s with a default chain of {@link IPageStore}s:
@@ -47,7 +58,9 @@ import org.apache.wicket.util.lang.Bytes;
  * <li>{@link InSessionPageStore} keeping the last accessed page in the session</li>
  * <li>{@link SerializingPageStore} serializing all pages (so they are available for back-button)</li>
  * <li>{@link AsynchronousPageStore} moving storage of pages to an asynchronous worker thread (enabled by default with {@link StoreSettings#isAsynchronous()})</li>
+ * <li>{@link CompressingPageStore} compressing all pages (disabled by default in {@link StoreSettings#getCompressor()})</li>
  * <li>{@link CryptingPageStore} encrypting all pages (disabled by default in {@link StoreSettings#isEncrypted()})</li>
+ * <li>{@link BudgetingPageStore} limiting the size of pages of all sessions (disabled by default in {@link StoreSettings#getMaxSize()})</li>
  * <li>{@link DiskPageStore} persisting all pages, configured according to {@link StoreSettings}</li>
  * </ol>
  * An alternative chain with all pages held in-memory could be:
@@ -77,11 +90,16 @@ import org.apache.wicket.util.lang.Bytes;
  * <li>{@link NoopPageStore} discards all pages</li>
  * <li>{@link GroupingPageStore} groups pages, e.g. to limit storage size on a per-group basis</li>
  * <li>{@link FilePageStore} as an alternative to the trusted {@link DiskPageStore}</li>
+ * <li>{@link MappedDiskPageStore} accessing the files of {@link DiskPageStore} via memory mapping</li>
+ * <li>{@link DeltaPageStore} storing pages as deltas against previous pages</li>
+ * <li>{@link OffHeapPageStore} keeping all pages in direct memory</li>
  * <li>other implementations from <a href="https://github.com/wicketstuff/core/tree/master/datastores-parent">wicketstuff-datastores</a></li>
  * </ul>
  */
 public class DefaultPageManagerProvider implements IPageManagerProvider
 {
+	private static final Logger log = LoggerFactory.getLogger(DefaultPageManagerProvider.class);
+
 	protected final Application application;
 
 	/**
@@ -99,9 +117,13 @@ public class DefaultPageManagerProvider implements IPageManagerProvider
 	public IPageManager get()
 	{
 		IPageStore store = newPersistentStore();
+
+		store = newBudgetingStore(store);
 		
 		store = newCryptingStore(store);
 
+		store = newCompressingStore(store);
+
 		store = newAsynchronousStore(store);
 		
 		store = newSerializingStore(store);
@@ -162,7 +184,9 @@ public class DefaultPageManagerProvider implements IPageManagerProvider
 		if (storeSettings.isAsynchronous())
 		{
 			int capacity = storeSettings.getAsynchronousQueueCapacity();
-			pageStore = new AsynchronousPageStore(pageStore, capacity);
+			int threadCount = storeSettings.getAsynchronousThreadCount();
+			Duration delay = storeSettings.getAsynchronousDelay();
+			pageStore = new AsynchronousPageStore(pageStore, capacity, threadCount, delay, null);
 		}
 
 		return pageStore;
@@ -195,6 +219,57 @@ public class DefaultPageManagerProvider implements IPageManagerProvider
 		return pageStore;
 	}
 
+	/**
+	 * Compress pages - if enabled in {@link StoreSettings}.
+	 * 
+	 * @see CompressingPageStore
+	 * @see StoreSettings#getCompressor()
+	 */
+	protected IPageStore newCompressingStore(IPageStore pageStore)
+	{
+		StoreSettings storeSettings = application.getStoreSettings();
+
+		ICompressor compressor = storeSettings.getCompressor();
+		if (compressor != null)
+		{
+			pageStore = new CompressingPageStore(pageStore, compressor);
+		}
+
+		return pageStore;
+	}
+
+	/**
+	 * Limit the size of pages of all sessions - if enabled in {@link StoreSettings}.
+	 * 
+	 * @see BudgetingPageStore
+	 * @see StoreSettings#getMaxSize()
+	 * @see StoreSettings#getEvictionPolicy()
+	 * @see StoreSettings#getEvictionInterval()
+	 */
+	protected IPageStore newBudgetingStore(IPageStore pageStore)
+	{
+		StoreSettings storeSettings = application.getStoreSettings();
+
+		Bytes maxSize = storeSettings.getMaxSize();
+		if (maxSize != null)
+		{
+			if (pageStore instanceof AbstractPersistentPageStore &&
+				pageStore instanceof IPersistentPageStore)
+			{
+				pageStore = new BudgetingPageStore(
+					(AbstractPersistentPageStore & IPersistentPageStore)pageStore, maxSize,
+					storeSettings.getEvictionPolicy(), storeSettings.getEvictionInterval());
+			}
+			else
+			{
+				log.warn("Maximum size of pages is not supported by {}",
+					pageStore.getClass().getName());
+			}
+		}
+
+		return pageStore;
+	}
+
 	/**
 	 * Keep persistent copies of all pages on disk.
 	 * 
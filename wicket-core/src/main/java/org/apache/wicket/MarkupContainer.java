@@ -26,12 +26,10 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
-import org.apache.commons.collections4.map.LinkedMap;
 import org.apache.wicket.core.util.string.ComponentStrings;
 import org.apache.wicket.markup.ComponentTag;
 import org.apache.wicket.markup.ComponentTag.IAutoComponentFactory;
@@ -43,6 +41,7 @@ import org.apache.wicket.markup.MarkupFactory;
 import org.apache.wicket.markup.MarkupNotFoundException;
 import org.apache.wicket.markup.MarkupStream;
 import org.apache.wicket.markup.MarkupType;
+import org.apache.wicket.markup.RawMarkup;
 import org.apache.wicket.markup.WicketTag;
 import org.apache.wicket.markup.html.border.Border;
 import org.apache.wicket.markup.html.form.AutoLabelResolver;
@@ -164,8 +163,8 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 
 	/**
 	 * The children of this markup container, if any. Can be a Component when there's only one
-	 * child, a List when the number of children is fewer than {@link #MAPIFY_THRESHOLD} or a Map
-	 * when there are more children.
+	 * child, a List when the number of children is fewer than {@link #MAPIFY_THRESHOLD} or a
+	 * {@link ChildMap} when there are more children.
 	 */
 	private Object children;
 
@@ -610,8 +609,8 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 				}
 				else
 				{
-					Map<String, Component> childrenMap = children();
-					internalIterator = childrenMap.values().iterator();
+					ChildMap childrenMap = children();
+					internalIterator = childrenMap.iterator();
 				}
 
 				// since we now have a new iterator, we need to set it to the last known position
@@ -1074,8 +1073,8 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 	 * 
 	 * - a list of components when there are more than 1 children
 	 * 
-	 * - a map of components when the number of children makes looking up children by id more costly
-	 * than an indexed search (see MAPIFY_THRESHOLD)
+	 * - a {@link ChildMap} of components when the number of children makes looking up children by
+	 * id more costly than an indexed search (see MAPIFY_THRESHOLD)
 	 * 
 	 * To ensure that iterating through the list of children keeps working even when children are
 	 * added, replaced and removed without throwing a ConcurrentModificationException a special
@@ -1117,8 +1116,9 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 		if (children instanceof List)
 		{
 			List<Component> kids = children();
-			for (Component child : kids)
+			for (int i = 0; i < kids.size(); i++)
 			{
+				Component child = kids.get(i);
 				if (child.getId().equals(childId))
 				{
 					return child;
@@ -1126,7 +1126,7 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 			}
 			return null;
 		}
-		Map<String, Component> kids = children();
+		ChildMap kids = children();
 		return kids.get(childId);
 	}
 
@@ -1173,17 +1173,17 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 				prevChild = child;
 			}
 		}
-		else if (children instanceof LinkedMap)
+		else if (children instanceof ChildMap)
 		{
-			LinkedMap<String, Component> childrenMap = children();
-			if (childrenMap.containsKey(childId))
+			ChildMap childrenMap = children();
+			Component prevSibling = childrenMap.previous(childId);
+			Component oldChild = childrenMap.remove(childId);
+			if (oldChild != null)
 			{
-				String prevSiblingId = childrenMap.previousKey(childId);
-				Component oldChild = childrenMap.remove(childId);
-				removals_add(oldChild, childrenMap.get(prevSiblingId));
+				removals_add(oldChild, prevSibling);
 				if (childrenMap.size() == 1)
 				{
-					children = childrenMap.values().iterator().next();
+					children = childrenMap.first();
 				}
 			}
 		}
@@ -1209,7 +1209,7 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 			List<?> kids = children();
 			return kids.size();
 		}
-		return ((Map<?, ?>)children).size();
+		return ((ChildMap)children).size();
 	}
 
 	/**
@@ -1292,19 +1292,19 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 			}
 			else
 			{
-				Map<String, Component> newChildren = new LinkedMap<>(MAPIFY_THRESHOLD * 2);
+				ChildMap newChildren = new ChildMap(MAPIFY_THRESHOLD * 2);
 				for (Component curChild : childrenList)
 				{
-					newChildren.put(curChild.getId(), curChild);
+					newChildren.put(curChild);
 				}
-				newChildren.put(child.getId(), child);
+				newChildren.put(child);
 				children = newChildren;
 			}
 			return null;
 		}
 
-		Map<String, Component> childrenMap = children();
-		Component oldChild = childrenMap.put(child.getId(), child);
+		ChildMap childrenMap = children();
+		Component oldChild = childrenMap.put(child);
 
 		if (oldChild == null)
 		{
@@ -1457,7 +1457,11 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 		else
 		{
 			// Render as raw markup
-			if (canRenderRawTag(element))
+			if (element instanceof RawMarkup)
+			{
+				getResponse().write(((RawMarkup)element).toStaticText());
+			}
+			else if (canRenderRawTag(element))
 			{
 				getResponse().write(element.toCharSequence());
 			}
@@ -1717,7 +1721,7 @@ public abstract class MarkupContainer extends Component implements Iterable<Comp
 		}
 		else
 		{
-			return new ArrayList<>(((Map<String, Component>)children).values());
+			return ((ChildMap)children).values();
 		}
 	}
 
@@ -34,6 +34,7 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.page.IPageManager;
 import org.apache.wicket.pageStore.IPageStore;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.cycle.MappedUrlCache;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
 import org.apache.wicket.settings.DebugSettings;
@@ -104,6 +105,15 @@ public abstract class Page extends MarkupContainer
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Key of a hook to be run after each top-level component was rendered, set by the page renderer
+	 * of the current request, e.g. to stream the response rendered so far.
+	 */
+	public static final MetaDataKey<Runnable> RENDER_FLUSH_HOOK = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
 	/** Used to create page-unique numbers */
 	private int autoIndex;
 
@@ -858,6 +868,26 @@ public abstract class Page extends MarkupContainer
 		renderAll(markupStream, null);
 	}
 
+	/**
+	 * Runs the {@link #RENDER_FLUSH_HOOK} after each top-level component, if present.
+	 */
+	@Override
+	protected boolean renderNext(final MarkupStream markupStream)
+	{
+		boolean rawMarkup = super.renderNext(markupStream);
+
+		if (rawMarkup == false)
+		{
+			Runnable flushHook = getRequestCycle().getMetaData(RENDER_FLUSH_HOOK);
+			if (flushHook != null)
+			{
+				flushHook.run();
+			}
+		}
+
+		return rawMarkup;
+	}
+
 	/**
 	 * A component was added.
 	 * 
@@ -994,8 +1024,12 @@ public abstract class Page extends MarkupContainer
 			}
 
 			markRendering(true);
-			
-			render();
+
+			// map URLs of equal links and resources once only
+			try (MappedUrlCache cache = new MappedUrlCache(getRequestCycle()))
+			{
+				render();
+			}
 		}
 		finally
 		{
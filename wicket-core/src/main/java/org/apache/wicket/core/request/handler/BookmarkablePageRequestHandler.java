@@ -20,6 +20,7 @@ import org.apache.wicket.core.request.handler.logger.PageLogData;
 import org.apache.wicket.request.ILoggableRequestHandler;
 import org.apache.wicket.request.IRequestCycle;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.mapper.IKeyedRequestHandler;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
 import org.apache.wicket.util.lang.Args;
 
@@ -32,7 +33,8 @@ import org.apache.wicket.util.lang.Args;
 public class BookmarkablePageRequestHandler
 	implements
 		IPageClassRequestHandler,
-		ILoggableRequestHandler
+		ILoggableRequestHandler,
+		IKeyedRequestHandler
 {
 	private final IPageProvider pageProvider;
 
@@ -63,6 +65,15 @@ public class BookmarkablePageRequestHandler
 		return pageProvider.getPageParameters();
 	}
 
+	/**
+	 * @return name of the page class
+	 */
+	@Override
+	public Object getMappingKey()
+	{
+		return getPageClass().getName();
+	}
+
 	@Override
 	public void respond(IRequestCycle requestCycle)
 	{
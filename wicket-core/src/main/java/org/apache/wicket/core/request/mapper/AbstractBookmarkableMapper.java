@@ -615,6 +615,26 @@ public abstract class AbstractBookmarkableMapper extends AbstractComponentMapper
 		return getOptionalPlaceholder(segment) == null && getPlaceholder(segment) == null;
 	}
 
+	/**
+	 * Get the fixed segments the mount path starts with, i.e. all segments up to the first
+	 * placeholder.
+	 * 
+	 * @return leading fixed segments
+	 */
+	protected List<String> getFixedMountSegments()
+	{
+		List<String> fixed = new ArrayList<>();
+		for (String segment : mountSegments)
+		{
+			if (segment.isEmpty() || isFixedSegment(segment) == false)
+			{
+				break;
+			}
+			fixed.add(segment);
+		}
+		return fixed;
+	}
+
 
 	/**
 	 * Extracts the PageParameters from URL if there are any
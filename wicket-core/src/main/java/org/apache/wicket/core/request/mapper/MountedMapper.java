@@ -16,14 +16,19 @@
  */
 package org.apache.wicket.core.request.mapper;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
+import org.apache.wicket.core.request.handler.BookmarkablePageRequestHandler;
 import org.apache.wicket.core.request.handler.ListenerRequestHandler;
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.mapper.IKeyedRequestMapper;
+import org.apache.wicket.request.mapper.IPrefixedRequestMapper;
 import org.apache.wicket.request.mapper.info.ComponentInfo;
 import org.apache.wicket.request.mapper.info.PageComponentInfo;
 import org.apache.wicket.request.mapper.info.PageInfo;
@@ -63,7 +68,66 @@ import org.apache.wicket.util.string.Strings;
  * @author Matej Knopp
  */
 public class MountedMapper extends AbstractBookmarkableMapper
+	implements
+		IPrefixedRequestMapper,
+		IKeyedRequestMapper
 {
+	/**
+	 * Whether a class maps bookmarkable handlers as this class does, i.e. overrides neither
+	 * {@link #checkPageClass(Class)} nor {@link #mapHandler(IRequestHandler)}.
+	 */
+	private static final ClassValue<Boolean> KEYED = new ClassValue<>()
+	{
+		@Override
+		protected Boolean computeValue(Class<?> type)
+		{
+			for (Class<?> c = type; c != MountedMapper.class; c = c.getSuperclass())
+			{
+				if (declares(c, "checkPageClass", Class.class) ||
+					declares(c, "mapHandler", IRequestHandler.class))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	};
+
+	/**
+	 * Whether a class maps requests as this class does, i.e. overrides neither
+	 * {@link #parseRequest(Request)} nor {@link #getCompatibilityScore(Request)}.
+	 */
+	private static final ClassValue<Boolean> PREFIXED = new ClassValue<>()
+	{
+		@Override
+		protected Boolean computeValue(Class<?> type)
+		{
+			for (Class<?> c = type; c != MountedMapper.class; c = c.getSuperclass())
+			{
+				if (declares(c, "parseRequest", Request.class) ||
+					declares(c, "getCompatibilityScore", Request.class))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	};
+
+	private static boolean declares(Class<?> c, String name, Class<?> parameterType)
+	{
+		try
+		{
+			c.getDeclaredMethod(name, parameterType);
+			return true;
+		}
+		catch (NoSuchMethodException ex)
+		{
+			// not overridden here
+			return false;
+		}
+	}
+
 	/** bookmarkable page class. */
 	private final Supplier<Class<? extends IRequestablePage>> pageClassProvider;
 
@@ -149,6 +213,47 @@ public class MountedMapper extends AbstractBookmarkableMapper
 		}
 	}
 
+	/**
+	 * The fixed segments the mount path starts with. Subclasses overriding
+	 * {@link #parseRequest(Request)} or {@link #getCompatibilityScore(Request)} might accept other
+	 * URLs, so they have no prefix unless they override this method too.
+	 * 
+	 * @return fixed mount segments, or an empty list if not prefixed
+	 */
+	@Override
+	public List<String> getPrefixSegments()
+	{
+		if (PREFIXED.get(getClass()) == false)
+		{
+			return Collections.emptyList();
+		}
+		return getFixedMountSegments();
+	}
+
+	/**
+	 * Bookmarkable handlers are mapped for the mounted page class only. Subclasses overriding
+	 * {@link #checkPageClass(Class)} or {@link #mapHandler(IRequestHandler)} might accept other
+	 * classes, so they are not keyed unless they override this method too.
+	 * <p>
+	 * A mapper constructed with a provider of the page class is not keyed either, since the
+	 * provided class might change while the mapper is registered.
+	 * 
+	 * @return name of the page class, or <code>null</code> if not keyed
+	 * @see BookmarkablePageRequestHandler#getMappingKey()
+	 */
+	@Override
+	public Object getMappingKey()
+	{
+		if (pageClassProvider instanceof ClassReference == false ||
+			KEYED.get(getClass()) == false)
+		{
+			return null;
+		}
+
+		Class<? extends IRequestablePage> pageClass = getPageClass();
+		return pageClass == null ? null : pageClass.getName();
+	}
+
 	@Override
 	public Url mapHandler(IRequestHandler requestHandler)
 	{
@@ -257,7 +362,10 @@ public class MountedMapper extends AbstractBookmarkableMapper
 		return Objects.equals(pageClass, this.getPageClass());
 	}
 
-	private Class<? extends IRequestablePage> getPageClass()
+	/**
+	 * @return the class of the mounted page
+	 */
+	public Class<? extends IRequestablePage> getPageClass()
 	{
 		return pageClassProvider.get();
 	}
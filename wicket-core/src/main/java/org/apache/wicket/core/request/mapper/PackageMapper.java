@@ -23,6 +23,7 @@ import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.mapper.IPrefixedRequestMapper;
 import org.apache.wicket.request.mapper.info.PageComponentInfo;
 import org.apache.wicket.request.mapper.parameter.IPageParametersEncoder;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
@@ -61,7 +62,7 @@ import org.apache.wicket.util.string.Strings;
  *  (these will redirect to hybrid if page is not stateless)
  * </pre>
  */
-public class PackageMapper extends AbstractBookmarkableMapper
+public class PackageMapper extends AbstractBookmarkableMapper implements IPrefixedRequestMapper
 {
 	/**
 	 * the name of the package for which all bookmarkable pages should be mounted
@@ -94,6 +95,15 @@ public class PackageMapper extends AbstractBookmarkableMapper
 		this.packageName = packageName;
 	}
 
+	/**
+	 * All pages of the package are mapped below the fixed segments the mount path starts with.
+	 */
+	@Override
+	public List<String> getPrefixSegments()
+	{
+		return getFixedMountSegments();
+	}
+
 	@Override
 	protected Url buildUrl(UrlInfo info)
 	{
@@ -26,6 +26,8 @@ import org.apache.wicket.request.IRequestMapper;
 import org.apache.wicket.request.Request;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.handler.resource.ResourceReferenceRequestHandler;
+import org.apache.wicket.request.mapper.IKeyedRequestMapper;
+import org.apache.wicket.request.mapper.IPrefixedRequestMapper;
 import org.apache.wicket.request.http.flow.AbortWithHttpErrorCodeException;
 import org.apache.wicket.request.mapper.parameter.INamedParameters;
 import org.apache.wicket.request.mapper.parameter.IPageParametersEncoder;
@@ -71,6 +73,9 @@ import org.apache.wicket.util.string.Strings;
  * @author Peter Ertl
  */
 public class ResourceMapper extends AbstractBookmarkableMapper
+	implements
+		IPrefixedRequestMapper,
+		IKeyedRequestMapper
 {
 	// encode page parameters into url + decode page parameters from url
 	private final IPageParametersEncoder parametersEncoder;
@@ -197,6 +202,32 @@ public class ResourceMapper extends AbstractBookmarkableMapper
 		return score;
 	}
 
+	/**
+	 * The fixed segments the mount path starts with. The last of these is omitted if it can be the
+	 * last segment of a URL, since that one might carry caching decoration.
+	 */
+	@Override
+	public List<String> getPrefixSegments()
+	{
+		List<String> fixed = getFixedMountSegments();
+		if (fixed.isEmpty() == false &&
+			(fixed.size() == mountSegments.length || getPlaceholder(mountSegments[fixed.size()]) == null))
+		{
+			fixed.remove(fixed.size() - 1);
+		}
+		return fixed;
+	}
+
+	/**
+	 * @return the mounted resource reference
+	 * @see ResourceReferenceRequestHandler#getMappingKey()
+	 */
+	@Override
+	public Object getMappingKey()
+	{
+		return resourceReference;
+	}
+
 	@Override
 	public Url mapHandler(IRequestHandler requestHandler)
 	{
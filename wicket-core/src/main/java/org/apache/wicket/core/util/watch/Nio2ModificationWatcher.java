@@ -19,9 +19,12 @@ package org.apache.wicket.core.util.watch;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -32,16 +35,19 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.ThreadContext;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.resource.IFixedLocationResourceStream;
 import org.apache.wicket.util.string.Strings;
 import org.apache.wicket.util.thread.ICode;
 import org.apache.wicket.util.thread.Task;
 import java.time.Duration;
+import org.apache.wicket.util.watch.IModifiable;
 import org.apache.wicket.util.watch.ModificationWatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +59,9 @@ import org.slf4j.LoggerFactory;
  * By default MarkupCache registers Markup.NO_MARKUP value for each requested but
  * not found markup file. Later when the user creates the markup file the MarkupCache
  * should be notified.
+ * <p>
+ * Modifiables located in a watched folder are checked only when the watch service reports a
+ * change of their file, all other modifiables (e.g. located in jars) are still polled.
  *
  * @since 7.0.0
  */
@@ -60,12 +69,24 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 {
 	private static final Logger LOG = LoggerFactory.getLogger(Nio2ModificationWatcher.class);
 
+	/** Marks modifiables not located in a watched folder */
+	private static final Path NOT_WATCHED = Paths.get("");
+
 	private final WatchService watchService;
 	private final Application application;
 
 	/** the <code>Task</code> to run */
 	private Task task;
 
+	/** folders registered with the watch service */
+	private final Set<Path> folders = ConcurrentHashMap.newKeySet();
+
+	/** the file of each modifiable, or {@link #NOT_WATCHED} */
+	private final ConcurrentHashMap<IModifiable, Path> files = new ConcurrentHashMap<>();
+
+	/** the modifiables of each watched file */
+	private final ConcurrentHashMap<Path, Set<IModifiable>> modifiables = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructor.
 	 *
@@ -101,8 +122,9 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 			@Override
 			public void run(final Logger log)
 			{
-				checkCreated(log);
+				// index new modifiables before any of their events are processed
 				checkModified();
+				checkCreated(log);
 			}
 		});
 	}
@@ -117,14 +139,25 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 	 */
 	protected void checkCreated(Logger log)
 	{
-		WatchKey watchKey = watchService.poll();
-		if (watchKey != null)
+		WatchKey watchKey;
+		while ((watchKey = watchService.poll()) != null)
 		{
-			List<WatchEvent<?>> events = watchKey.pollEvents();
-			for (WatchEvent<?> event : events)
+			Path folder = (Path)watchKey.watchable();
+
+			for (WatchEvent<?> event : watchKey.pollEvents())
 			{
 				WatchEvent.Kind<?> eventKind = event.kind();
-				Path eventPath = (Path) event.context();
+				if (eventKind == OVERFLOW)
+				{
+					// events were lost
+					for (Path file : modifiables.keySet())
+					{
+						checkModified(file);
+					}
+					continue;
+				}
+
+				Path eventPath = folder.resolve((Path)event.context());
 
 				if (eventKind == ENTRY_CREATE)
 				{
@@ -154,6 +187,7 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 	 */
 	protected void entryModified(Path path, Logger log)
 	{
+		checkModified(path);
 	}
 
 	/**
@@ -166,6 +200,7 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 	 */
 	protected void entryDeleted(Path path, Logger log)
 	{
+		checkModified(path);
 	}
 
 	/**
@@ -203,9 +238,120 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 			} finally {
 				ThreadContext.setApplication(null);
 			}
+
+			// the file might have been deleted and created again
+			checkModified(path);
 		}
 	}
 
+	/**
+	 * Polls all modifiables not located in a watched folder, modifiables in a watched folder are
+	 * checked on events of the watch service only.
+	 */
+	@Override
+	protected void checkModified()
+	{
+		for (IModifiable modifiable : getEntries())
+		{
+			Path file = files.computeIfAbsent(modifiable, this::index);
+			if (file == NOT_WATCHED)
+			{
+				checkModified(modifiable);
+			}
+		}
+	}
+
+	/**
+	 * Check all modifiables located in the given file.
+	 *
+	 * @param file
+	 *              the changed file
+	 */
+	private void checkModified(Path file)
+	{
+		Set<IModifiable> watched = modifiables.get(file);
+		if (watched != null)
+		{
+			for (IModifiable modifiable : watched)
+			{
+				if (getEntries().contains(modifiable))
+				{
+					checkModified(modifiable);
+				}
+				else
+				{
+					// removed via the entries
+					unindex(modifiable);
+				}
+			}
+		}
+	}
+
+	@Override
+	public IModifiable remove(IModifiable modifiable)
+	{
+		IModifiable removed = super.remove(modifiable);
+
+		unindex(modifiable);
+
+		return removed;
+	}
+
+	private Path index(IModifiable modifiable)
+	{
+		Path file = getFile(modifiable);
+		if (file != null && folders.contains(file.getParent()))
+		{
+			modifiables.computeIfAbsent(file, key -> ConcurrentHashMap.newKeySet()).add(modifiable);
+			return file;
+		}
+		return NOT_WATCHED;
+	}
+
+	private void unindex(IModifiable modifiable)
+	{
+		Path file = files.remove(modifiable);
+		if (file != null && file != NOT_WATCHED)
+		{
+			modifiables.computeIfPresent(file, (key, watched) -> {
+				watched.remove(modifiable);
+				return watched.isEmpty() ? null : watched;
+			});
+		}
+	}
+
+	/**
+	 * Get the file a modifiable is located in.
+	 *
+	 * @param modifiable
+	 *              the modifiable
+	 * @return absolute path of file or {@code null} if not located in a file
+	 */
+	protected Path getFile(IModifiable modifiable)
+	{
+		if (modifiable instanceof IFixedLocationResourceStream)
+		{
+			String location = ((IFixedLocationResourceStream)modifiable).locationAsString();
+			if (location != null)
+			{
+				try
+				{
+					Path file = location.startsWith("file:") ? Paths.get(URI.create(location))
+						: Paths.get(location);
+					if (file.isAbsolute())
+					{
+						return file.normalize();
+					}
+				}
+				catch (IllegalArgumentException | FileSystemNotFoundException e)
+				{
+					LOG.debug("Cannot resolve file of '{}'", location);
+				}
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public void destroy()
 	{
@@ -257,11 +403,15 @@ public class Nio2ModificationWatcher extends ModificationWatcher
 		}
 	}
 	
-	private void register(final Path folder, final WatchService watchService) throws IOException
+	private void register(Path folder, final WatchService watchService) throws IOException
 	{
+		folder = folder.toAbsolutePath().normalize();
+
 		WatchEvent.Kind[] watchedKinds = getWatchedKinds(folder);
 		LOG.debug("Registering folder '{}' to the watching service with kinds: {}", folder, watchedKinds);
 		folder.register(watchService, watchedKinds);
+
+		folders.add(folder);
 	}
 
 	/**
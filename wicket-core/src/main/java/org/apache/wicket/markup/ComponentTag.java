@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.MarkupContainer;
@@ -31,6 +32,7 @@ import org.apache.wicket.markup.parser.XmlTag;
 import org.apache.wicket.markup.parser.XmlTag.TagType;
 import org.apache.wicket.markup.parser.filter.HtmlHandler;
 import org.apache.wicket.request.Response;
+import org.apache.wicket.response.StringResponse;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Generics;
 import org.apache.wicket.util.string.AppendingStringBuffer;
@@ -126,6 +128,16 @@ public class ComponentTag extends MarkupElement
 
 	private IAutoComponentFactory autoComponentFactory;
 
+	/**
+	 * If mutable, the immutable tag this tag is a copy of.
+	 */
+	private transient ComponentTag original;
+
+	/**
+	 * If immutable, the output as written by {@link #writeOutput(Response, boolean, String)}.
+	 */
+	private transient volatile Output output;
+
 	/**
 	 * Automatically create a XmlTag, assign the name and the type, and construct a ComponentTag
 	 * based on this XmlTag.
@@ -447,6 +459,7 @@ public class ComponentTag extends MarkupElement
 	 */
 	void copyPropertiesTo(final ComponentTag dest)
 	{
+		dest.original = xmlTag.isMutable() ? original : this;
 		dest.id = id;
 		dest.flags = flags;
 		dest.autoComponentFactory = autoComponentFactory;
@@ -716,6 +729,30 @@ public class ComponentTag extends MarkupElement
 	 */
 	public final void writeOutput(final Response response, final boolean stripWicketAttributes,
 		final String namespace)
+	{
+		// an immutable tag or an unmodified copy can reuse the previous output
+		ComponentTag immutable = xmlTag.isMutable() ? original : this;
+		if (immutable != null)
+		{
+			Output cached = immutable.output;
+			if (cached == null || cached.isFor(stripWicketAttributes, namespace) == false)
+			{
+				cached = new Output(immutable, stripWicketAttributes, namespace);
+				immutable.output = cached;
+			}
+
+			if (cached.matches(this))
+			{
+				response.write(cached.text);
+				return;
+			}
+		}
+
+		writeTag(response, stripWicketAttributes, namespace);
+	}
+
+	private void writeTag(final Response response, final boolean stripWicketAttributes,
+		final String namespace)
 	{
 		response.write("<");
 
@@ -994,4 +1031,98 @@ public class ComponentTag extends MarkupElement
 	}
 
 
+
+	/**
+	 * Output of a tag, along with a snapshot of the tag's properties it was written from.
+	 */
+	private static class Output
+	{
+		private final boolean stripWicketAttributes;
+
+		private final String namespace;
+
+		private final TagType type;
+
+		private final String tagNamespace;
+
+		private final String name;
+
+		/**
+		 * Keys and values of attributes as strings, alternating.
+		 */
+		private final String[] attributes;
+
+		private final String text;
+
+		private Output(ComponentTag tag, boolean stripWicketAttributes, String namespace)
+		{
+			this.stripWicketAttributes = stripWicketAttributes;
+			this.namespace = namespace;
+
+			type = tag.getType();
+			tagNamespace = tag.getNamespace();
+			name = tag.getName();
+
+			attributes = new String[tag.getAttributes().size() * 2];
+			int index = 0;
+			for (Map.Entry<String, Object> entry : tag.getAttributes().entrySet())
+			{
+				attributes[index++] = entry.getKey();
+				attributes[index++] = entry.getValue() == null ? null : entry.getValue().toString();
+			}
+
+			StringResponse buffer = new StringResponse();
+			tag.writeTag(buffer, stripWicketAttributes, namespace);
+			text = buffer.toString();
+		}
+
+		private boolean isFor(boolean stripWicketAttributes, String namespace)
+		{
+			return this.stripWicketAttributes == stripWicketAttributes &&
+				Objects.equals(this.namespace, namespace);
+		}
+
+		/**
+		 * Does the given tag still have the properties this output was written from.
+		 * 
+		 * @param tag
+		 *            tag to compare
+		 * @return {@code true} if type, namespace, name and attributes (including their order)
+		 *         are equal, comparing attribute values by their string form
+		 */
+		private boolean matches(ComponentTag tag)
+		{
+			if (type != tag.getType() || Objects.equals(tagNamespace, tag.getNamespace()) == false ||
+				Objects.equals(name, tag.getName()) == false)
+			{
+				return false;
+			}
+
+			IValueMap tagAttributes = tag.getAttributes();
+			if (attributes.length != tagAttributes.size() * 2)
+			{
+				return false;
+			}
+
+			int index = 0;
+			for (Map.Entry<String, Object> entry : tagAttributes.entrySet())
+			{
+				String key = attributes[index++];
+				String value = attributes[index++];
+
+				if (Objects.equals(key, entry.getKey()) == false)
+				{
+					return false;
+				}
+
+				// a mutable value might have changed since it was written
+				Object current = entry.getValue();
+				if (current == null ? value != null : current.toString().equals(value) == false)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
 }
@@ -186,19 +186,61 @@ public class Markup extends AbstractMarkupFragment
 
 	/**
 	 * Make all tags immutable and the list of elements unmodifiable.
+	 * <p>
+	 * Adjacent raw markup elements are merged into a single element, so static markup is written
+	 * at once when rendered.
 	 */
 	final public void makeImmutable()
 	{
+		List<MarkupElement> elements = new ArrayList<>(markupElements.size());
+		int run = 0;
 		for (MarkupElement markupElement : markupElements)
 		{
-			if (markupElement instanceof ComponentTag)
+			if (markupElement.getClass() == RawMarkup.class)
 			{
-				// Make the tag immutable
-				((ComponentTag)markupElement).makeImmutable();
+				run++;
+			}
+			else
+			{
+				mergeRawMarkup(elements, run);
+				run = 0;
+
+				if (markupElement instanceof ComponentTag)
+				{
+					// Make the tag immutable
+					((ComponentTag)markupElement).makeImmutable();
+				}
 			}
+			elements.add(markupElement);
 		}
+		mergeRawMarkup(elements, run);
 
-		markupElements = Collections.unmodifiableList(markupElements);
+		markupElements = Collections.unmodifiableList(elements);
+	}
+
+	/**
+	 * Merge the trailing raw markup elements.
+	 * 
+	 * @param elements
+	 *            elements
+	 * @param count
+	 *            count of trailing raw markup elements
+	 */
+	private static void mergeRawMarkup(final List<MarkupElement> elements, final int count)
+	{
+		if (count > 1)
+		{
+			List<MarkupElement> run = elements.subList(elements.size() - count, elements.size());
+
+			AppendingStringBuffer buffer = new AppendingStringBuffer();
+			for (MarkupElement element : run)
+			{
+				buffer.append(element.toCharSequence());
+			}
+
+			run.clear();
+			elements.add(new RawMarkup(buffer.toString()));
+		}
 	}
 
 	@Override
@@ -17,13 +17,16 @@
 package org.apache.wicket.markup;
 
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.MarkupContainer;
 import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.cache.BoundedCache;
 import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.listener.IChangeListener;
 import org.apache.wicket.util.watch.IModifiable;
 import org.apache.wicket.util.watch.IModificationWatcher;
@@ -40,6 +43,10 @@ import org.slf4j.LoggerFactory;
  * <p>
  * MarkupCache is registered with {@link MarkupFactory} which in turn is registered with
  * {@link org.apache.wicket.settings.MarkupSettings} and thus can be replaced with a sub-classed version.
+ * <p>
+ * By default the cache is unbounded. If a maximum size is configured with
+ * {@link org.apache.wicket.settings.MarkupSettings#setMarkupCacheMaxSize(Bytes)}, the least recently
+ * used markup is evicted, see {@link BoundedCacheImplementation}.
  * 
  * @see org.apache.wicket.settings.MarkupSettings
  * @see MarkupFactory
@@ -63,6 +70,11 @@ public class MarkupCache implements IMarkupCache
 	 */
 	private final ICache<String, String> markupKeyCache;
 
+	/**
+	 * Dependency graph: location of a base markup => locations of markup derived from it
+	 */
+	private final ConcurrentHashMap<String, Set<String>> dependents = new ConcurrentHashMap<>();
+
 	/** The markup cache key provider used by MarkupCache */
 	private IMarkupCacheKeyProvider markupCacheKeyProvider;
 
@@ -72,6 +84,15 @@ public class MarkupCache implements IMarkupCache
 	 */
 	private final Application application;
 
+	/** Count of markup found in the cache */
+	private final LongAdder hits = new LongAdder();
+
+	/** Count of markup not found in the cache */
+	private final LongAdder misses = new LongAdder();
+
+	/** Count of markup evicted from the cache */
+	private final LongAdder evictions = new LongAdder();
+
 	/**
 	 * A convenient helper to get the markup cache registered with the application.
 	 * 
@@ -106,6 +127,7 @@ public class MarkupCache implements IMarkupCache
 	{
 		markupCache.clear();
 		markupKeyCache.clear();
+		dependents.clear();
 	}
 
 	@Override
@@ -131,7 +153,7 @@ public class MarkupCache implements IMarkupCache
 
 		// Remove the markup from the cache
 		String locationString = markupKeyCache.get(cacheKey);
-		IMarkupFragment markup = (locationString != null ? markupCache.get(locationString) : null);
+		Markup markup = (locationString != null ? markupCache.get(locationString) : null);
 		if (markup == null)
 		{
 			return null;
@@ -146,104 +168,154 @@ public class MarkupCache implements IMarkupCache
 			log.debug("Removed from cache: " + locationString);
 		}
 
-		// If a base markup file has been removed from the cache then
-		// the derived markup should be removed as well.
-		removeMarkupWhereBaseMarkupIsNoLongerInTheCache();
+		onRemoved(locationString, markup);
+
+		return markup;
+	}
+
+	/**
+	 * Called when markup was evicted from a bounded cache.
+	 * 
+	 * @param locationString
+	 *            location of the evicted markup
+	 * @param markup
+	 *            the evicted markup
+	 */
+	private void onEvicted(final String locationString, final Markup markup)
+	{
+		evictions.increment();
+
+		if (log.isDebugEnabled())
+		{
+			log.debug("Evicted from cache: " + locationString);
+		}
 
-		// And now remove all watcher entries associated with markup
-		// resources no longer in the cache.
+		onRemoved(locationString, markup);
+	}
 
+	/**
+	 * Markup was removed from the cache: stop watching it and remove all markup derived from it.
+	 * 
+	 * @param locationString
+	 *            location of the removed markup
+	 * @param markup
+	 *            the removed markup
+	 */
+	private void onRemoved(final String locationString, final Markup markup)
+	{
 		// Note that you can not use Application.get() since removeMarkup() will be called from a
 		// ModificationWatcher thread which has no associated Application.
-
 		IModificationWatcher watcher = application.getResourceSettings().getResourceWatcher(false);
-		if (watcher != null)
+
+		// no longer dependent on its base markup
+		String baseLocation = getBaseLocation(markup);
+		if (baseLocation != null)
 		{
-			Iterator<IModifiable> iter = watcher.getEntries().iterator();
-			while (iter.hasNext())
+			Set<String> derivedLocations = dependents.get(baseLocation);
+			if (derivedLocations != null)
 			{
-				IModifiable modifiable = iter.next();
-				if (modifiable instanceof MarkupResourceStream)
-				{
-					if (!isMarkupCached((MarkupResourceStream)modifiable))
-					{
-						iter.remove();
-
-						if (log.isDebugEnabled())
-						{
-							log.debug("Removed from watcher: " + modifiable);
-						}
-					}
-				}
+				derivedLocations.remove(locationString);
 			}
 		}
 
-		return markup;
+		unwatch(watcher, markup);
+
+		removeDerivedMarkup(watcher, locationString);
 	}
 
-	private void removeMarkupWhereBaseMarkupIsNoLongerInTheCache()
+	/**
+	 * If a base markup has been removed from the cache then the derived markup has to be removed
+	 * as well, since it holds a merged copy of the base markup.
+	 * 
+	 * @param watcher
+	 *            watcher, might be {@code null}
+	 * @param locationString
+	 *            location of the removed base markup
+	 */
+	private void removeDerivedMarkup(final IModificationWatcher watcher,
+		final String locationString)
 	{
-		// Repeat until all dependent resources have been removed (count == 0)
-		int count = 1;
-		while (count > 0)
+		Set<String> derivedLocations = dependents.remove(locationString);
+		if (derivedLocations == null)
 		{
-			// Reset prior to next round
-			count = 0;
+			return;
+		}
 
-			// Iterate though all entries of the cache
-			Iterator<Markup> iter = markupCache.getValues().iterator();
-			while (iter.hasNext())
+		for (String derivedLocation : derivedLocations)
+		{
+			Markup derived = markupCache.get(derivedLocation);
+			if (derived != null)
 			{
-				Markup markup = iter.next();
+				markupCache.remove(derivedLocation);
 
-				if ((markup != null) && (markup != Markup.NO_MARKUP))
+				if (log.isDebugEnabled())
 				{
-					// Check if the markup associated with key has a base markup. And if yes, test
-					// if that is cached. If the base markup has been removed, than remove the
-					// derived markup as well.
+					log.debug("Removed derived markup from cache: " + derivedLocation);
+				}
 
-					MarkupResourceStream resourceStream = markup.getMarkupResourceStream();
-					if (resourceStream != null)
-					{
-						resourceStream = resourceStream.getBaseMarkupResourceStream();
-					}
+				unwatch(watcher, derived);
+			}
 
-					// Is the base markup available in the cache?
-					if ((resourceStream != null) && !isMarkupCached(resourceStream))
-					{
-						iter.remove();
-						count++;
+			// derived markup might be a base markup itself
+			removeDerivedMarkup(watcher, derivedLocation);
+		}
+	}
 
-						if (log.isDebugEnabled())
-						{
-							log.debug("Removed derived markup from cache: " +
-								markup.getMarkupResourceStream());
-						}
-					}
-				}
+	/**
+	 * Remove the watcher entry of a markup no longer in the cache.
+	 */
+	private void unwatch(final IModificationWatcher watcher, final Markup markup)
+	{
+		if (watcher != null && markup.getMarkupResourceStream() != null)
+		{
+			if (watcher.remove(markup.getMarkupResourceStream()) != null && log.isDebugEnabled())
+			{
+				log.debug("Removed from watcher: " + markup.getMarkupResourceStream());
 			}
 		}
 	}
 
 	/**
-	 * @param resourceStream
-	 * @return True if the markup is cached
+	 * Register a cached markup as dependent on its base markup.
+	 * 
+	 * @param locationString
+	 *            location of the cached markup
+	 * @param markup
+	 *            the cached markup
+	 */
+	private void addDependency(final String locationString, final Markup markup)
+	{
+		String baseLocation = getBaseLocation(markup);
+		if (baseLocation != null)
+		{
+			dependents.computeIfAbsent(baseLocation, key -> ConcurrentHashMap.newKeySet())
+				.add(locationString);
+		}
+	}
+
+	/**
+	 * @param markup
+	 *            markup
+	 * @return location of the base markup the markup was merged with, {@code null} if none
 	 */
-	private boolean isMarkupCached(final MarkupResourceStream resourceStream)
+	private static String getBaseLocation(final Markup markup)
 	{
+		MarkupResourceStream resourceStream = markup.getMarkupResourceStream();
 		if (resourceStream != null)
 		{
-			String key = resourceStream.getCacheKey();
-			if (key != null)
+			MarkupResourceStream baseResourceStream = resourceStream.getBaseMarkupResourceStream();
+			if (baseResourceStream != null)
 			{
-				String locationString = markupKeyCache.get(key);
-				if ((locationString != null) && (markupCache.get(locationString) != null))
+				// same as location the base markup was cached with, see #loadMarkup()
+				String baseLocation = baseResourceStream.locationAsString();
+				if (baseLocation == null)
 				{
-					return true;
+					baseLocation = baseResourceStream.getCacheKey();
 				}
+				return baseLocation;
 			}
 		}
-		return false;
+		return null;
 	}
 
 	@Override
@@ -265,6 +337,30 @@ public class MarkupCache implements IMarkupCache
 		return markupCache;
 	}
 
+	/**
+	 * @return count of requests for markup found in the cache
+	 */
+	public final long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * @return count of requests for markup not found in the cache
+	 */
+	public final long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return count of markup evicted from a bounded cache
+	 */
+	public final long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+
 	@Override
 	public final Markup getMarkup(final MarkupContainer container, final Class<?> clazz,
 		final boolean enforceReload)
@@ -281,6 +377,14 @@ public class MarkupCache implements IMarkupCache
 		if ((enforceReload == false) && (cacheKey != null))
 		{
 			markup = getMarkupFromCache(cacheKey, container);
+			if (markup != null)
+			{
+				hits.increment();
+			}
+			else
+			{
+				misses.increment();
+			}
 		}
 
 		// If markup not found in cache or cache disabled, than ...
@@ -381,6 +485,8 @@ public class MarkupCache implements IMarkupCache
 				}
 
 				markupCache.put(locationString, markup);
+
+				addDependency(locationString, markup);
 			}
 			else
 			{
@@ -567,6 +673,9 @@ public class MarkupCache implements IMarkupCache
 	/**
 	 * Allows you to change the map implementation which will hold the cache data. By default it is
 	 * a ConcurrentHashMap() in order to allow multiple thread to access the data in a secure way.
+	 * If {@link org.apache.wicket.settings.MarkupSettings#getMarkupCacheMaxSize()} is set, a
+	 * {@link BoundedCacheImplementation} is used instead. Note that this method creates both the
+	 * cache of markup and the cache of markup keys, each bounded by the maximum size on its own.
 	 * 
 	 * @param <K>
 	 * @param <V>
@@ -574,6 +683,21 @@ public class MarkupCache implements IMarkupCache
 	 */
 	protected <K, V> ICache<K, V> newCacheImplementation()
 	{
+		Bytes maxSize = application.getMarkupSettings().getMarkupCacheMaxSize();
+		if (maxSize != null)
+		{
+			return new BoundedCacheImplementation<K, V>(maxSize)
+			{
+				@Override
+				protected void onEvicted(K key, V value)
+				{
+					if (value instanceof Markup)
+					{
+						MarkupCache.this.onEvicted((String)key, (Markup)value);
+					}
+				}
+			};
+		}
 		return new DefaultCacheImplementation<K, V>();
 	}
 
@@ -737,4 +861,43 @@ public class MarkupCache implements IMarkupCache
 			clear();
 		}
 	}
+
+	/**
+	 * A {@link BoundedCache} estimating the size of {@link Markup} from the text of all its
+	 * elements.
+	 * 
+	 * @param <K>
+	 * @param <V>
+	 */
+	public static class BoundedCacheImplementation<K, V> extends BoundedCache<K, V>
+	{
+		/**
+		 * Construct.
+		 * 
+		 * @param maxSize
+		 *            maximum size of all entries
+		 */
+		public BoundedCacheImplementation(Bytes maxSize)
+		{
+			super(maxSize);
+		}
+
+		@Override
+		protected long sizeOf(Object object)
+		{
+			if (object instanceof Markup)
+			{
+				long length = 0;
+				if (object != Markup.NO_MARKUP)
+				{
+					for (MarkupElement element : (Markup)object)
+					{
+						length += element.toCharSequence().length();
+					}
+				}
+				return length * 2;
+			}
+			return super.sizeOf(object);
+		}
+	}
 }
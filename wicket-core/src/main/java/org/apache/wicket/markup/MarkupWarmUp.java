@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.Page;
+import org.apache.wicket.ThreadContext;
+import org.apache.wicket.core.request.mapper.MountedMapper;
+import org.apache.wicket.markup.html.border.Border;
+import org.apache.wicket.markup.html.panel.Panel;
+import org.apache.wicket.protocol.http.BufferedWebResponse;
+import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.protocol.http.mock.MockHttpServletRequest;
+import org.apache.wicket.protocol.http.mock.MockHttpSession;
+import org.apache.wicket.request.IRequestMapper;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.component.IRequestablePage;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.mapper.ICompoundRequestMapper;
+import org.apache.wicket.request.mapper.IRequestMapperDelegate;
+import org.apache.wicket.resource.loader.ComponentStringResourceLoader;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.visit.IVisit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the markup and properties of pages in advance, so that the first requests after startup
+ * do not have to wait for them to be loaded and parsed.
+ * <p>
+ * Each page is instantiated (without being rendered) in parallel on a {@link ForkJoinPool}, then
+ * the associated markup of the page and all its panels and borders - including inherited markup -
+ * is loaded into the {@link IMarkupCache}, and the properties of their classes are loaded into the
+ * {@link org.apache.wicket.resource.IPropertiesFactory}. Only pages with a default constructor or a
+ * constructor taking {@link org.apache.wicket.request.mapper.parameter.PageParameters} can be
+ * warmed up, failures are logged and ignored.
+ * <p>
+ * To warm up all mounted pages before the application accepts any request, put the following code
+ * at the end of your application's init:
+ * 
+ * <pre>
+ * new MarkupWarmUp(this).addMountedPages().warmUp();
+ * </pre>
+ * 
+ * Note that instantiating pages may have side effects, e.g. loading data in a page's constructor,
+ * so pages should be selected with care.
+ */
+public class MarkupWarmUp
+{
+	private static final Logger log = LoggerFactory.getLogger(MarkupWarmUp.class);
+
+	/**
+	 * A key not present in any properties, forcing the lookup to load all properties of a class
+	 * hierarchy.
+	 */
+	private static final String NO_KEY = MarkupWarmUp.class.getName();
+
+	private final WebApplication application;
+
+	private final Set<Class<? extends IRequestablePage>> pageClasses = new LinkedHashSet<>();
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Construct.
+	 * 
+	 * @param application
+	 *            the application to warm up
+	 */
+	public MarkupWarmUp(WebApplication application)
+	{
+		this.application = Args.notNull(application, "application");
+	}
+
+	/**
+	 * Set the count of threads used to warm up.
+	 * 
+	 * @param parallelism
+	 *            count of threads, defaults to the count of available processors
+	 * @return {@code this} for chaining
+	 */
+	public MarkupWarmUp setParallelism(int parallelism)
+	{
+		this.parallelism = Args.withinRange(1, (int)Short.MAX_VALUE, parallelism, "parallelism");
+		return this;
+	}
+
+	/**
+	 * Add a page to warm up.
+	 * 
+	 * @param pageClass
+	 *            class of page
+	 * @return {@code this} for chaining
+	 */
+	public MarkupWarmUp addPage(Class<? extends IRequestablePage> pageClass)
+	{
+		pageClasses.add(Args.notNull(pageClass, "pageClass"));
+		return this;
+	}
+
+	/**
+	 * Add the home page and all pages mounted with a {@link MountedMapper}.
+	 * 
+	 * @return {@code this} for chaining
+	 */
+	public MarkupWarmUp addMountedPages()
+	{
+		addPage(application.getHomePage());
+
+		addMountedPages(application.getRootRequestMapper());
+
+		return this;
+	}
+
+	private void addMountedPages(IRequestMapper mapper)
+	{
+		if (mapper instanceof MountedMapper)
+		{
+			addPage(((MountedMapper)mapper).getPageClass());
+		}
+		else if (mapper instanceof ICompoundRequestMapper)
+		{
+			for (IRequestMapper child : (ICompoundRequestMapper)mapper)
+			{
+				addMountedPages(child);
+			}
+		}
+		else if (mapper instanceof IRequestMapperDelegate)
+		{
+			addMountedPages(((IRequestMapperDelegate)mapper).getDelegateMapper());
+		}
+	}
+
+	/**
+	 * Warm up all added pages, waiting until all are finished.
+	 * 
+	 * @return count of successfully warmed up pages
+	 */
+	public int warmUp()
+	{
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try
+		{
+			List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+			for (Class<? extends IRequestablePage> pageClass : pageClasses)
+			{
+				tasks.add(pool.submit(() -> warmUp(pageClass)));
+			}
+
+			int count = 0;
+			for (ForkJoinTask<Boolean> task : tasks)
+			{
+				if (task.join())
+				{
+					count++;
+				}
+			}
+
+			log.info("Warmed up markup of {} of {} pages", count, tasks.size());
+
+			return count;
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Warm up a single page on the current thread.
+	 * 
+	 * @param pageClass
+	 *            class of page
+	 * @return whether the page was warmed up successfully
+	 */
+	private boolean warmUp(Class<? extends IRequestablePage> pageClass)
+	{
+		ThreadContext oldContext = ThreadContext.detach();
+		RequestCycle cycle = null;
+		try
+		{
+			ThreadContext.setApplication(application);
+
+			cycle = application.createRequestCycle(newRequest(), new BufferedWebResponse(null));
+			ThreadContext.setRequestCycle(cycle);
+
+			IRequestablePage page = application.getPageFactory().newPage(pageClass);
+			if (page instanceof Page)
+			{
+				warmUp((Page)page);
+			}
+			return true;
+		}
+		catch (RuntimeException ex)
+		{
+			log.warn("Cannot warm up markup of page " + pageClass.getName(), ex);
+			return false;
+		}
+		finally
+		{
+			try
+			{
+				if (cycle != null)
+				{
+					cycle.detach();
+				}
+			}
+			finally
+			{
+				ThreadContext.restore(oldContext);
+			}
+		}
+	}
+
+	private void warmUp(Page page)
+	{
+		page.internalInitialize();
+
+		warmUpContainer(page);
+
+		page.visitChildren(MarkupContainer.class, (MarkupContainer container, IVisit<Void> visit) -> {
+			if (container instanceof Panel || container instanceof Border)
+			{
+				warmUpContainer(container);
+			}
+		});
+	}
+
+	/**
+	 * Load the associated markup and the properties of the given container.
+	 */
+	private void warmUpContainer(MarkupContainer container)
+	{
+		try
+		{
+			container.getAssociatedMarkup();
+
+			new ComponentStringResourceLoader().loadStringResource(container.getClass(), NO_KEY,
+				container.getLocale(), container.getStyle(), container.getVariation());
+		}
+		catch (RuntimeException ex)
+		{
+			log.debug("Cannot warm up markup of {}", container, ex);
+		}
+	}
+
+	/**
+	 * Create a request to warm up pages with.
+	 * 
+	 * @return request
+	 */
+	protected Request newRequest()
+	{
+		MockHttpServletRequest request = new MockHttpServletRequest(application,
+			new MockHttpSession(application.getServletContext()), application.getServletContext());
+
+		return application.newWebRequest(request, "");
+	}
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.wicket.markup;
 
+import org.apache.wicket.response.StaticText;
+
 /**
  * This class is for framework purposes only, which is why the class is (default) protected.
  * <p>
@@ -29,6 +31,9 @@ public class RawMarkup extends MarkupElement
 	/** The raw markup string * */
 	private final CharSequence string;
 
+	/** The raw markup keeping its encoded bytes, created on first render */
+	private StaticText staticText;
+
 	/**
 	 * Create a RawMarkup element referencing an uninterpreted markup string.
 	 * 
@@ -96,6 +101,22 @@ public class RawMarkup extends MarkupElement
 		return string;
 	}
 
+	/**
+	 * Get the raw markup for rendering, so responses can write it pre-encoded.
+	 * 
+	 * @return the raw markup as static text
+	 */
+	public final StaticText toStaticText()
+	{
+		StaticText text = staticText;
+		if (text == null)
+		{
+			text = new StaticText(string.toString());
+			staticText = text;
+		}
+		return text;
+	}
+
 	/**
 	 * @return This raw markup string
 	 */
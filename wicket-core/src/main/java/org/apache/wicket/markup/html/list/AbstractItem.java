@@ -16,7 +16,12 @@
  */
 package org.apache.wicket.markup.html.list;
 
+import org.apache.wicket.Component;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.IMarkupFragment;
 import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.panel.DefaultMarkupSourcingStrategy;
+import org.apache.wicket.markup.repeater.AbstractRepeater;
 import org.apache.wicket.model.IModel;
 
 /**
@@ -75,4 +80,25 @@ public class AbstractItem extends WebMarkupContainer
 	{
 		this(Long.toString(id));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Shares the markup of children with all other items of the repeater, if possible.
+	 * 
+	 * @see AbstractRepeater#getItemChildMarkup(MarkupContainer, Component)
+	 */
+	@Override
+	public IMarkupFragment getMarkup(final Component child)
+	{
+		MarkupContainer parent = getParent();
+		if (child != null && parent instanceof AbstractRepeater &&
+			getMarkupSourcingStrategy() == DefaultMarkupSourcingStrategy.get())
+		{
+			IMarkupFragment markup = ((AbstractRepeater)parent).getItemChildMarkup(this, child);
+			if (markup != null)
+			{
+				return markup;
+			}
+		}
+		return super.getMarkup(child);
+	}
+}
@@ -48,6 +48,9 @@ public final class XmlPullParser implements IXmlPullParser
 	/** */
 	public static final String SCRIPT = "script";
 
+	/** Shared names of tags and attributes, see {@link #symbol(String, int, int)} */
+	private static final String[] SYMBOLS = new String[1024];
+
 	/**
 	 * The encoding of the XML.
 	 */
@@ -642,6 +645,278 @@ public final class XmlPullParser implements IXmlPullParser
 	 * @throws ParseException
 	 */
 	private boolean parseTagText(final XmlTag tag, final String tagText) throws ParseException
+	{
+		if (scanTagText(tag, tagText))
+		{
+			return true;
+		}
+
+		// unusual syntax, start over with patterns
+		tag.name = null;
+		tag.namespace = null;
+		if (tag.hasAttributes())
+		{
+			tag.getAttributes().clear();
+		}
+		return matchTagText(tag, tagText);
+	}
+
+	/**
+	 * Scans the text between tags character by character, without any intermediate objects for
+	 * well-formed names and attributes. The result is identical to
+	 * {@link #matchTagText(XmlTag, String)}, except that names are shared between tags.
+	 * 
+	 * @param tag
+	 * @param tagText
+	 *            The text between tags
+	 * @return false if the text contains any syntax not handled by this method
+	 * @throws ParseException
+	 */
+	private boolean scanTagText(final XmlTag tag, final String tagText) throws ParseException
+	{
+		final int length = tagText.length();
+
+		// tag name with optional namespace
+		int pos = scanName(tagText, 0);
+		if (pos == 0)
+		{
+			return false;
+		}
+		if (pos < length && tagText.charAt(pos) == ':')
+		{
+			int end = scanName(tagText, pos + 1);
+			if (end == pos + 1 || isVariableName(tagText, 0, pos) == false)
+			{
+				return false;
+			}
+			tag.namespace = symbol(tagText, 0, pos).toLowerCase(Locale.ROOT);
+			tag.name = symbol(tagText, pos + 1, end);
+			pos = end;
+		}
+		else
+		{
+			tag.name = symbol(tagText, 0, pos);
+		}
+
+		while (true)
+		{
+			int start = skipWhitespace(tagText, pos);
+			if (start == length)
+			{
+				return true;
+			}
+
+			// attribute name with up to two namespaces
+			int end = scanAttributeName(tagText, start);
+			if (end == -1)
+			{
+				return false;
+			}
+			final String key = symbol(tagText, start, end);
+
+			String value = "";
+			pos = skipWhitespace(tagText, end);
+			if (pos < length && tagText.charAt(pos) == '=')
+			{
+				pos = skipWhitespace(tagText, pos + 1);
+				if (pos == length)
+				{
+					return false;
+				}
+
+				char quote = tagText.charAt(pos);
+				if (quote == '"' || quote == '\'')
+				{
+					end = tagText.indexOf(quote, pos + 1);
+					if (end == -1)
+					{
+						return false;
+					}
+					value = tagText.substring(pos + 1, end).trim();
+					pos = end + 1;
+				}
+				else
+				{
+					end = pos;
+					while (end < length && isValueChar(tagText.charAt(end)))
+					{
+						end++;
+					}
+					if (end == pos)
+					{
+						return false;
+					}
+					value = tagText.substring(pos, end);
+					pos = end;
+				}
+
+				if (value.indexOf('&') != -1)
+				{
+					value = Strings.unescapeMarkup(value).toString();
+				}
+			}
+
+			if (null != tag.getAttributes().put(key, value))
+			{
+				throw new ParseException("Same attribute found twice: " + key +
+					getLineAndColumnText(), input.getPosition());
+			}
+		}
+	}
+
+	/**
+	 * Scans an attribute name with up to two namespaces, e.g. "wicket:message:key".
+	 * 
+	 * @return end of name or -1 if not well-formed
+	 */
+	private static int scanAttributeName(final String text, int pos)
+	{
+		for (int namespaces = 0;; namespaces++)
+		{
+			int end = scanName(text, pos);
+			if (end == pos)
+			{
+				return -1;
+			}
+			if (end == text.length() || text.charAt(end) != ':')
+			{
+				return end;
+			}
+			if (namespaces == 2 || isVariableName(text, pos, end) == false)
+			{
+				return -1;
+			}
+			pos = end + 1;
+		}
+	}
+
+	/**
+	 * Scans a name without namespace, i.e. <code>[A-Za-z_@][A-Za-z0-9_.-]*</code>.
+	 * 
+	 * @return end of name, equal to <code>pos</code> if there is no name
+	 */
+	private static int scanName(final String text, final int pos)
+	{
+		final int length = text.length();
+		if (pos == length)
+		{
+			return pos;
+		}
+
+		char c = text.charAt(pos);
+		if (isLetter(c) == false && c != '_' && c != '@')
+		{
+			return pos;
+		}
+
+		int end = pos + 1;
+		while (end < length)
+		{
+			c = text.charAt(end);
+			if (isLetter(c) || isDigit(c) || c == '_' || c == '.' || c == '-')
+			{
+				end++;
+			}
+			else
+			{
+				break;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Is the given range a valid namespace, i.e. <code>[A-Za-z_][A-Za-z0-9_-]*</code>.
+	 */
+	private static boolean isVariableName(final String text, final int start, final int end)
+	{
+		if (text.charAt(start) == '@')
+		{
+			return false;
+		}
+		for (int i = start + 1; i < end; i++)
+		{
+			if (text.charAt(i) == '.')
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isValueChar(final char c)
+	{
+		return isLetter(c) || isDigit(c) || c == '_' || c == '-' || c == '.';
+	}
+
+	private static boolean isLetter(final char c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isDigit(final char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Skips whitespace as matched by <code>\s</code>.
+	 */
+	private static int skipWhitespace(final String text, int pos)
+	{
+		final int length = text.length();
+		while (pos < length)
+		{
+			char c = text.charAt(pos);
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B)
+			{
+				pos++;
+			}
+			else
+			{
+				break;
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Get a name from the given range, sharing instances between all parsers.
+	 * <p>
+	 * Names of tags and attributes are few and repeated often, thus they are kept in a lossy
+	 * table: a name is created only if its slot is not already occupied by an equal name.
+	 */
+	private static String symbol(final String text, final int start, final int end)
+	{
+		int hash = 0;
+		for (int i = start; i < end; i++)
+		{
+			hash = 31 * hash + text.charAt(i);
+		}
+		int slot = (hash ^ (hash >>> 16)) & (SYMBOLS.length - 1);
+
+		final int length = end - start;
+		String symbol = SYMBOLS[slot];
+		if (symbol == null || symbol.length() != length ||
+			text.regionMatches(start, symbol, 0, length) == false)
+		{
+			symbol = text.substring(start, end);
+			SYMBOLS[slot] = symbol;
+		}
+		return symbol;
+	}
+
+	/**
+	 * Parses the text between tags with patterns, supporting any syntax not handled by
+	 * {@link #scanTagText(XmlTag, String)}.
+	 * 
+	 * @param tag
+	 * @param tagText
+	 *            The text between tags
+	 * @return false in case of an error
+	 * @throws ParseException
+	 */
+	private boolean matchTagText(final XmlTag tag, final String tagText) throws ParseException
 	{
 		// Get the length of the tagtext
 		final int tagTextLength = tagText.length();
@@ -16,8 +16,10 @@
  */
 package org.apache.wicket.markup.repeater;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.wicket.Component;
@@ -54,6 +56,12 @@ public abstract class AbstractRepeater extends WebMarkupContainer
 
 	private static final Logger log = LoggerFactory.getLogger(AbstractRepeater.class);
 
+	/** Markup of the items' children by id, shared by all items */
+	private transient Map<String, IMarkupFragment> itemChildMarkup;
+
+	/** The markup {@link #itemChildMarkup} was found in */
+	private transient IMarkupFragment itemChildMarkupSource;
+
 	/**
 	 * Constructor
 	 * 
@@ -153,6 +161,45 @@ public abstract class AbstractRepeater extends WebMarkupContainer
 		return getMarkup();
 	}
 
+	/**
+	 * THIS METHOD IS NOT PART OF THE WICKET PUBLIC API. DO NOT USE IT.
+	 * <p>
+	 * Get the markup of a child of an item. Since all items share the markup of this repeater, the
+	 * markup of their children has to be searched once per render only, instead of once per item.
+	 * 
+	 * @param item
+	 *            an item of this repeater
+	 * @param child
+	 *            child of the item
+	 * @return markup of child, or {@code null} if the item does not share the markup of this
+	 *         repeater or the child's markup cannot be found directly in it
+	 */
+	public final IMarkupFragment getItemChildMarkup(final MarkupContainer item,
+		final Component child)
+	{
+		IMarkupFragment markup = getMarkup();
+		if (markup == null || item.getMarkup() != markup)
+		{
+			return null;
+		}
+
+		if (itemChildMarkupSource != markup)
+		{
+			itemChildMarkup = new HashMap<>();
+			itemChildMarkupSource = markup;
+		}
+		return itemChildMarkup.computeIfAbsent(child.getId(), markup::find);
+	}
+
+	@Override
+	protected void onDetach()
+	{
+		itemChildMarkup = null;
+		itemChildMarkupSource = null;
+
+		super.onDetach();
+	}
+
 	/**
 	 * Callback to let the repeater know it should populate itself with its items.
 	 */
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.model;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Component;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.serialize.ISerializer;
+
+/**
+ * A model whose object is serialized as an independent chunk, which is deserialized lazily on
+ * first access only.
+ * <p>
+ * When a page is loaded from a persistent store, the whole component tree is still deserialized,
+ * although a request (e.g. an Ajax request) might touch a few components only. This model does
+ * not change that, it defers the deserialization of the model object only: holding large objects
+ * of a page in this model (e.g. the list of a
+ * {@link org.apache.wicket.markup.html.list.ListView}) defers their deserialization until
+ * {@link #getObject()} is called - the objects of components not rendered in a request are not
+ * deserialized at all. Furthermore a chunk that was not accessed is written as is when the page is
+ * serialized again.
+ * <p>
+ * The chunk is serialized with the application's {@link ISerializer} independently from the rest
+ * of the page, thus the object <em>must not</em> reference any component or objects shared with
+ * other parts of the page, these would be duplicated on deserialization. A {@link Component} as
+ * model object is rejected on serialization.
+ * 
+ * @param <T>
+ *            The type of the Model Object
+ */
+public class LazyDeserializingModel<T extends Serializable> implements IModel<T>
+{
+	private static final long serialVersionUID = 1L;
+
+	/** Backing object, valid if not {@link #chunk}. */
+	private transient T object;
+
+	/** Serialized object not yet deserialized. */
+	private transient byte[] chunk;
+
+	/**
+	 * Construct the model without providing an object.
+	 */
+	public LazyDeserializingModel()
+	{
+	}
+
+	/**
+	 * Construct the model, setting the given object as the wrapped object.
+	 * 
+	 * @param object
+	 *            The model object proper
+	 */
+	public LazyDeserializingModel(final T object)
+	{
+		this.object = object;
+	}
+
+	/**
+	 * Factory method for models with lazily deserialized objects.
+	 * 
+	 * @param <T>
+	 * @param object
+	 * @return model that contains <code>object</code>
+	 */
+	public static <T extends Serializable> LazyDeserializingModel<T> of(T object)
+	{
+		return new LazyDeserializingModel<>(object);
+	}
+
+	/**
+	 * Deserializes the object if not already done.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T getObject()
+	{
+		if (chunk != null)
+		{
+			object = (T)getSerializer().deserialize(chunk);
+			if (object == null)
+			{
+				throw new WicketRuntimeException("Could not deserialize object");
+			}
+
+			// the object might be changed from now on
+			chunk = null;
+		}
+		return object;
+	}
+
+	@Override
+	public void setObject(final T object)
+	{
+		this.object = object;
+		chunk = null;
+	}
+
+	/**
+	 * Whether the object is currently deserialized.
+	 * 
+	 * @return {@code true} if the object was deserialized or was never serialized
+	 */
+	public boolean isDeserialized()
+	{
+		return chunk == null;
+	}
+
+	/**
+	 * Detaches the object - if deserialized.
+	 */
+	@Override
+	public void detach()
+	{
+		if (chunk == null && object instanceof IDetachable)
+		{
+			((IDetachable)object).detach();
+		}
+	}
+
+	/**
+	 * Get the serializer for chunks.
+	 * 
+	 * @return the application's serializer by default
+	 */
+	protected ISerializer getSerializer()
+	{
+		return Application.get().getFrameworkSettings().getSerializer();
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+
+		byte[] bytes = chunk;
+		if (bytes == null && object != null)
+		{
+			if (object instanceof Component)
+			{
+				throw new WicketRuntimeException(
+					"A component cannot be serialized independently from its page: " + object);
+			}
+
+			bytes = getSerializer().serialize(object);
+			if (bytes == null)
+			{
+				throw new NotSerializableException(object.getClass().getName());
+			}
+		}
+		out.writeObject(bytes);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+
+		chunk = (byte[])in.readObject();
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("Model:classname=[");
+		sb.append(getClass().getName()).append(']');
+		if (chunk == null)
+		{
+			sb.append(":object=[").append(object).append(']');
+		}
+		else
+		{
+			sb.append(":chunk=[").append(chunk.length).append(" bytes]");
+		}
+		return sb.toString();
+	}
+}
@@ -120,6 +120,20 @@ public abstract class AbstractPersistentPageStore implements IPageStore
 
 	protected abstract void removeAllPersistedPages(String sessionIdentifier);
 
+	/**
+	 * Remove all pages stored with the given session identifier, e.g. to evict pages of sessions
+	 * still alive.
+	 * 
+	 * @param sessionIdentifier
+	 *            identifier of session
+	 * 
+	 * @see BudgetingPageStore
+	 */
+	public void removePersistedPages(String sessionIdentifier)
+	{
+		removeAllPersistedPages(sessionIdentifier);
+	}
+
 	@Override
 	public void addPage(IPageContext context, IManageablePage page)
 	{
@@ -141,8 +155,9 @@ public abstract class AbstractPersistentPageStore implements IPageStore
 	 * 
 	 * @param context the context to identify
 	 * @param create should a new identifier be created if not there already
+	 * @return identifier or {@code null} if not created
 	 */
-	private String getSessionIdentifier(IPageContext context, boolean create)
+	public String getSessionIdentifier(IPageContext context, boolean create)
 	{
 		String key = KEY_PREFIX + Classes.simpleName(getClass());
 		
@@ -17,13 +17,18 @@
 package org.apache.wicket.pageStore;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.apache.wicket.MetaDataKey;
@@ -37,12 +42,19 @@ import org.slf4j.LoggerFactory;
 /**
  * Facade for {@link IPageStore} moving {@link #addPage(IPageContext, IManageablePage)} to a worker thread.
  * <p>
- * Creates an {@link PendingAdd} for {@link #addPage(IPageContext, IManageablePage)} and puts ito a {@link #queue}.
- * Later {@link PageAddingRunnable} reads in blocking manner from {@link #queue} and performs the add.
+ * Creates an {@link PendingAdd} for {@link #addPage(IPageContext, IManageablePage)} and puts ito a {@link #queues queue}.
+ * Later {@link PageAddingRunnable} reads in blocking manner from its queue and performs the add.
  * <p>
- * It starts only one instance of {@link PageAddingRunnable} because all we need is to make the page
- * storing asynchronous. We don't want to write concurrently in the wrapped {@link IPageStore},
- * though it may happen in the extreme case when the queue is full. These cases should be avoided.
+ * By default it starts only one instance of {@link PageAddingRunnable} because all we need is to make the page
+ * storing asynchronous. If the wrapped {@link IPageStore} supports concurrent writes for different sessions,
+ * more threads can be started: Each session is assigned to a single thread, so pages of one session are
+ * still added in order. Note that concurrent writes may happen anyway in the extreme case when a queue is full
+ * - these cases should be avoided, see {@link #getSynchronousCount()}.
+ * <p>
+ * If a page is added again while a previous add of the same page is still pending, the page of the pending add is
+ * replaced, i.e. only the latest state of a page is passed to the wrapped {@link IPageStore}. An optional delay
+ * keeps each add pending for a minimal duration, so repeated adds in a burst of requests (e.g. fast clicking
+ * through Ajax links) are coalesced, see {@link #getCoalescedCount()}.
  * 
  * @author Matej Knopp
  * @author manuelbarzi
@@ -64,14 +76,14 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	private static final long POLL_WAIT = 1000L;
 
 	/**
-	 * The page saving thread.
+	 * The page saving threads.
 	 */
-	private final Thread pageSavingThread;
+	private final List<Thread> pageSavingThreads;
 
 	/**
-	 * The queue where the entries which have to be saved are temporary stored
+	 * The queues (one for each thread) where the entries which have to be saved are temporary stored
 	 */
-	private final BlockingQueue<PendingAdd> queue;
+	private final List<BlockingQueue<PendingAdd>> queues;
 
 	/**
 	 * A map 'sessionId:::pageId' -> {@link PendingAdd}. Used for fast retrieval of {@link PendingAdd}s which
@@ -79,6 +91,16 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	 */
 	private final ConcurrentMap<String, PendingAdd> queueMap;
 
+	/**
+	 * Count of pages which had to be added synchronously.
+	 */
+	private final AtomicLong synchronousCount = new AtomicLong();
+
+	/**
+	 * Count of pages which replaced the page of a pending add.
+	 */
+	private final AtomicLong coalescedCount = new AtomicLong();
+
 	/**
 	 * Construct.
 	 * 
@@ -88,16 +110,144 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	 *            the capacity of the queue that delays the saving
 	 */
 	public AsynchronousPageStore(final IPageStore delegate, final int capacity)
+	{
+		this(delegate, capacity, 1);
+	}
+
+	/**
+	 * Construct.
+	 * 
+	 * @param delegate
+	 *            the wrapped {@link IPageStore} that actually saved the page
+	 * @param capacity
+	 *            the capacity of each thread's queue that delays the saving
+	 * @param threadCount
+	 *            the count of threads saving pages concurrently
+	 */
+	public AsynchronousPageStore(final IPageStore delegate, final int capacity, final int threadCount)
+	{
+		this(delegate, capacity, threadCount, null);
+	}
+
+	/**
+	 * Construct.
+	 * 
+	 * @param delegate
+	 *            the wrapped {@link IPageStore} that actually saved the page
+	 * @param capacity
+	 *            the capacity of each thread's queue that delays the saving
+	 * @param threadCount
+	 *            the count of threads saving pages concurrently
+	 * @param threadFactory
+	 *            optional factory for the threads, e.g. for virtual threads, may be {@code null}
+	 */
+	public AsynchronousPageStore(final IPageStore delegate, final int capacity,
+		final int threadCount, final ThreadFactory threadFactory)
+	{
+		this(delegate, capacity, threadCount, Duration.ZERO, threadFactory);
+	}
+
+	/**
+	 * Construct.
+	 * 
+	 * @param delegate
+	 *            the wrapped {@link IPageStore} that actually saved the page
+	 * @param capacity
+	 *            the capacity of each thread's queue that delays the saving
+	 * @param threadCount
+	 *            the count of threads saving pages concurrently
+	 * @param delay
+	 *            the minimal duration a page is kept pending, so following adds of the same page
+	 *            can be coalesced
+	 * @param threadFactory
+	 *            optional factory for the threads, e.g. for virtual threads, may be {@code null}
+	 */
+	public AsynchronousPageStore(final IPageStore delegate, final int capacity,
+		final int threadCount, final Duration delay, final ThreadFactory threadFactory)
 	{
 		super(delegate);
-		
-		queue = new LinkedBlockingQueue<>(capacity);
+
+		Args.withinRange(1, Integer.MAX_VALUE, threadCount, "threadCount");
+		Args.notNull(delay, "delay");
+
 		queueMap = new ConcurrentHashMap<>();
 
-		PageAddingRunnable savingRunnable = new PageAddingRunnable(delegate, queue, queueMap);
-		pageSavingThread = new Thread(savingRunnable, "Wicket-AsyncPageStore-PageSavingThread");
-		pageSavingThread.setDaemon(true);
-		pageSavingThread.start();
+		queues = new ArrayList<>(threadCount);
+		pageSavingThreads = new ArrayList<>(threadCount);
+		for (int i = 0; i < threadCount; i++)
+		{
+			BlockingQueue<PendingAdd> queue = new LinkedBlockingQueue<>(capacity);
+			queues.add(queue);
+
+			PageAddingRunnable savingRunnable = new PageAddingRunnable(delegate, queue, queueMap,
+				delay.toNanos());
+			Thread pageSavingThread;
+			if (threadFactory == null)
+			{
+				String name = "Wicket-AsyncPageStore-PageSavingThread";
+				if (threadCount > 1)
+				{
+					name += "-" + i;
+				}
+				pageSavingThread = new Thread(savingRunnable, name);
+				pageSavingThread.setDaemon(true);
+			}
+			else
+			{
+				pageSavingThread = threadFactory.newThread(savingRunnable);
+			}
+			pageSavingThreads.add(pageSavingThread);
+			pageSavingThread.start();
+		}
+	}
+
+	/**
+	 * Get the queue for the given session, so all pages of a session are added by the same
+	 * thread.
+	 * 
+	 * @param sessionId
+	 * @return queue
+	 */
+	private BlockingQueue<PendingAdd> getQueue(final String sessionId)
+	{
+		return queues.get(Math.floorMod(sessionId.hashCode(), queues.size()));
+	}
+
+	/**
+	 * Get the count of pages waiting to be added asynchronously.
+	 * 
+	 * @return count of pending pages
+	 */
+	public int getQueueSize()
+	{
+		int size = 0;
+		for (BlockingQueue<PendingAdd> queue : queues)
+		{
+			size += queue.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Get the count of pages which could not be queued (because of a full queue) and had to be added
+	 * synchronously.
+	 * 
+	 * @return count of synchronously added pages
+	 */
+	public long getSynchronousCount()
+	{
+		return synchronousCount.get();
+	}
+
+	/**
+	 * Get the count of pages which replaced the page of a pending add, i.e. were coalesced with a
+	 * previous add of the same page.
+	 * 
+	 * @return count of coalesced pages
+	 */
+	public long getCoalescedCount()
+	{
+		return coalescedCount.get();
 	}
 
 	/**
@@ -121,10 +271,25 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	{
 		private final IPageContext context;
 		
-		private final IManageablePage page;
+		private final int pageId;
 
 		private final String sessionId;
 
+		/**
+		 * Creation time in nanos.
+		 */
+		private final long created = System.nanoTime();
+
+		/**
+		 * The page to add, {@code null} if cancelled.
+		 */
+		private IManageablePage page;
+
+		/**
+		 * Has the page been taken for adding or was the add cancelled.
+		 */
+		private boolean taken = false;
+
 		/**
 		 * Is this context passed to an asynchronously called {@link IPageStore#addPage(IPageContext, IManageablePage)}.
 		 */
@@ -146,6 +311,7 @@ public class AsynchronousPageStore extends DelegatingPageStore
 		{
 			this.context = Args.notNull(context, "context");
 			this.page = Args.notNull(page, "page");
+			this.pageId = page.getPageId();
 			
 			this.sessionId = context.getSessionId(true);
 		}
@@ -155,13 +321,61 @@ public class AsynchronousPageStore extends DelegatingPageStore
 		 */
 		private String getKey()
 		{
-			return AsynchronousPageStore.getKey(sessionId, page.getPageId());
+			return AsynchronousPageStore.getKey(sessionId, pageId);
+		}
+
+		/**
+		 * Get the page to add.
+		 * 
+		 * @return page, {@code null} if cancelled
+		 */
+		private synchronized IManageablePage getPage()
+		{
+			return page;
+		}
+
+		/**
+		 * Replace the page with a newer one, if not already taken for adding.
+		 * 
+		 * @param page
+		 *            newer page
+		 * @return {@code true} if replaced
+		 */
+		private synchronized boolean replace(IManageablePage page)
+		{
+			if (taken)
+			{
+				return false;
+			}
+			this.page = page;
+			return true;
+		}
+
+		/**
+		 * Take the page for adding, preventing any further replacement.
+		 * 
+		 * @return page, {@code null} if cancelled
+		 */
+		private synchronized IManageablePage take()
+		{
+			taken = true;
+			return page;
+		}
+
+		/**
+		 * Cancel this add.
+		 */
+		private synchronized void cancel()
+		{
+			taken = true;
+			page = null;
 		}
 
 		@Override
 		public String toString()
 		{
-			return "PendingAdd [sessionId=" + sessionId + ", pageId=" + page.getPageId() + ", pageClass=" + Classes.name(page.getClass()) + "]";
+			IManageablePage page = getPage();
+			return "PendingAdd [sessionId=" + sessionId + ", pageId=" + pageId + ", pageClass=" + (page == null ? null : Classes.name(page.getClass())) + "]";
 		}
 
 		/**
@@ -259,12 +473,15 @@ public class AsynchronousPageStore extends DelegatingPageStore
 
 		private final IPageStore delegate;
 
+		private final long delayNanos;
+
 		private PageAddingRunnable(IPageStore delegate, BlockingQueue<PendingAdd> queue,
-		                           ConcurrentMap<String, PendingAdd> map)
+		                           ConcurrentMap<String, PendingAdd> map, long delayNanos)
 		{
 			this.delegate = delegate;
 			this.queue = queue;
 			this.map = map;
+			this.delayNanos = delayNanos;
 		}
 
 		@Override
@@ -285,11 +502,17 @@ public class AsynchronousPageStore extends DelegatingPageStore
 
 				if (add != null)
 				{
+					awaitDelay(add);
+
 					try
 					{
-						log.debug("Saving asynchronously: {}...", add);
-						add.asynchronous = true;
-						delegate.addPage(add, add.page);
+						IManageablePage page = add.take();
+						if (page != null)
+						{
+							log.debug("Saving asynchronously: {}...", add);
+							add.asynchronous = true;
+							delegate.addPage(add, page);
+						}
 					}
 					catch (Exception x)
 					{
@@ -297,19 +520,47 @@ public class AsynchronousPageStore extends DelegatingPageStore
 					}
 					finally
 					{
-						map.remove(add.getKey());
+						map.remove(add.getKey(), add);
 					}
 				}
 			}
 		}
+
+		/**
+		 * Wait until the delay of the given add has passed, allowing following adds to be coalesced.
+		 * 
+		 * @param add
+		 */
+		private void awaitDelay(PendingAdd add)
+		{
+			long remaining = add.created + delayNanos - System.nanoTime();
+			if (remaining > 0)
+			{
+				try
+				{
+					TimeUnit.NANOSECONDS.sleep(remaining);
+				}
+				catch (InterruptedException e)
+				{
+					// save the page anyway
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
 	}
 
 	@Override
 	public void destroy()
 	{
-		if (pageSavingThread.isAlive())
+		for (Thread pageSavingThread : pageSavingThreads)
+		{
+			if (pageSavingThread.isAlive())
+			{
+				pageSavingThread.interrupt();
+			}
+		}
+		for (Thread pageSavingThread : pageSavingThreads)
 		{
-			pageSavingThread.interrupt();
 			try
 			{
 				pageSavingThread.join();
@@ -334,8 +585,12 @@ public class AsynchronousPageStore extends DelegatingPageStore
 		PendingAdd entry = queueMap.get(getKey(sessionId, pageId));
 		if (entry != null)
 		{
-			log.debug("Returning the page of a non-stored entry with page id '{}'", pageId);
-			return entry.page;
+			IManageablePage page = entry.getPage();
+			if (page != null)
+			{
+				log.debug("Returning the page of a non-stored entry with page id '{}'", pageId);
+				return page;
+			}
 		}
 		IManageablePage page = getDelegate().getPage(context, pageId);
 
@@ -356,7 +611,8 @@ public class AsynchronousPageStore extends DelegatingPageStore
 		PendingAdd entry = queueMap.remove(key);
 		if (entry != null)
 		{
-			queue.remove(entry);
+			entry.cancel();
+			getQueue(sessionId).remove(entry);
 		}
 
 		getDelegate().removePage(context, page);
@@ -366,13 +622,22 @@ public class AsynchronousPageStore extends DelegatingPageStore
 	public void addPage(IPageContext context, IManageablePage page)
 	{
 		PendingAdd add = new PendingAdd(context, page);
+		String key = add.getKey();
+
+		PendingAdd pending = queueMap.get(key);
+		if (pending != null && pending.replace(page))
+		{
+			log.debug("Coalesced with pending add of page with id '{}'", page.getPageId());
+			coalescedCount.incrementAndGet();
+			return;
+		}
+
 		if (getDelegate().canBeAsynchronous(add))
 		{
-			String key = add.getKey();
 			queueMap.put(key, add);
 			try
 			{
-				if (queue.offer(add, OFFER_WAIT, TimeUnit.MILLISECONDS))
+				if (getQueue(add.sessionId).offer(add, OFFER_WAIT, TimeUnit.MILLISECONDS))
 				{
 					log.debug("Offered for storing asynchronously page with id '{}'", page.getPageId());
 					return;
@@ -381,12 +646,14 @@ public class AsynchronousPageStore extends DelegatingPageStore
 				{
 					log.debug("Storing synchronously page with id '{}'", page.getPageId());
 					queueMap.remove(key);
+					synchronousCount.incrementAndGet();
 				}
 			}
 			catch (InterruptedException e)
 			{
 				log.error(e.getMessage(), e);
 				queueMap.remove(key);
+				synchronousCount.incrementAndGet();
 			}
 		}
 		else
@@ -405,14 +672,16 @@ public class AsynchronousPageStore extends DelegatingPageStore
 			return;
 		}
 
-		queue.removeIf(add -> {
+		// cancel pending adds, including those already taken from the queue while waiting for their delay
+		queueMap.values().removeIf(add -> {
 			if (add.sessionId.equals(sessionId)) {
-				queueMap.remove(add.getKey());
+				add.cancel();
 				return true;
 			}
 			
 			return false;
 		});
+		getQueue(sessionId).removeIf(add -> add.sessionId.equals(sessionId));
 		
 		getDelegate().removeAllPages(context);
 	}
@@ -0,0 +1,494 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A store that limits the total size of pages in an {@link IPersistentPageStore} over all
+ * sessions.
+ * <p>
+ * Persistent stores usually limit the size of pages per session only (see
+ * {@link org.apache.wicket.settings.StoreSettings#getMaxSizePerSession()}), so a flood of short
+ * sessions might still exhaust the storage. This store checks the total size of its delegate
+ * periodically and evicts all pages of sessions, until the total size is below the maximum size
+ * again. The order of sessions to evict is determined by an eviction policy, e.g.
+ * {@link #LEAST_RECENTLY_USED}.
+ * <p>
+ * Eviction runs incrementally in a background thread: the size of each session is kept between
+ * runs and re-read from the delegate only after pages of the session were added or removed, and
+ * a limited count of sessions is evicted per run.
+ * 
+ * @see AbstractPersistentPageStore#removePersistedPages(String)
+ */
+public class BudgetingPageStore extends DelegatingPageStore implements IPersistentPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(BudgetingPageStore.class);
+
+	/**
+	 * Evict sessions whose pages were accessed least recently first.
+	 */
+	public static final Comparator<SessionInfo> LEAST_RECENTLY_USED = Comparator
+		.comparingLong(SessionInfo::getLastAccess);
+
+	/**
+	 * Evict sessions whose first page was stored earliest first.
+	 */
+	public static final Comparator<SessionInfo> OLDEST_SESSION_FIRST = Comparator
+		.comparingLong(SessionInfo::getCreated);
+
+	/**
+	 * Evict sessions with the largest size of pages first.
+	 */
+	public static final Comparator<SessionInfo> LARGEST_SESSION_FIRST = Comparator
+		.comparingLong((SessionInfo info) -> info.getSize().bytes()).reversed();
+
+	/**
+	 * Default count of sessions evicted in a single run.
+	 */
+	private static final int DEFAULT_MAX_EVICTIONS_PER_RUN = 100;
+
+	private final AbstractPersistentPageStore store;
+
+	private final IPersistentPageStore persistentStore;
+
+	private final Bytes maxSize;
+
+	private final Comparator<SessionInfo> policy;
+
+	private final ConcurrentMap<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * Whether sessions already stored in the delegate were read, e.g. persisted before startup.
+	 */
+	private volatile boolean initialized;
+
+	private final ScheduledExecutorService executor;
+
+	private int maxEvictionsPerRun = DEFAULT_MAX_EVICTIONS_PER_RUN;
+
+	private final AtomicLong evictedSessions = new AtomicLong();
+
+	private final AtomicLong evictedPages = new AtomicLong();
+
+	private final AtomicLong evictedBytes = new AtomicLong();
+
+	/**
+	 * @param <S>
+	 *            type of the delegate
+	 * @param delegate
+	 *            persistent store to delegate to
+	 * @param maxSize
+	 *            maximum size of pages of all sessions
+	 * @param policy
+	 *            policy to order sessions for eviction, evicting the first sessions first
+	 * @param interval
+	 *            interval of eviction runs, {@link Duration#ZERO} to run {@link #evict()} manually
+	 *            only
+	 */
+	public <S extends AbstractPersistentPageStore & IPersistentPageStore> BudgetingPageStore(
+		S delegate, Bytes maxSize, Comparator<SessionInfo> policy, Duration interval)
+	{
+		super(delegate);
+
+		this.store = delegate;
+		this.persistentStore = delegate;
+		this.maxSize = Args.notNull(maxSize, "maxSize");
+		this.policy = Args.notNull(policy, "policy");
+		Args.notNull(interval, "interval");
+
+		if (interval.isZero())
+		{
+			executor = null;
+		}
+		else
+		{
+			executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "Wicket-BudgetingPageStore-EvictionThread");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long millis = interval.toMillis();
+			executor.scheduleWithFixedDelay(this::evictSafely, millis, millis,
+				TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Set the maximum count of sessions evicted in a single run.
+	 * 
+	 * @param maxEvictionsPerRun
+	 *            maximum count of sessions
+	 * @return this
+	 */
+	public BudgetingPageStore setMaxEvictionsPerRun(int maxEvictionsPerRun)
+	{
+		this.maxEvictionsPerRun = Args.withinRange(1, Integer.MAX_VALUE, maxEvictionsPerRun,
+			"maxEvictionsPerRun");
+		return this;
+	}
+
+	@Override
+	public IManageablePage getPage(IPageContext context, int id)
+	{
+		IManageablePage page = super.getPage(context, id);
+		if (page != null)
+		{
+			touch(context, false);
+		}
+		return page;
+	}
+
+	@Override
+	public void addPage(IPageContext context, IManageablePage page)
+	{
+		super.addPage(context, page);
+
+		touch(context, true);
+	}
+
+	@Override
+	public void removePage(IPageContext context, IManageablePage page)
+	{
+		super.removePage(context, page);
+
+		String sessionIdentifier = store.getSessionIdentifier(context, false);
+		if (sessionIdentifier == null)
+		{
+			return;
+		}
+
+		SessionState state = sessions.get(sessionIdentifier);
+		if (state != null)
+		{
+			state.modified = true;
+		}
+	}
+
+	@Override
+	public void removeAllPages(IPageContext context)
+	{
+		super.removeAllPages(context);
+
+		String sessionIdentifier = store.getSessionIdentifier(context, false);
+		if (sessionIdentifier != null)
+		{
+			sessions.remove(sessionIdentifier);
+		}
+	}
+
+	private void touch(IPageContext context, boolean modified)
+	{
+		String sessionIdentifier = store.getSessionIdentifier(context, false);
+		if (sessionIdentifier == null)
+		{
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		SessionState state = sessions.computeIfAbsent(sessionIdentifier,
+			key -> new SessionState(now));
+		state.lastAccess = now;
+		if (modified)
+		{
+			state.modified = true;
+		}
+	}
+
+	@Override
+	public String getSessionIdentifier(IPageContext context)
+	{
+		return persistentStore.getSessionIdentifier(context);
+	}
+
+	@Override
+	public Set<String> getSessionIdentifiers()
+	{
+		return persistentStore.getSessionIdentifiers();
+	}
+
+	@Override
+	public List<IPersistedPage> getPersistedPages(String sessionIdentifier)
+	{
+		return persistentStore.getPersistedPages(sessionIdentifier);
+	}
+
+	@Override
+	public Bytes getTotalSize()
+	{
+		return persistentStore.getTotalSize();
+	}
+
+	/**
+	 * Remove all pages stored with the given session identifier.
+	 * 
+	 * @param sessionIdentifier
+	 *            identifier of session
+	 * 
+	 * @see AbstractPersistentPageStore#removePersistedPages(String)
+	 */
+	public void removePersistedPages(String sessionIdentifier)
+	{
+		store.removePersistedPages(sessionIdentifier);
+
+		sessions.remove(sessionIdentifier);
+	}
+
+	private void evictSafely()
+	{
+		try
+		{
+			evict();
+		}
+		catch (Exception ex)
+		{
+			log.error("Error evicting pages", ex);
+		}
+	}
+
+	/**
+	 * Evict sessions until the total size is less than the maximum size, or the maximum count of
+	 * evictions per run is reached.
+	 */
+	public void evict()
+	{
+		Set<String> sessionIdentifiers = persistentStore.getSessionIdentifiers();
+
+		// forget sessions removed by other means, e.g. session expiration
+		sessions.keySet().retainAll(sessionIdentifiers);
+
+		if (initialized == false)
+		{
+			// sessions not accessed through this store come first
+			for (String sessionIdentifier : sessionIdentifiers)
+			{
+				sessions.computeIfAbsent(sessionIdentifier, key -> new SessionState(0));
+			}
+			initialized = true;
+		}
+
+		long total = 0;
+		List<SessionInfo> infos = new ArrayList<>(sessions.size());
+		for (Map.Entry<String, SessionState> entry : sessions.entrySet())
+		{
+			SessionState state = entry.getValue();
+			if (state.modified)
+			{
+				// reset before reading, so concurrent modifications are read next run
+				state.modified = false;
+				state.read(persistentStore.getPersistedPages(entry.getKey()));
+			}
+
+			SessionInfo info = new SessionInfo(entry.getKey(), state);
+			total += info.getSize().bytes();
+			infos.add(info);
+		}
+
+		if (total <= maxSize.bytes())
+		{
+			return;
+		}
+
+		infos.sort(policy);
+
+		int evictions = 0;
+		for (SessionInfo info : infos)
+		{
+			if (total <= maxSize.bytes() || evictions == maxEvictionsPerRun)
+			{
+				break;
+			}
+
+			log.debug("Evicting {} pages of session '{}'", info.getPages().size(),
+				info.getSessionIdentifier());
+
+			removePersistedPages(info.getSessionIdentifier());
+
+			total -= info.getSize().bytes();
+			evictions++;
+
+			evictedSessions.incrementAndGet();
+			evictedPages.addAndGet(info.getPages().size());
+			evictedBytes.addAndGet(info.getSize().bytes());
+		}
+	}
+
+	/**
+	 * @return count of evicted sessions
+	 */
+	public long getEvictedSessions()
+	{
+		return evictedSessions.get();
+	}
+
+	/**
+	 * @return count of evicted pages
+	 */
+	public long getEvictedPages()
+	{
+		return evictedPages.get();
+	}
+
+	/**
+	 * @return size of evicted pages
+	 */
+	public Bytes getEvictedSize()
+	{
+		return Bytes.bytes(evictedBytes.get());
+	}
+
+	@Override
+	public void destroy()
+	{
+		if (executor != null)
+		{
+			executor.shutdownNow();
+			try
+			{
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		super.destroy();
+	}
+
+	/**
+	 * Access times and pages of a session, kept between eviction runs.
+	 */
+	private static class SessionState
+	{
+		private final long created;
+
+		private volatile long lastAccess;
+
+		/**
+		 * Whether pages were added or removed since they were last read.
+		 */
+		private volatile boolean modified = true;
+
+		private volatile List<IPersistedPage> pages = Collections.emptyList();
+
+		private volatile long size;
+
+		public SessionState(long created)
+		{
+			this.created = created;
+			this.lastAccess = created;
+		}
+
+		private void read(List<IPersistedPage> pages)
+		{
+			long size = 0;
+			for (IPersistedPage page : pages)
+			{
+				size += page.getPageSize().bytes();
+			}
+
+			this.pages = pages;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Information about a session, used by eviction policies.
+	 */
+	public static class SessionInfo
+	{
+		private final String sessionIdentifier;
+
+		private final long created;
+
+		private final long lastAccess;
+
+		private final List<IPersistedPage> pages;
+
+		private final long size;
+
+		private SessionInfo(String sessionIdentifier, SessionState state)
+		{
+			this.sessionIdentifier = sessionIdentifier;
+
+			this.created = state.created;
+			this.lastAccess = state.lastAccess;
+
+			this.pages = state.pages;
+			this.size = state.size;
+		}
+
+		/**
+		 * @return identifier of the session
+		 */
+		public String getSessionIdentifier()
+		{
+			return sessionIdentifier;
+		}
+
+		/**
+		 * @return milliseconds when a page of the session was first stored
+		 */
+		public long getCreated()
+		{
+			return created;
+		}
+
+		/**
+		 * @return milliseconds when a page of the session was last stored or loaded
+		 */
+		public long getLastAccess()
+		{
+			return lastAccess;
+		}
+
+		/**
+		 * @return the persisted pages of the session
+		 */
+		public List<IPersistedPage> getPages()
+		{
+			return pages;
+		}
+
+		/**
+		 * @return total size of the session's pages
+		 */
+		public Bytes getSize()
+		{
+			return Bytes.bytes(size);
+		}
+	}
+}
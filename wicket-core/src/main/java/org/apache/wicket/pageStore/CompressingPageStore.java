@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.serialize.compress.ICompressor;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+
+/**
+ * A store that compresses all pages before delegating and vice versa.
+ * <p>
+ * The store keeps statistics of its compressor, i.e. the achieved compression ratio and the
+ * throughput of compression and decompression, so different compressors can be compared on actual
+ * pages of an application.
+ * <p>
+ * All pages passing through this store are restricted to be {@link SerializedPage}s. You can
+ * achieve this with
+ * <ul>
+ * <li>a {@link SerializingPageStore} delegating to this store and</li>
+ * <li>delegating to a store that does not deserialize its pages, e.g. a {@link DiskPageStore}.</li>.
+ * </ul>
+ * Note that encrypted pages are not compressible, so this store should delegate to a
+ * {@link CryptingPageStore} rather than the other way around. When preceded by an
+ * {@link AsynchronousPageStore}, pages are compressed in its worker thread.
+ * 
+ * @see org.apache.wicket.serialize.compress.LzCompressor
+ * @see org.apache.wicket.serialize.compress.DeflateCompressor
+ */
+public class CompressingPageStore extends DelegatingPageStore
+{
+	private final ICompressor compressor;
+
+	private final AtomicLong uncompressedBytes = new AtomicLong();
+
+	private final AtomicLong compressedBytes = new AtomicLong();
+
+	private final AtomicLong compressionNanos = new AtomicLong();
+
+	private final AtomicLong decompressedBytes = new AtomicLong();
+
+	private final AtomicLong decompressionNanos = new AtomicLong();
+
+	/**
+	 * @param delegate
+	 *            store to delegate to
+	 * @param compressor
+	 *            compressor to use
+	 */
+	public CompressingPageStore(IPageStore delegate, ICompressor compressor)
+	{
+		super(delegate);
+
+		this.compressor = Args.notNull(compressor, "compressor");
+	}
+
+	/**
+	 * @return the compressor
+	 */
+	public ICompressor getCompressor()
+	{
+		return compressor;
+	}
+
+	/**
+	 * Pages are always serialized, so versioning is supported.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	@Override
+	public IManageablePage getPage(IPageContext context, int id)
+	{
+		IManageablePage page = getDelegate().getPage(context, id);
+
+		if (page != null)
+		{
+			if (page instanceof SerializedPage == false)
+			{
+				throw new WicketRuntimeException("CompressingPageStore expects serialized pages");
+			}
+			SerializedPage serializedPage = (SerializedPage)page;
+
+			long start = System.nanoTime();
+			byte[] data = compressor.decompress(serializedPage.getData());
+			decompressionNanos.addAndGet(System.nanoTime() - start);
+			decompressedBytes.addAndGet(data.length);
+
+			page = new SerializedPage(id, serializedPage.getPageType(), data);
+		}
+
+		return page;
+	}
+
+	@Override
+	public void addPage(IPageContext context, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("CompressingPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage)page;
+
+		byte[] data = serializedPage.getData();
+
+		long start = System.nanoTime();
+		byte[] compressed = compressor.compress(data);
+		compressionNanos.addAndGet(System.nanoTime() - start);
+		uncompressedBytes.addAndGet(data.length);
+		compressedBytes.addAndGet(compressed.length);
+
+		getDelegate().addPage(context,
+			new SerializedPage(page.getPageId(), serializedPage.getPageType(), compressed));
+	}
+
+	/**
+	 * @return total size of all pages before compression
+	 */
+	public Bytes getUncompressedSize()
+	{
+		return Bytes.bytes(uncompressedBytes.get());
+	}
+
+	/**
+	 * @return total size of all pages after compression
+	 */
+	public Bytes getCompressedSize()
+	{
+		return Bytes.bytes(compressedBytes.get());
+	}
+
+	/**
+	 * @return total time spent compressing
+	 */
+	public Duration getCompressionTime()
+	{
+		return Duration.ofNanos(compressionNanos.get());
+	}
+
+	/**
+	 * @return total size of all pages after decompression
+	 */
+	public Bytes getDecompressedSize()
+	{
+		return Bytes.bytes(decompressedBytes.get());
+	}
+
+	/**
+	 * @return total time spent decompressing
+	 */
+	public Duration getDecompressionTime()
+	{
+		return Duration.ofNanos(decompressionNanos.get());
+	}
+
+	/**
+	 * Get the ratio of compressed to uncompressed size, e.g. {@code 0.25} if pages were compressed
+	 * to a quarter of their size.
+	 * 
+	 * @return ratio or {@code 1.0} if no page was compressed yet
+	 */
+	public double getCompressionRatio()
+	{
+		long uncompressed = uncompressedBytes.get();
+		if (uncompressed == 0)
+		{
+			return 1.0;
+		}
+		return (double)compressedBytes.get() / uncompressed;
+	}
+
+	/**
+	 * @return uncompressed bytes compressed per second
+	 */
+	public double getCompressionThroughput()
+	{
+		return throughput(uncompressedBytes.get(), compressionNanos.get());
+	}
+
+	/**
+	 * @return uncompressed bytes decompressed per second
+	 */
+	public double getDecompressionThroughput()
+	{
+		return throughput(decompressedBytes.get(), decompressionNanos.get());
+	}
+
+	private static double throughput(long bytes, long nanos)
+	{
+		if (nanos == 0)
+		{
+			return 0;
+		}
+		return bytes * 1_000_000_000d / nanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%s[compressor=%s, ratio=%.3f, compression=%.1f MB/s, decompression=%.1f MB/s]",
+			getClass().getSimpleName(), compressor.getClass().getSimpleName(),
+			getCompressionRatio(), getCompressionThroughput() / (1024 * 1024),
+			getDecompressionThroughput() / (1024 * 1024));
+	}
+}
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.pageStore.delta.BinaryDelta;
+import org.apache.wicket.util.lang.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A store that stores pages as binary deltas against a previously stored page.
+ * <p>
+ * Each new version of a page gets a new page id, but usually differs only slightly from the
+ * previous version. This store keeps a full snapshot of a page as a <em>base</em> for each page
+ * type in a session, following pages of the same type are stored as a delta against their base
+ * only, as long as the delta is considerably smaller than the page itself. On
+ * {@link #getPage(IPageContext, int)} a page stored as a delta is reconstructed from its base.
+ * <p>
+ * A base is never replaced without re-encoding the deltas depending on it, e.g. when the page of
+ * the base is stored again. Still a page stored as a delta can no longer be reconstructed when its
+ * base was removed by the delegate, e.g. when {@link DiskPageStore} exceeds its maximum size per
+ * session. Thus after a maximum count of deltas a new base is stored, to limit the count of pages
+ * depending on a single base.
+ * <p>
+ * All pages passing through this store are restricted to be {@link SerializedPage}s. You can
+ * achieve this with
+ * <ul>
+ * <li>a {@link SerializingPageStore} delegating to this store and</li>
+ * <li>delegating to a store that does not deserialize its pages, e.g. a {@link DiskPageStore}.</li>.
+ * </ul>
+ * Note that encrypted pages do not share any content, so this store should delegate to a
+ * {@link CryptingPageStore} rather than the other way around.
+ */
+public class DeltaPageStore extends DelegatingPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(DeltaPageStore.class);
+
+	private static final MetaDataKey<SessionData> KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	private static final byte FULL = 0;
+
+	private static final byte DELTA = 1;
+
+	/**
+	 * Header of a full page: type and checksum.
+	 */
+	private static final int FULL_HEADER = 1 + 4;
+
+	/**
+	 * Header of a delta: type, id of base page and checksum of base page.
+	 */
+	private static final int DELTA_HEADER = 1 + 4 + 4;
+
+	private final int maxDeltas;
+
+	/**
+	 * @param delegate
+	 *            store to delegate to
+	 */
+	public DeltaPageStore(IPageStore delegate)
+	{
+		this(delegate, 10);
+	}
+
+	/**
+	 * @param delegate
+	 *            store to delegate to
+	 * @param maxDeltas
+	 *            maximum count of deltas stored against a single base
+	 */
+	public DeltaPageStore(IPageStore delegate, int maxDeltas)
+	{
+		super(delegate);
+
+		this.maxDeltas = Args.withinRange(0, Integer.MAX_VALUE, maxDeltas, "maxDeltas");
+	}
+
+	/**
+	 * Pages are always serialized, so versioning is supported.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	/**
+	 * Supports asynchronous add if the delegate supports it.
+	 */
+	@Override
+	public boolean canBeAsynchronous(IPageContext context)
+	{
+		// session data must be added here *before* any asynchronous calls
+		// when session is no longer available
+		getSessionData(context);
+
+		return getDelegate().canBeAsynchronous(context);
+	}
+
+	private SessionData getSessionData(IPageContext context)
+	{
+		return context.getSessionData(KEY, SessionData::new);
+	}
+
+	@Override
+	public IManageablePage getPage(IPageContext context, int id)
+	{
+		IManageablePage page = getDelegate().getPage(context, id);
+
+		if (page != null)
+		{
+			if (page instanceof SerializedPage == false)
+			{
+				throw new WicketRuntimeException("DeltaPageStore expects serialized pages");
+			}
+			SerializedPage serializedPage = (SerializedPage)page;
+
+			byte[] data = serializedPage.getData();
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			if (buffer.get() == FULL)
+			{
+				data = payload(data, FULL_HEADER);
+			}
+			else
+			{
+				int baseId = buffer.getInt();
+				int baseChecksum = buffer.getInt();
+
+				byte[] base = getFull(context, baseId);
+				if (base == null || checksum(base) != baseChecksum)
+				{
+					log.debug("Base page with id '{}' of page with id '{}' no longer available",
+						baseId, id);
+					return null;
+				}
+
+				data = BinaryDelta.apply(payload(base, FULL_HEADER), data, DELTA_HEADER,
+					data.length - DELTA_HEADER);
+			}
+
+			page = new SerializedPage(id, serializedPage.getPageType(), data);
+		}
+
+		return page;
+	}
+
+	/**
+	 * Get the stored data of a page stored in full.
+	 *
+	 * @return data including header, or {@code null} if not found or not full
+	 */
+	private byte[] getFull(IPageContext context, int id)
+	{
+		IManageablePage page = getDelegate().getPage(context, id);
+		if (page instanceof SerializedPage)
+		{
+			byte[] data = ((SerializedPage)page).getData();
+			if (data.length >= FULL_HEADER && data[0] == FULL)
+			{
+				return data;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void addPage(IPageContext context, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("DeltaPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage)page;
+
+		String pageType = serializedPage.getPageType();
+		byte[] data = serializedPage.getData();
+
+		SessionData sessionData = getSessionData(context);
+
+		Base base = sessionData.getBase(pageType);
+		if (base != null && base.pageId != page.getPageId() &&
+			sessionData.isBase(page.getPageId()) == false && base.dependents.size() < maxDeltas)
+		{
+			byte[] full = getFull(context, base.pageId);
+			if (full != null)
+			{
+				byte[] stored = delta(full, base.pageId, data);
+				if (stored != null)
+				{
+					sessionData.addDelta(base, page.getPageId());
+
+					getDelegate().addPage(context,
+						new SerializedPage(page.getPageId(), pageType, stored));
+					return;
+				}
+			}
+		}
+
+		byte[] stored = full(data);
+
+		// the previous full page is needed to re-encode the deltas depending on it
+		Base newBase = sessionData.setBase(pageType, page.getPageId());
+		byte[] previousFull = newBase.dependents.isEmpty() ? null
+			: getFull(context, newBase.pageId);
+
+		getDelegate().addPage(context, new SerializedPage(page.getPageId(), pageType, stored));
+
+		if (previousFull != null && checksum(previousFull) != checksum(stored))
+		{
+			reencode(context, sessionData, newBase, previousFull, stored);
+		}
+	}
+
+	/**
+	 * Re-encode all deltas depending on a base that is replaced, so they can still be
+	 * reconstructed.
+	 *
+	 * @param previousFull
+	 *            replaced full page
+	 * @param full
+	 *            replacing full page
+	 */
+	private void reencode(IPageContext context, SessionData sessionData, Base base,
+		byte[] previousFull, byte[] full)
+	{
+		byte[] previousPayload = payload(previousFull, FULL_HEADER);
+
+		for (Integer id : sessionData.getDependents(base))
+		{
+			IManageablePage page = getDelegate().getPage(context, id);
+			byte[] data = page instanceof SerializedPage ? ((SerializedPage)page).getData() : null;
+			if (data == null || data.length < DELTA_HEADER || data[0] != DELTA)
+			{
+				sessionData.removeDelta(base, id);
+				continue;
+			}
+
+			ByteBuffer buffer = ByteBuffer.wrap(data, 1, DELTA_HEADER - 1);
+			if (buffer.getInt() != base.pageId || buffer.getInt() != checksum(previousFull))
+			{
+				sessionData.removeDelta(base, id);
+				continue;
+			}
+
+			byte[] reconstructed = BinaryDelta.apply(previousPayload, data, DELTA_HEADER,
+				data.length - DELTA_HEADER);
+
+			byte[] stored = delta(full, base.pageId, reconstructed);
+			if (stored == null)
+			{
+				sessionData.removeDelta(base, id);
+				stored = full(reconstructed);
+			}
+
+			getDelegate().addPage(context,
+				new SerializedPage(id, ((SerializedPage)page).getPageType(), stored));
+		}
+	}
+
+	/**
+	 * Encode data as a delta against a full page.
+	 *
+	 * @return delta including header, or {@code null} if not considerably smaller than the data
+	 */
+	private static byte[] delta(byte[] full, int baseId, byte[] data)
+	{
+		byte[] delta = BinaryDelta.create(payload(full, FULL_HEADER), data);
+		if (delta.length < data.length / 2)
+		{
+			return ByteBuffer.allocate(DELTA_HEADER + delta.length)
+				.put(DELTA)
+				.putInt(baseId)
+				.putInt(checksum(full))
+				.put(delta)
+				.array();
+		}
+		return null;
+	}
+
+	/**
+	 * Encode data as a full page.
+	 *
+	 * @return data including header
+	 */
+	private static byte[] full(byte[] data)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		return ByteBuffer.allocate(FULL_HEADER + data.length)
+			.put(FULL)
+			.putInt((int)crc.getValue())
+			.put(data)
+			.array();
+	}
+
+	@Override
+	public void removePage(IPageContext context, IManageablePage page)
+	{
+		SessionData sessionData = context.getSessionData(KEY, () -> null);
+		if (sessionData != null)
+		{
+			sessionData.removePage(page.getPageId());
+		}
+
+		super.removePage(context, page);
+	}
+
+	@Override
+	public void removeAllPages(IPageContext context)
+	{
+		SessionData sessionData = context.getSessionData(KEY, () -> null);
+		if (sessionData != null)
+		{
+			sessionData.removeAllBases();
+		}
+
+		super.removeAllPages(context);
+	}
+
+	/**
+	 * Get the checksum of a page stored in full.
+	 */
+	private static int checksum(byte[] full)
+	{
+		return ByteBuffer.wrap(full, 1, 4).getInt();
+	}
+
+	private static byte[] payload(byte[] data, int header)
+	{
+		byte[] payload = new byte[data.length - header];
+		System.arraycopy(data, header, payload, 0, payload.length);
+		return payload;
+	}
+
+	/**
+	 * A page stored in full, used as base for deltas.
+	 */
+	private static class Base implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int pageId;
+
+		/**
+		 * Ids of pages stored as delta against this base.
+		 */
+		private final Set<Integer> dependents = new HashSet<>();
+
+		public Base(int pageId)
+		{
+			this.pageId = pageId;
+		}
+	}
+
+	/**
+	 * The bases of a session: the current base for each page type, and all previous bases still
+	 * having dependent deltas.
+	 */
+	private static class SessionData implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Map<String, Base> current = new HashMap<>();
+
+		private final Map<Integer, Base> bases = new HashMap<>();
+
+		public synchronized Base getBase(String pageType)
+		{
+			return current.get(pageType);
+		}
+
+		public synchronized boolean isBase(int pageId)
+		{
+			return bases.containsKey(pageId);
+		}
+
+		/**
+		 * Set the current base of a page type, keeping the deltas already depending on it.
+		 *
+		 * @return the base
+		 */
+		public synchronized Base setBase(String pageType, int pageId)
+		{
+			removeDelta(pageId);
+
+			Base base = bases.computeIfAbsent(pageId, Base::new);
+			Base previous = current.put(pageType, base);
+			if (previous != null && previous != base && previous.dependents.isEmpty())
+			{
+				bases.remove(previous.pageId);
+			}
+			return base;
+		}
+
+		public synchronized void addDelta(Base base, int pageId)
+		{
+			removeDelta(pageId);
+
+			base.dependents.add(pageId);
+		}
+
+		public synchronized List<Integer> getDependents(Base base)
+		{
+			return new ArrayList<>(base.dependents);
+		}
+
+		public synchronized void removeDelta(Base base, int pageId)
+		{
+			base.dependents.remove(pageId);
+		}
+
+		private void removeDelta(int pageId)
+		{
+			Iterator<Base> iterator = bases.values().iterator();
+			while (iterator.hasNext())
+			{
+				Base base = iterator.next();
+				if (base.dependents.remove(pageId) && base.dependents.isEmpty() &&
+					current.containsValue(base) == false)
+				{
+					iterator.remove();
+				}
+			}
+		}
+
+		public synchronized void removePage(int pageId)
+		{
+			removeDelta(pageId);
+
+			Base base = bases.remove(pageId);
+			if (base != null)
+			{
+				current.values().remove(base);
+			}
+		}
+
+		public synchronized void removeAllBases()
+		{
+			current.clear();
+			bases.clear();
+		}
+	}
+}
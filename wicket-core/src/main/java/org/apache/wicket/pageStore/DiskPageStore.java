@@ -219,11 +219,32 @@ public class DiskPageStore extends AbstractPersistentPageStore implements IPersi
 			return diskDatas.get(sessionIdentifier);
 		}
 
-		DiskData data = new DiskData(this, sessionIdentifier);
+		DiskData data = newDiskData(sessionIdentifier);
 		DiskData existing = diskDatas.putIfAbsent(sessionIdentifier, data);
 		return existing != null ? existing : data;
 	}
 
+	/**
+	 * Create the data on disk for the given session identifier.
+	 * 
+	 * @param sessionIdentifier identifier of session
+	 * @return data
+	 */
+	protected DiskData newDiskData(String sessionIdentifier)
+	{
+		return new DiskData(this, sessionIdentifier);
+	}
+
+	/**
+	 * Get the maximum size per session.
+	 * 
+	 * @return maximum size
+	 */
+	protected final Bytes getMaxSizePerSession()
+	{
+		return maxSizePerSession;
+	}
+
 	/**
 	 * Load the index
 	 */
@@ -333,11 +354,11 @@ public class DiskPageStore extends AbstractPersistentPageStore implements IPersi
 	{
 		private static final long serialVersionUID = 1L;
 
-		private transient DiskPageStore pageStore;
+		protected transient DiskPageStore pageStore;
 
 		private transient String fileName;
 
-		private String sessionIdentifier;
+		protected String sessionIdentifier;
 
 		private PageWindowManager manager;
 
@@ -362,7 +383,7 @@ public class DiskPageStore extends AbstractPersistentPageStore implements IPersi
 			return manager;
 		}
 
-		private String getFileName()
+		protected String getFileName()
 		{
 			if (fileName == null)
 			{
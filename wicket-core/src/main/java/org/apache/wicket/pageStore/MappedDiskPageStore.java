@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.wicket.pageStore.disk.PageWindowManager.FileWindow;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DiskPageStore} accessing the file of each session through a memory mapping.
+ * <p>
+ * Pages are copied directly from and into the mapped file, without opening a file channel and
+ * allocating an intermediate buffer on each access. Furthermore a session's pages are guarded by a
+ * read-write lock instead of a monitor, thus concurrent requests for different pages of a single
+ * session (e.g. from multiple browser tabs) can load their pages in parallel, only writing pages
+ * requires exclusive access.
+ * <p>
+ * Note that a mapping is released by the garbage collector only, so on some operating systems the
+ * file of a session might not be deletable until then.
+ */
+public class MappedDiskPageStore extends DiskPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(MappedDiskPageStore.class);
+
+	/**
+	 * Minimal size of a mapping.
+	 */
+	private static final int MIN_MAPPING_SIZE = (int)Bytes.kilobytes(64).bytes();
+
+	/**
+	 * Create a store that supports {@link SerializedPage}s only.
+	 *
+	 * @param applicationName
+	 *            name of application
+	 * @param fileStoreFolder
+	 *            folder to store to
+	 * @param maxSizePerSession
+	 *            maximum size per session
+	 *
+	 * @see SerializingPageStore
+	 */
+	public MappedDiskPageStore(String applicationName, File fileStoreFolder, Bytes maxSizePerSession)
+	{
+		super(applicationName, fileStoreFolder, maxSizePerSession);
+	}
+
+	@Override
+	protected DiskData newDiskData(String sessionIdentifier)
+	{
+		return new MappedDiskData(this, sessionIdentifier);
+	}
+
+	/**
+	 * Data held on disk, accessed via a memory mapping.
+	 */
+	protected static class MappedDiskData extends DiskData
+	{
+		private static final long serialVersionUID = 1L;
+
+		private transient ReadWriteLock lock;
+
+		private transient volatile MappedByteBuffer mapping;
+
+		protected MappedDiskData(DiskPageStore pageStore, String sessionIdentifier)
+		{
+			super(pageStore, sessionIdentifier);
+
+			lock = new ReentrantReadWriteLock();
+		}
+
+		@Override
+		public void savePage(int pageId, String pageType, byte[] data)
+		{
+			lock.writeLock().lock();
+			try
+			{
+				if (sessionIdentifier == null)
+				{
+					return;
+				}
+
+				// only save page that has some data
+				if (data != null)
+				{
+					// allocate window for page
+					FileWindow window = getManager().createPageWindow(pageId, pageType, data.length);
+
+					ByteBuffer buffer = getMapping(window, true);
+					if (buffer != null)
+					{
+						buffer.put(data);
+					}
+					else
+					{
+						log.warn(
+							"Cannot save page with id '{}' because the data file cannot be mapped.",
+							pageId);
+					}
+				}
+			}
+			finally
+			{
+				lock.writeLock().unlock();
+			}
+		}
+
+		@Override
+		public void removeData(int pageId)
+		{
+			lock.writeLock().lock();
+			try
+			{
+				super.removeData(pageId);
+			}
+			finally
+			{
+				lock.writeLock().unlock();
+			}
+		}
+
+		@Override
+		public byte[] loadPage(int id)
+		{
+			lock.readLock().lock();
+			try
+			{
+				if (sessionIdentifier == null)
+				{
+					return null;
+				}
+
+				FileWindow window = getManager().getPageWindow(id);
+				if (window == null)
+				{
+					return null;
+				}
+
+				return loadData(window);
+			}
+			finally
+			{
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		public byte[] loadData(FileWindow window)
+		{
+			byte[] result = null;
+
+			ByteBuffer buffer = getMapping(window, false);
+			if (buffer != null)
+			{
+				result = new byte[window.getFilePartSize()];
+				buffer.get(result);
+			}
+
+			return result;
+		}
+
+		@Override
+		public void unbind()
+		{
+			lock.writeLock().lock();
+			try
+			{
+				mapping = null;
+
+				super.unbind();
+			}
+			finally
+			{
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Get a view on the mapped file, positioned and limited to the given window.
+		 *
+		 * @param window
+		 *            window to access
+		 * @param create
+		 *            whether the file should be created if not existing
+		 * @return buffer or {@code null} if the file cannot be mapped
+		 */
+		private ByteBuffer getMapping(FileWindow window, boolean create)
+		{
+			int offset = window.getFilePartOffset();
+			int size = window.getFilePartSize();
+
+			MappedByteBuffer current = mapping;
+			if (current == null || current.capacity() < offset + size)
+			{
+				current = map(offset + size, create);
+				if (current == null)
+				{
+					return null;
+				}
+			}
+
+			ByteBuffer buffer = current.duplicate();
+			buffer.limit(offset + size);
+			buffer.position(offset);
+			return buffer;
+		}
+
+		/**
+		 * Map the file with at least the given size.
+		 * <p>
+		 * The mapping grows exponentially up to the maximum size of the session, so that the file is
+		 * not remapped on each appended page.
+		 *
+		 * @param required
+		 *            required size
+		 * @param create
+		 *            whether the file should be created if not existing
+		 * @return mapping or {@code null} if the file cannot be mapped
+		 */
+		private synchronized MappedByteBuffer map(int required, boolean create)
+		{
+			MappedByteBuffer current = mapping;
+			if (current != null && current.capacity() >= required)
+			{
+				// mapped by another thread already
+				return current;
+			}
+
+			File file = new File(getFileName());
+			if (create == false && file.exists() == false)
+			{
+				return null;
+			}
+
+			long maxSize = pageStore.getMaxSizePerSession().bytes();
+			long size = current == null ? MIN_MAPPING_SIZE : (long)current.capacity() * 2;
+			size = Math.max(required, Math.min(size, Math.min(maxSize, Integer.MAX_VALUE)));
+
+			// a mapping does not depend on its channel, so it can be closed right away
+			try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+				FileChannel channel = randomAccessFile.getChannel())
+			{
+				current = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				mapping = current;
+				return current;
+			}
+			catch (IOException e)
+			{
+				log.error("Error mapping file " + file, e);
+				return null;
+			}
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+		{
+			in.defaultReadObject();
+
+			lock = new ReentrantReadWriteLock();
+		}
+	}
+}
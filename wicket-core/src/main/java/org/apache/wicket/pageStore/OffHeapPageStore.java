@@ -0,0 +1,504 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A storage of pages in direct memory, i.e. outside of the Java heap.
+ * <p>
+ * In contrast to {@link InMemoryPageStore}, pages held in this store neither increase the heap nor
+ * the work of the garbage collector. Memory is allocated in large chunks, which are split into
+ * fixed-size blocks and pooled, so each page occupies a number of blocks without allocating new
+ * memory. All sessions share a single maximum size: if it is reached, pages that were least
+ * recently stored or accessed are evicted first, regardless of their session.
+ * <p>
+ * Pages are copied from and into their blocks outside of the store's lock, which guards the
+ * bookkeeping only.
+ * <p>
+ * All pages added to this store <em>must</em> be {@code SerializedPage}s. You can achieve this by
+ * letting a {@link SerializingPageStore} delegate to this store.
+ * <p>
+ * Note that direct memory is limited by the JVM option {@code -XX:MaxDirectMemorySize}, which
+ * should be configured accordingly.
+ */
+public class OffHeapPageStore extends AbstractPersistentPageStore implements IPersistentPageStore
+{
+	private static final Logger log = LoggerFactory.getLogger(OffHeapPageStore.class);
+
+	/**
+	 * Default size of a block.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 8 * 1024;
+
+	/**
+	 * Size of memory allocated at once.
+	 */
+	private static final int CHUNK_SIZE = 1024 * 1024;
+
+	private final int blockSize;
+
+	private final long maxBlocks;
+
+	private long allocatedBlocks;
+
+	private final Deque<ByteBuffer> freeBlocks = new ArrayDeque<>();
+
+	/**
+	 * Total size of stored pages.
+	 */
+	private long size;
+
+	private final Map<String, Map<Integer, Entry>> sessions = new HashMap<>();
+
+	/**
+	 * All entries, least recently used first.
+	 */
+	private final Map<Entry, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Keep pages up to {@code maxSize} for all sessions.
+	 * 
+	 * @param applicationName
+	 *            {@link Application#getName()}
+	 * @param maxSize
+	 *            maximum size of pages of all sessions
+	 */
+	public OffHeapPageStore(String applicationName, Bytes maxSize)
+	{
+		this(applicationName, maxSize, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Keep pages up to {@code maxSize} for all sessions.
+	 * 
+	 * @param applicationName
+	 *            {@link Application#getName()}
+	 * @param maxSize
+	 *            maximum size of pages of all sessions
+	 * @param blockSize
+	 *            size of blocks pages are stored in
+	 */
+	public OffHeapPageStore(String applicationName, Bytes maxSize, int blockSize)
+	{
+		super(applicationName);
+
+		Args.notNull(maxSize, "maxSize");
+		this.blockSize = Args.withinRange(1, CHUNK_SIZE, blockSize, "blockSize");
+
+		maxBlocks = maxSize.bytes() / blockSize;
+	}
+
+	/**
+	 * Pages are always serialized, so versioning is supported.
+	 */
+	@Override
+	public boolean supportsVersioning()
+	{
+		return true;
+	}
+
+	@Override
+	protected IManageablePage getPersistedPage(String sessionIdentifier, int id)
+	{
+		Entry entry;
+		synchronized (this)
+		{
+			entry = getEntry(sessionIdentifier, id);
+			if (entry == null)
+			{
+				return null;
+			}
+
+			// mark as recently used
+			entries.get(entry);
+
+			// keep blocks from being reused while copying
+			entry.readers++;
+		}
+
+		byte[] data = new byte[entry.length];
+		try
+		{
+			int offset = 0;
+			for (ByteBuffer block : entry.blocks)
+			{
+				int count = Math.min(blockSize, data.length - offset);
+				copy(block, data, offset, count);
+				offset += count;
+			}
+		}
+		finally
+		{
+			synchronized (this)
+			{
+				entry.readers--;
+				if (entry.readers == 0 && entry.removed)
+				{
+					freeBlocks(entry);
+				}
+			}
+		}
+
+		return new SerializedPage(id, entry.pageType, data);
+	}
+
+	/**
+	 * Copy from a block of a stored page, called without holding the lock of this store.
+	 */
+	void copy(ByteBuffer block, byte[] data, int offset, int count)
+	{
+		// a duplicate has its own position, for concurrent readers of the same page
+		ByteBuffer view = block.duplicate();
+		view.clear();
+		view.get(data, offset, count);
+	}
+
+	@Override
+	protected synchronized void removePersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		Entry entry = getEntry(sessionIdentifier, page.getPageId());
+		if (entry != null)
+		{
+			remove(entry);
+		}
+	}
+
+	@Override
+	protected synchronized void removeAllPersistedPages(String sessionIdentifier)
+	{
+		Map<Integer, Entry> pages = sessions.remove(sessionIdentifier);
+		if (pages != null)
+		{
+			for (Entry entry : pages.values())
+			{
+				release(entry);
+			}
+		}
+	}
+
+	@Override
+	protected void addPersistedPage(String sessionIdentifier, IManageablePage page)
+	{
+		if (page instanceof SerializedPage == false)
+		{
+			throw new WicketRuntimeException("OffHeapPageStore works with serialized pages only");
+		}
+		SerializedPage serializedPage = (SerializedPage)page;
+
+		byte[] data = serializedPage.getData();
+		int required = (data.length + blockSize - 1) / blockSize;
+
+		ByteBuffer[] blocks;
+		synchronized (this)
+		{
+			Entry existing = getEntry(sessionIdentifier, page.getPageId());
+			if (existing != null)
+			{
+				remove(existing);
+			}
+
+			if (required > maxBlocks)
+			{
+				log.warn("Cannot store page with id '{}' of size {} exceeding the maximum size",
+					page.getPageId(), Bytes.bytes(data.length));
+				return;
+			}
+
+			blocks = allocate(required);
+			if (blocks == null)
+			{
+				log.warn("Cannot store page with id '{}', other pages are currently being read",
+					page.getPageId());
+				return;
+			}
+		}
+
+		// blocks are exclusively owned until the entry is registered
+		int offset = 0;
+		for (ByteBuffer block : blocks)
+		{
+			int count = Math.min(blockSize, data.length - offset);
+			block.clear();
+			block.put(data, offset, count);
+			offset += count;
+		}
+
+		Entry entry = new Entry(sessionIdentifier, page.getPageId(), serializedPage.getPageType(),
+			data.length, blocks);
+		synchronized (this)
+		{
+			// another thread might have stored the same page in the meantime
+			Entry existing = getEntry(sessionIdentifier, page.getPageId());
+			if (existing != null)
+			{
+				remove(existing);
+			}
+
+			sessions.computeIfAbsent(sessionIdentifier, key -> new HashMap<>())
+				.put(entry.pageId, entry);
+			entries.put(entry, entry);
+			size += entry.length;
+		}
+	}
+
+	private Entry getEntry(String sessionIdentifier, int pageId)
+	{
+		Map<Integer, Entry> pages = sessions.get(sessionIdentifier);
+		if (pages == null)
+		{
+			return null;
+		}
+		return pages.get(pageId);
+	}
+
+	/**
+	 * Take the required count of blocks from the pool, allocating new memory or evicting least
+	 * recently used pages if needed. Pages currently being read are not evicted, since their blocks
+	 * cannot be reused yet.
+	 * 
+	 * @return blocks or {@code null} if not enough blocks are available, because pages are still
+	 *         being read, in which case no page was evicted
+	 */
+	private ByteBuffer[] allocate(int required)
+	{
+		while (freeBlocks.size() < required && allocatedBlocks < maxBlocks)
+		{
+			allocateChunk();
+		}
+
+		if (freeBlocks.size() < required && canFree(required - freeBlocks.size()) == false)
+		{
+			return null;
+		}
+
+		Iterator<Entry> eldest = entries.keySet().iterator();
+		while (freeBlocks.size() < required)
+		{
+			Entry entry = eldest.next();
+			if (entry.readers > 0)
+			{
+				continue;
+			}
+			eldest.remove();
+
+			Map<Integer, Entry> pages = sessions.get(entry.sessionIdentifier);
+			pages.remove(entry.pageId);
+			if (pages.isEmpty())
+			{
+				sessions.remove(entry.sessionIdentifier);
+			}
+			unlink(entry);
+		}
+
+		ByteBuffer[] blocks = new ByteBuffer[required];
+		for (int b = 0; b < required; b++)
+		{
+			blocks[b] = freeBlocks.pop();
+		}
+		return blocks;
+	}
+
+	/**
+	 * Whether evicting pages not being read frees the given count of blocks.
+	 */
+	private boolean canFree(int count)
+	{
+		int freeable = 0;
+		for (Entry entry : entries.keySet())
+		{
+			if (entry.readers == 0)
+			{
+				freeable += entry.blocks.length;
+				if (freeable >= count)
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void allocateChunk()
+	{
+		int count = (int)Math.min(CHUNK_SIZE / blockSize, maxBlocks - allocatedBlocks);
+
+		ByteBuffer chunk = ByteBuffer.allocateDirect(count * blockSize);
+		for (int b = 0; b < count; b++)
+		{
+			chunk.limit((b + 1) * blockSize);
+			chunk.position(b * blockSize);
+			freeBlocks.push(chunk.slice());
+		}
+
+		allocatedBlocks += count;
+	}
+
+	private void remove(Entry entry)
+	{
+		Map<Integer, Entry> pages = sessions.get(entry.sessionIdentifier);
+		pages.remove(entry.pageId);
+		if (pages.isEmpty())
+		{
+			sessions.remove(entry.sessionIdentifier);
+		}
+
+		release(entry);
+	}
+
+	private void release(Entry entry)
+	{
+		entries.remove(entry);
+
+		unlink(entry);
+	}
+
+	/**
+	 * Account for a removed entry, its blocks are freed as soon as no longer read.
+	 */
+	private void unlink(Entry entry)
+	{
+		entry.removed = true;
+		size -= entry.length;
+
+		if (entry.readers == 0)
+		{
+			freeBlocks(entry);
+		}
+	}
+
+	private void freeBlocks(Entry entry)
+	{
+		for (ByteBuffer block : entry.blocks)
+		{
+			freeBlocks.push(block);
+		}
+	}
+
+	@Override
+	public synchronized Set<String> getSessionIdentifiers()
+	{
+		return new HashSet<>(sessions.keySet());
+	}
+
+	@Override
+	public synchronized List<IPersistedPage> getPersistedPages(String sessionIdentifier)
+	{
+		List<IPersistedPage> persistedPages = new ArrayList<>();
+
+		Map<Integer, Entry> pages = sessions.get(sessionIdentifier);
+		if (pages != null)
+		{
+			for (Entry entry : pages.values())
+			{
+				persistedPages.add(new PersistedPage(entry.pageId, entry.pageType, entry.length));
+			}
+		}
+
+		return persistedPages;
+	}
+
+	/**
+	 * Get the total size of all stored pages.
+	 */
+	@Override
+	public synchronized Bytes getTotalSize()
+	{
+		return Bytes.bytes(size);
+	}
+
+	/**
+	 * Get the size of direct memory allocated by this store.
+	 * 
+	 * @return allocated size
+	 */
+	public synchronized Bytes getAllocatedSize()
+	{
+		return Bytes.bytes(allocatedBlocks * blockSize);
+	}
+
+	@Override
+	public void destroy()
+	{
+		super.destroy();
+
+		synchronized (this)
+		{
+			sessions.clear();
+			entries.clear();
+			freeBlocks.clear();
+
+			// memory is released by the garbage collector
+			allocatedBlocks = 0;
+			size = 0;
+		}
+	}
+
+	/**
+	 * A page stored in blocks.
+	 */
+	private static class Entry
+	{
+		private final String sessionIdentifier;
+
+		private final int pageId;
+
+		private final String pageType;
+
+		private final int length;
+
+		private final ByteBuffer[] blocks;
+
+		/**
+		 * Count of threads copying from the blocks, guarded by the store.
+		 */
+		private int readers;
+
+		/**
+		 * Whether the entry was removed from the store, guarded by the store.
+		 */
+		private boolean removed;
+
+		public Entry(String sessionIdentifier, int pageId, String pageType, int length,
+			ByteBuffer[] blocks)
+		{
+			this.sessionIdentifier = sessionIdentifier;
+			this.pageId = pageId;
+			this.pageType = pageType;
+			this.length = length;
+			this.blocks = blocks;
+		}
+	}
+}
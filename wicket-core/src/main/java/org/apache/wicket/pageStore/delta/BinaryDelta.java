@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore.delta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.wicket.WicketRuntimeException;
+
+/**
+ * Binary delta between two byte arrays.
+ * <p>
+ * A delta is a sequence of instructions to either copy a range of the source or to insert literal
+ * bytes. Matching ranges are found by indexing blocks of the source, thus a delta is small if the
+ * target shares long ranges with the source, regardless of their position.
+ */
+public final class BinaryDelta
+{
+	/**
+	 * Size of indexed blocks, i.e. the minimal length of a copied range.
+	 */
+	private static final int BLOCK_SIZE = 16;
+
+	private static final int BASE = 31;
+
+	/**
+	 * {@value #BASE} to the power of {@link #BLOCK_SIZE} - 1, used to roll the hash.
+	 */
+	private static final int BASE_POWER;
+
+	static
+	{
+		int power = 1;
+		for (int i = 0; i < BLOCK_SIZE - 1; i++)
+		{
+			power *= BASE;
+		}
+		BASE_POWER = power;
+	}
+
+	private static final byte COPY = 0;
+
+	private static final byte INSERT = 1;
+
+	private BinaryDelta()
+	{
+	}
+
+	/**
+	 * Create a delta transforming the source into the target.
+	 *
+	 * @param source
+	 *            source
+	 * @param target
+	 *            target
+	 * @return delta
+	 */
+	public static byte[] create(byte[] source, byte[] target)
+	{
+		int[] index = index(source);
+		int mask = index.length - 1;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(target.length / 8 + 16);
+		try (DataOutputStream out = new DataOutputStream(bytes))
+		{
+			out.writeInt(target.length);
+
+			int literalStart = 0;
+			int position = 0;
+			int hash = target.length >= BLOCK_SIZE ? hash(target, 0) : 0;
+			while (position + BLOCK_SIZE <= target.length)
+			{
+				int candidate = index[mix(hash) & mask];
+				if (candidate != -1 && equal(source, candidate, target, position))
+				{
+					int sourceStart = candidate;
+					int targetStart = position;
+
+					// extend backwards into pending literal
+					while (sourceStart > 0 && targetStart > literalStart &&
+						source[sourceStart - 1] == target[targetStart - 1])
+					{
+						sourceStart--;
+						targetStart--;
+					}
+
+					// extend forwards
+					int length = position - targetStart + BLOCK_SIZE;
+					while (sourceStart + length < source.length &&
+						targetStart + length < target.length &&
+						source[sourceStart + length] == target[targetStart + length])
+					{
+						length++;
+					}
+
+					insert(out, target, literalStart, targetStart);
+					copy(out, sourceStart, length);
+
+					position = targetStart + length;
+					literalStart = position;
+					if (position + BLOCK_SIZE <= target.length)
+					{
+						hash = hash(target, position);
+					}
+				}
+				else
+				{
+					if (position + BLOCK_SIZE < target.length)
+					{
+						hash = (hash - target[position] * BASE_POWER) * BASE +
+							target[position + BLOCK_SIZE];
+					}
+					position++;
+				}
+			}
+
+			insert(out, target, literalStart, target.length);
+		}
+		catch (IOException e)
+		{
+			throw new WicketRuntimeException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Apply a delta to a source.
+	 *
+	 * @param source
+	 *            the source the delta was created with
+	 * @param delta
+	 *            delta
+	 * @return target
+	 */
+	public static byte[] apply(byte[] source, byte[] delta)
+	{
+		return apply(source, delta, 0, delta.length);
+	}
+
+	/**
+	 * Apply a delta to a source.
+	 *
+	 * @param source
+	 *            the source the delta was created with
+	 * @param delta
+	 *            bytes containing the delta
+	 * @param offset
+	 *            offset of the delta
+	 * @param length
+	 *            length of the delta
+	 * @return target
+	 */
+	public static byte[] apply(byte[] source, byte[] delta, int offset, int length)
+	{
+		try (DataInputStream in = new DataInputStream(
+			new ByteArrayInputStream(delta, offset, length)))
+		{
+			byte[] target = new byte[in.readInt()];
+			int position = 0;
+			while (position < target.length)
+			{
+				byte instruction = in.readByte();
+				if (instruction == COPY)
+				{
+					int sourceOffset = in.readInt();
+					int count = in.readInt();
+					System.arraycopy(source, sourceOffset, target, position, count);
+					position += count;
+				}
+				else if (instruction == INSERT)
+				{
+					int count = in.readInt();
+					in.readFully(target, position, count);
+					position += count;
+				}
+				else
+				{
+					throw new WicketRuntimeException("Invalid delta instruction " + instruction);
+				}
+			}
+			return target;
+		}
+		catch (IOException | IndexOutOfBoundsException e)
+		{
+			throw new WicketRuntimeException("Invalid delta", e);
+		}
+	}
+
+	/**
+	 * Index the offsets of the source's blocks by their hash.
+	 */
+	private static int[] index(byte[] source)
+	{
+		int blocks = source.length / BLOCK_SIZE;
+		int size = Integer.highestOneBit(Math.max(blocks, 8) * 2 - 1) * 2;
+
+		int[] index = new int[size];
+		Arrays.fill(index, -1);
+
+		int mask = size - 1;
+		for (int offset = 0; offset + BLOCK_SIZE <= source.length; offset += BLOCK_SIZE)
+		{
+			int slot = mix(hash(source, offset)) & mask;
+			if (index[slot] == -1)
+			{
+				index[slot] = offset;
+			}
+		}
+		return index;
+	}
+
+	private static int hash(byte[] bytes, int offset)
+	{
+		int hash = 0;
+		for (int i = 0; i < BLOCK_SIZE; i++)
+		{
+			hash = hash * BASE + bytes[offset + i];
+		}
+		return hash;
+	}
+
+	private static int mix(int hash)
+	{
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean equal(byte[] source, int sourceOffset, byte[] target, int targetOffset)
+	{
+		for (int i = 0; i < BLOCK_SIZE; i++)
+		{
+			if (source[sourceOffset + i] != target[targetOffset + i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void insert(DataOutputStream out, byte[] target, int from, int to)
+		throws IOException
+	{
+		if (to > from)
+		{
+			out.writeByte(INSERT);
+			out.writeInt(to - from);
+			out.write(target, from, to - from);
+		}
+	}
+
+	private static void copy(DataOutputStream out, int offset, int length) throws IOException
+	{
+		out.writeByte(COPY);
+		out.writeInt(offset);
+		out.writeInt(length);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore.disk;
+
+import java.util.Arrays;
+
+/**
+ * A map from <code>int</code> keys to non-negative <code>int</code> values.
+ * <p>
+ * Keys and values are held in primitive arrays with open addressing (linear probing), so no
+ * entries or boxed integers are allocated. Negative values are not supported, since
+ * {@value #NO_VALUE} marks a free slot.
+ */
+class IntIntMap
+{
+	/**
+	 * Returned for absent keys.
+	 */
+	static final int NO_VALUE = -1;
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] keys;
+
+	private int[] values;
+
+	private int mask;
+
+	private int size;
+
+	IntIntMap()
+	{
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(values, NO_VALUE);
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	private int slot(int key)
+	{
+		int hash = key * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param key
+	 * @return value or {@value #NO_VALUE}
+	 */
+	int get(int key)
+	{
+		int slot = slot(key);
+		while (values[slot] != NO_VALUE)
+		{
+			if (keys[slot] == key)
+			{
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NO_VALUE;
+	}
+
+	/**
+	 * Put a value for a key.
+	 *
+	 * @param key
+	 * @param value
+	 *            non-negative value
+	 */
+	void put(int key, int value)
+	{
+		if (value < 0)
+		{
+			throw new IllegalArgumentException("value must not be negative");
+		}
+
+		int slot = slot(key);
+		while (values[slot] != NO_VALUE)
+		{
+			if (keys[slot] == key)
+			{
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+
+		if (size * 4 >= keys.length * 3)
+		{
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * Remove the value for a key.
+	 *
+	 * @param key
+	 * @return removed value or {@value #NO_VALUE}
+	 */
+	int remove(int key)
+	{
+		int slot = slot(key);
+		while (values[slot] != NO_VALUE)
+		{
+			if (keys[slot] == key)
+			{
+				int value = values[slot];
+				closeGap(slot);
+				size--;
+				return value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return NO_VALUE;
+	}
+
+	/**
+	 * Shift following entries back into the gap of a removed entry, so no tombstones are needed.
+	 *
+	 * @param gap
+	 *            slot of removed entry
+	 */
+	private void closeGap(int gap)
+	{
+		int slot = gap;
+		while (true)
+		{
+			slot = (slot + 1) & mask;
+			if (values[slot] == NO_VALUE)
+			{
+				break;
+			}
+
+			// move the entry if the gap lies between its preferred slot and its current slot
+			int preferred = slot(keys[slot]);
+			if (((slot - preferred) & mask) >= ((slot - gap) & mask))
+			{
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		values[gap] = NO_VALUE;
+	}
+
+	private void rehash(int capacity)
+	{
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+
+		allocate(capacity);
+
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldValues[i] != NO_VALUE)
+			{
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries, keeping the allocated capacity.
+	 */
+	void clear()
+	{
+		Arrays.fill(values, NO_VALUE);
+		size = 0;
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	int size()
+	{
+		return size;
+	}
+}
@@ -21,7 +21,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.wicket.pageStore.IPersistedPage;
-import org.apache.wicket.util.collections.IntHashMap;
 import org.apache.wicket.util.lang.Bytes;
 
 /**
@@ -89,16 +88,16 @@ public class PageWindowManager implements Serializable
 	private final List<FileWindow> windows = new ArrayList<>();
 
 	/**
-	 * map from page id to list of pagewindow indices (referring to the windows list) - to improve
-	 * searching speed the index must be cleaned when the instances in the windows list change their
-	 * indexes (e.g. items are shifted on page window removal)
+	 * map from page id to pagewindow index (referring to the windows list) - to improve searching
+	 * speed the index must be rebuilt when the instances in the windows list change their indexes
+	 * (e.g. items are shifted on page window split or merge)
 	 */
-	private IntHashMap<Integer> idToWindowIndex = null;
+	private transient IntIntMap idToWindowIndex;
 
 	/**
-	 * Inversed index of #idToWindowIndex
+	 * Is {@link #idToWindowIndex} up to date.
 	 */
-	private IntHashMap<Integer> windowIndexToPageId = null;
+	private transient boolean indexed;
 
 	/** index of last added page */
 	private int indexPointer = -1;
@@ -118,15 +117,9 @@ public class PageWindowManager implements Serializable
 	 */
 	private void putWindowIndex(int pageId, int windowIndex)
 	{
-		if (idToWindowIndex != null && pageId != -1 && windowIndex != -1)
+		if (indexed && pageId != -1 && windowIndex != -1)
 		{
-			Integer oldPageId = windowIndexToPageId.remove(windowIndex);
-			if (oldPageId != null)
-			{
-				idToWindowIndex.remove(oldPageId);
-			}
 			idToWindowIndex.put(pageId, windowIndex);
-			windowIndexToPageId.put(windowIndex, pageId);
 		}
 	}
 
@@ -136,10 +129,9 @@ public class PageWindowManager implements Serializable
 	 */
 	private void removeWindowIndex(int pageId)
 	{
-		Integer windowIndex = idToWindowIndex.remove(pageId);
-		if (windowIndex != null)
+		if (indexed)
 		{
-			windowIndexToPageId.remove(windowIndex);
+			idToWindowIndex.remove(pageId);
 		}
 	}
 
@@ -148,10 +140,16 @@ public class PageWindowManager implements Serializable
 	 */
 	private void rebuildIndices()
 	{
-		idToWindowIndex = null;
-		idToWindowIndex = new IntHashMap<>();
-		windowIndexToPageId = null;
-		windowIndexToPageId = new IntHashMap<>();
+		if (idToWindowIndex == null)
+		{
+			idToWindowIndex = new IntIntMap();
+		}
+		else
+		{
+			idToWindowIndex.clear();
+		}
+		indexed = true;
+
 		for (int i = 0; i < windows.size(); ++i)
 		{
 			FileWindow window = windows.get(i);
@@ -167,13 +165,12 @@ public class PageWindowManager implements Serializable
 	 */
 	private int getWindowIndex(int pageId)
 	{
-		if (idToWindowIndex == null)
+		if (indexed == false)
 		{
 			rebuildIndices();
 		}
 
-		Integer result = idToWindowIndex.get(pageId);
-		return result != null ? result : -1;
+		return idToWindowIndex.get(pageId);
 	}
 
 	/**
@@ -240,10 +237,10 @@ public class PageWindowManager implements Serializable
 
 			newWindow.filePartOffset = getWindowFileOffset(index + 1);
 			newWindow.filePartSize = delta;
-		}
 
-		idToWindowIndex = null;
-		windowIndexToPageId = null;
+			// following windows are shifted
+			indexed = false;
+		}
 	}
 
 	/**
@@ -261,8 +258,7 @@ public class PageWindowManager implements Serializable
 			window.filePartSize += next.filePartSize;
 
 			windows.remove(index + 1);
-			idToWindowIndex = null; // reset index
-			windowIndexToPageId = null;
+			indexed = false; // reset index
 		}
 	}
 
@@ -378,6 +374,12 @@ public class PageWindowManager implements Serializable
 			index = incrementIndexPointer();
 		}
 
+		// the page currently in the window is going to be overwritten
+		if (index < windows.size())
+		{
+			removeWindowIndex(windows.get(index).id);
+		}
+
 		FileWindow window = allocatePageWindow(index, size);
 		window.id = pageId;
 		window.type = pageType;
@@ -29,6 +29,7 @@ import org.apache.wicket.Application;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.request.Response;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.response.StaticText;
 import org.apache.wicket.response.filter.IResponseFilter;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.string.AppendingStringBuffer;
@@ -149,6 +150,11 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 	}
 
 	private final List<Action> actions = new ArrayList<Action>();
+
+	/**
+	 * Written text, {@link StaticText}s are kept separately so they can be written pre-encoded.
+	 */
+	private List<CharSequence> charSequences;
 	private StringBuilder charSequenceBuilder;
 	private ByteArrayOutputStream dataStream;
 
@@ -157,6 +163,7 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 	{
 		super.reset();
 		actions.clear();
+		charSequences = null;
 		charSequenceBuilder = null;
 		dataStream = null;
 	}
@@ -225,29 +232,76 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 				"Can't call write(CharSequence) after write(byte[]) has been called.");
 		}
 
-		if (charSequenceBuilder == null)
+		if (charSequences == null)
 		{
-			StringBuilder builder = new StringBuilder(4096);
-			charSequenceBuilder = builder;
+			List<CharSequence> sequences = new ArrayList<>();
+			charSequences = sequences;
 			actions.add(ActionType.DATA.action(res ->
 			{
-				AppendingStringBuffer responseBuffer = new AppendingStringBuffer(builder);
-
 				List<IResponseFilter> responseFilters = Application.get()
 						.getRequestCycleSettings()
 						.getResponseFilters();
 
-				if (responseFilters != null)
+				if (responseFilters == null || responseFilters.isEmpty())
 				{
-					for (IResponseFilter filter : responseFilters)
+					// no need to copy the buffer
+					for (CharSequence charSequence : sequences)
 					{
-						responseBuffer = filter.filter(responseBuffer);
+						res.write(charSequence);
 					}
+					return;
+				}
+
+				AppendingStringBuffer responseBuffer = new AppendingStringBuffer(join(sequences));
+				for (IResponseFilter filter : responseFilters)
+				{
+					responseBuffer = filter.filter(responseBuffer);
 				}
 				res.write(responseBuffer);
 			}));
 		}
-		charSequenceBuilder.append(sequence);
+
+		if (sequence instanceof StaticText)
+		{
+			charSequences.add(sequence);
+			charSequenceBuilder = null;
+		}
+		else
+		{
+			if (charSequenceBuilder == null)
+			{
+				charSequenceBuilder = new StringBuilder(charSequences.isEmpty() ? 4096 : 256);
+				charSequences.add(charSequenceBuilder);
+			}
+			charSequenceBuilder.append(sequence);
+		}
+	}
+
+	/**
+	 * Join all written text into a single builder.
+	 * 
+	 * @param sequences
+	 *            written text
+	 * @return builder
+	 */
+	private static StringBuilder join(List<CharSequence> sequences)
+	{
+		if (sequences.size() == 1 && sequences.get(0) instanceof StringBuilder)
+		{
+			return (StringBuilder)sequences.get(0);
+		}
+
+		int length = 0;
+		for (CharSequence sequence : sequences)
+		{
+			length += sequence.length();
+		}
+		StringBuilder builder = new StringBuilder(length);
+		for (CharSequence sequence : sequences)
+		{
+			builder.append(sequence);
+		}
+		return builder;
 	}
 
 	/**
@@ -261,9 +315,14 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 		{
 			throw new IllegalStateException("write(byte[]) has already been called.");
 		}
-		if (charSequenceBuilder != null)
+		if (charSequences != null)
 		{
-			return charSequenceBuilder;
+			// collapse into a single builder, so changes to the text are reflected
+			StringBuilder builder = join(charSequences);
+			charSequences.clear();
+			charSequences.add(builder);
+			charSequenceBuilder = builder;
+			return builder;
 		}
 		else
 		{
@@ -282,9 +341,10 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 		{
 			throw new IllegalStateException("write(byte[]) has already been called.");
 		}
-		if (charSequenceBuilder != null)
+		if (charSequences != null)
 		{
-			charSequenceBuilder.setLength(0);
+			charSequences.clear();
+			charSequenceBuilder = null;
 		}
 		write(text);
 	}
@@ -298,7 +358,7 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 	@Override
 	public void write(byte[] array, int offset, int length)
 	{
-		if (charSequenceBuilder != null)
+		if (charSequences != null)
 		{
 			throw new IllegalStateException(
 				"Can't call write(byte[]) after write(CharSequence) has been called.");
@@ -409,9 +469,9 @@ public class BufferedWebResponse extends WebResponse implements IMetaDataBufferi
 	public String toString()
 	{
 		final String toString;
-		if (charSequenceBuilder != null)
+		if (charSequences != null)
 		{
-			toString = charSequenceBuilder.toString();
+			toString = join(charSequences).toString();
 		}
 		else
 		{
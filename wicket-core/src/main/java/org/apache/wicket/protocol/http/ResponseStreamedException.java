@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http;
+
+import org.apache.wicket.WicketRuntimeException;
+
+/**
+ * Thrown when rendering failed after part of the response was already streamed to the client.
+ * Neither an error page nor any other response can be written any longer, thus the response is
+ * incomplete.
+ * 
+ * @see StreamingWebResponse
+ * @see org.apache.wicket.DefaultExceptionMapper
+ */
+public class ResponseStreamedException extends WicketRuntimeException
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param cause
+	 *            the exception that failed rendering
+	 */
+	public ResponseStreamedException(RuntimeException cause)
+	{
+		super("Response is incomplete, since it was streamed partially before an exception",
+			cause);
+	}
+}
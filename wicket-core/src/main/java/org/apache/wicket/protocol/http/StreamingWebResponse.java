@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http;
+
+import java.time.Instant;
+import jakarta.servlet.http.Cookie;
+import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Response that buffers a page until it is {@link #stream() streamed}, writing directly to the
+ * original response afterwards.
+ * <p>
+ * While still buffering this response behaves like a {@link BufferedWebResponse}, i.e. it can be
+ * discarded when rendering fails or another request handler gets scheduled. Once streamed, all
+ * buffered meta data and content is written to the original response and flushed to the client,
+ * any following header or status changes are likely to be ignored by the container.
+ * 
+ * @see org.apache.wicket.settings.RequestCycleSettings#setStreamingRender(boolean)
+ */
+public class StreamingWebResponse extends WebResponse implements IMetaDataBufferingWebResponse
+{
+	private final WebResponse originalResponse;
+
+	private final BufferedWebResponse bufferedResponse;
+
+	private boolean buffering = true;
+
+	/**
+	 * Construct.
+	 * 
+	 * @param originalResponse
+	 *            response to stream to
+	 */
+	public StreamingWebResponse(WebResponse originalResponse)
+	{
+		this.originalResponse = Args.notNull(originalResponse, "originalResponse");
+
+		bufferedResponse = new BufferedWebResponse(originalResponse);
+	}
+
+	/**
+	 * Write everything buffered so far to the original response and flush it to the client. All
+	 * following output is written to the original response directly.
+	 * <p>
+	 * Any redirect or error is kept buffered, so that it can still be reset.
+	 */
+	public void stream()
+	{
+		if (buffering)
+		{
+			if (bufferedResponse.isRedirect())
+			{
+				return;
+			}
+			bufferedResponse.writeTo(originalResponse);
+			buffering = false;
+		}
+
+		originalResponse.flush();
+	}
+
+	/**
+	 * Has this response been streamed already.
+	 * 
+	 * @return {@code true} if content was written to the original response
+	 */
+	public boolean isStreamed()
+	{
+		return buffering == false;
+	}
+
+	/**
+	 * Write the buffered response to the original response, if not streamed already.
+	 */
+	public void close()
+	{
+		if (buffering)
+		{
+			bufferedResponse.writeTo(originalResponse);
+			buffering = false;
+		}
+	}
+
+	private WebResponse getTarget()
+	{
+		return buffering ? bufferedResponse : originalResponse;
+	}
+
+	@Override
+	public void addCookie(Cookie cookie)
+	{
+		getTarget().addCookie(cookie);
+	}
+
+	@Override
+	public void clearCookie(Cookie cookie)
+	{
+		getTarget().clearCookie(cookie);
+	}
+
+	@Override
+	public void flush()
+	{
+		getTarget().flush();
+	}
+
+	@Override
+	public boolean isRedirect()
+	{
+		return getTarget().isRedirect();
+	}
+
+	@Override
+	public void sendError(int sc, String msg)
+	{
+		getTarget().sendError(sc, msg);
+	}
+
+	@Override
+	public void sendRedirect(String url)
+	{
+		getTarget().sendRedirect(url);
+	}
+
+	@Override
+	public void setContentLength(long length)
+	{
+		getTarget().setContentLength(length);
+	}
+
+	@Override
+	public void setContentType(String mimeType)
+	{
+		getTarget().setContentType(mimeType);
+	}
+
+	@Override
+	public void setDateHeader(String name, Instant date)
+	{
+		Args.notNull(date, "date");
+		getTarget().setDateHeader(name, date);
+	}
+
+	@Override
+	public boolean isHeaderSupported()
+	{
+		return getTarget().isHeaderSupported();
+	}
+
+	@Override
+	public void setHeader(String name, String value)
+	{
+		getTarget().setHeader(name, value);
+	}
+
+	@Override
+	public void addHeader(String name, String value)
+	{
+		getTarget().addHeader(name, value);
+	}
+
+	@Override
+	public void setStatus(int sc)
+	{
+		getTarget().setStatus(sc);
+	}
+
+	@Override
+	public void disableCaching()
+	{
+		getTarget().disableCaching();
+	}
+
+	@Override
+	public String encodeURL(CharSequence url)
+	{
+		return originalResponse.encodeURL(url);
+	}
+
+	@Override
+	public String encodeRedirectURL(CharSequence url)
+	{
+		return originalResponse.encodeRedirectURL(url);
+	}
+
+	@Override
+	public void write(CharSequence sequence)
+	{
+		getTarget().write(sequence);
+	}
+
+	@Override
+	public void write(byte[] array)
+	{
+		getTarget().write(array);
+	}
+
+	@Override
+	public void write(byte[] array, int offset, int length)
+	{
+		getTarget().write(array, offset, length);
+	}
+
+	@Override
+	public void reset()
+	{
+		if (buffering)
+		{
+			bufferedResponse.reset();
+		}
+		else
+		{
+			throw new IllegalStateException("Response was streamed already!");
+		}
+	}
+
+	@Override
+	public void writeMetaData(WebResponse webResponse)
+	{
+		bufferedResponse.writeMetaData(webResponse);
+	}
+
+	@Override
+	public Object getContainerResponse()
+	{
+		return originalResponse.getContainerResponse();
+	}
+}
@@ -20,6 +20,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -309,7 +311,10 @@ public class MockHttpServletResponse implements HttpServletResponse, IMetaDataBu
 	{
 		if (mode == MODE_BINARY)
 		{
-			return new String(byteStream.toByteArray());
+			// ISO-8859-1 is the servlet default
+			Charset charset = characterEncoding == null ? StandardCharsets.ISO_8859_1
+				: Charset.forName(characterEncoding);
+			return new String(byteStream.toByteArray(), charset);
 		}
 		else
 		{
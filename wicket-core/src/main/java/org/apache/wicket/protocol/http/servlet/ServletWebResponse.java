@@ -16,7 +16,13 @@
  */
 package org.apache.wicket.protocol.http.servlet;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,7 +32,9 @@ import org.apache.wicket.request.Url;
 import org.apache.wicket.request.UrlRenderer;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.response.StaticText;
 import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.string.AppendingStringBuffer;
 
 /**
  * WebResponse that wraps a {@link ServletWebResponse}.
@@ -35,11 +43,32 @@ import org.apache.wicket.util.lang.Args;
  */
 public class ServletWebResponse extends WebResponse
 {
+	/**
+	 * Size of chunks to copy from {@link StringBuilder}s.
+	 */
+	private static final int CHUNK_SIZE = 8192;
+
 	private final HttpServletResponse httpServletResponse;
 	private final ServletWebRequest webRequest;
 
 	private boolean redirect = false;
 
+	/**
+	 * Whether the servlet response's writer was obtained.
+	 */
+	private boolean writerObtained = false;
+
+	/**
+	 * Charset of {@link #streamWriter}.
+	 */
+	private Charset streamCharset;
+
+	/**
+	 * Writer encoding text onto the servlet response's output stream, used after a
+	 * {@link StaticText} was written as bytes.
+	 */
+	private Writer streamWriter;
+
 	/**
 	 * Construct.
 	 * 
@@ -106,12 +135,63 @@ public class ServletWebResponse extends WebResponse
 		httpServletResponse.addHeader(name, value);
 	}
 
+	/**
+	 * Writes the sequence to the servlet response's writer.
+	 * <p>
+	 * Buffers are written directly from their characters, so the servlet container encodes them
+	 * without creating an intermediate {@link String} of the whole response.
+	 * <p>
+	 * A {@link StaticText} is written with its pre-encoded bytes to the output stream instead,
+	 * unless the writer was obtained already. All following text is then encoded onto the
+	 * output stream too, since the servlet API does not allow to use the writer afterwards. Thus
+	 * all text of this response has to be written through this method.
+	 */
 	@Override
 	public void write(CharSequence sequence)
 	{
 		try
 		{
-			httpServletResponse.getWriter().append(sequence);
+			if (sequence instanceof StaticText && writerObtained == false)
+			{
+				Writer writer = getStreamWriter();
+				writer.flush();
+				httpServletResponse.getOutputStream().write(
+					((StaticText)sequence).getBytes(streamCharset));
+				return;
+			}
+
+			Writer writer = getWriter();
+			if (sequence instanceof String)
+			{
+				writer.write((String)sequence);
+			}
+			else if (sequence instanceof AppendingStringBuffer)
+			{
+				AppendingStringBuffer buffer = (AppendingStringBuffer)sequence;
+				writer.write(buffer.getValue(), 0, buffer.length());
+			}
+			else if (sequence instanceof StringBuilder)
+			{
+				StringBuilder builder = (StringBuilder)sequence;
+
+				char[] chunk = new char[Math.min(builder.length(), CHUNK_SIZE)];
+				for (int start = 0; start < builder.length(); start += chunk.length)
+				{
+					int end = Math.min(start + chunk.length, builder.length());
+					builder.getChars(start, end, chunk, 0);
+					writer.write(chunk, 0, end - start);
+				}
+			}
+			else
+			{
+				writer.append(sequence);
+			}
+
+			if (writer == streamWriter)
+			{
+				// do not keep encoded bytes in the writer
+				writer.flush();
+			}
 		}
 		catch (IOException e)
 		{
@@ -119,6 +199,53 @@ public class ServletWebResponse extends WebResponse
 		}
 	}
 
+	/**
+	 * Get the writer for text, i.e. the stream writer if already used or the servlet response's
+	 * writer.
+	 */
+	private Writer getWriter() throws IOException
+	{
+		if (streamWriter != null)
+		{
+			return streamWriter;
+		}
+
+		writerObtained = true;
+		return httpServletResponse.getWriter();
+	}
+
+	/**
+	 * Get the writer encoding text onto the servlet response's output stream.
+	 */
+	private Writer getStreamWriter() throws IOException
+	{
+		if (streamWriter == null)
+		{
+			String encoding = httpServletResponse.getCharacterEncoding();
+
+			// ISO-8859-1 is the servlet default
+			streamCharset = encoding == null ? StandardCharsets.ISO_8859_1
+				: Charset.forName(encoding);
+
+			// flushing is up to the servlet response
+			OutputStream out = new FilterOutputStream(httpServletResponse.getOutputStream())
+			{
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException
+				{
+					out.write(b, off, len);
+				}
+
+				@Override
+				public void flush()
+				{
+				}
+			};
+			streamWriter = new OutputStreamWriter(out, streamCharset);
+		}
+		return streamWriter;
+	}
+
 	@Override
 	public void write(byte[] array)
 	{
@@ -284,8 +411,7 @@ public class ServletWebResponse extends WebResponse
 				 * using multipart ajax handling) and the headers are not available because XHR is
 				 * not used and that is the only way javascript has access to response headers.
 				 */
-				httpServletResponse.getWriter().write(
-					"<ajax-response><redirect><![CDATA[" + url + "]]></redirect></ajax-response>");
+				write("<ajax-response><redirect><![CDATA[" + url + "]]></redirect></ajax-response>");
 			}
 			else
 			{
@@ -327,6 +453,8 @@ public class ServletWebResponse extends WebResponse
 		super.reset();
 		httpServletResponse.reset();
 		redirect = false;
+		writerObtained = false;
+		streamWriter = null;
 	}
 
 	@Override
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.cycle;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.core.request.handler.BookmarkablePageRequestHandler;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.Url;
+import org.apache.wicket.request.handler.resource.ResourceReferenceRequestHandler;
+import org.apache.wicket.request.mapper.IKeyedRequestHandler;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+
+/**
+ * Caches the mapped URLs of bookmarkable pages and resource references, so pages with many links
+ * or resources to the same targets map each of them once only.
+ * <p>
+ * A cache is active for a request cycle until it is closed, e.g. while a page is rendered:
+ * 
+ * <pre>
+ * try (MappedUrlCache cache = new MappedUrlCache(cycle))
+ * {
+ * 	render();
+ * }
+ * </pre>
+ * 
+ * @see RequestCycle#mapUrlFor(IRequestHandler)
+ */
+public class MappedUrlCache implements AutoCloseable
+{
+	private static final MetaDataKey<MappedUrlCache> KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
+	private final Map<List<Object>, Url> urls = new HashMap<>();
+
+	private RequestCycle cycle;
+
+	/**
+	 * Cache mapped URLs in the given cycle. Has no effect if a cache is already active in the
+	 * cycle.
+	 * 
+	 * @param cycle
+	 *            request cycle
+	 */
+	public MappedUrlCache(RequestCycle cycle)
+	{
+		if (get(cycle).isPresent() == false)
+		{
+			cycle.setMetaData(KEY, this);
+
+			this.cycle = cycle;
+		}
+	}
+
+	/**
+	 * Get the active cache.
+	 * 
+	 * @param cycle
+	 * @return optional cache
+	 */
+	public static Optional<MappedUrlCache> get(RequestCycle cycle)
+	{
+		return Optional.ofNullable(cycle.getMetaData(KEY));
+	}
+
+	/**
+	 * Map a handler, using a cached URL if possible.
+	 * 
+	 * @param handler
+	 *            handler to map
+	 * @param mapper
+	 *            maps the handler if not cached
+	 * @return url or <code>null</code>
+	 */
+	Url mapHandler(IRequestHandler handler, Function<IRequestHandler, Url> mapper)
+	{
+		List<Object> key = getKey(handler);
+		if (key == null)
+		{
+			return mapper.apply(handler);
+		}
+
+		Url url = urls.get(key);
+		if (url == null)
+		{
+			url = mapper.apply(handler);
+
+			// subclasses might render themselves, see IUrlRenderer
+			if (url == null || url.getClass() != Url.class)
+			{
+				return url;
+			}
+
+			urls.put(key, new Url(url));
+			return url;
+		}
+
+		// callers may modify the url
+		return new Url(url);
+	}
+
+	/**
+	 * Get a key for handlers which are mapped to the same URL, when equal.
+	 * <p>
+	 * Only bookmarkable pages and resource references qualify, since their URLs depend on their
+	 * target and parameters only. URLs of page instances change while the page is rendered.
+	 * 
+	 * @param handler
+	 * @return key or <code>null</code>
+	 */
+	private static List<Object> getKey(IRequestHandler handler)
+	{
+		final PageParameters parameters;
+		if (handler.getClass() == BookmarkablePageRequestHandler.class)
+		{
+			parameters = ((BookmarkablePageRequestHandler)handler).getPageParameters();
+		}
+		else if (handler.getClass() == ResourceReferenceRequestHandler.class)
+		{
+			parameters = ((ResourceReferenceRequestHandler)handler).getPageParameters();
+		}
+		else
+		{
+			return null;
+		}
+
+		Object target = ((IKeyedRequestHandler)handler).getMappingKey();
+
+		// copy parameters, since they might be modified later on
+		return Arrays.asList(handler.getClass(), target.getClass(), target,
+			parameters == null ? null : new PageParameters(parameters));
+	}
+
+	/**
+	 * Stop caching.
+	 */
+	@Override
+	public void close()
+	{
+		if (cycle != null)
+		{
+			cycle.setMetaData(KEY, null);
+			cycle = null;
+			urls.clear();
+		}
+	}
+}
@@ -456,13 +456,18 @@ public class RequestCycle implements IRequestCycle, IEventSink, IMetadataContext
 	 * {@linkplain #urlFor(org.apache.wicket.request.IRequestHandler)}
 	 * </p>
 	 * 
+	 * <p>
+	 * While a {@link MappedUrlCache} is active, URLs of equal handlers are mapped once only.
+	 * 
 	 * @param handler
 	 *            the {@link IRequestHandler request handler} for which to create a callback url
 	 * @return Url instance or <code>null</code>
 	 */
 	public Url mapUrlFor(IRequestHandler handler)
 	{
-		final Url url = requestMapper.mapHandler(handler);
+		final MappedUrlCache cache = MappedUrlCache.get(this).orElse(null);
+		final Url url = cache != null ? cache.mapHandler(handler, requestMapper::mapHandler)
+			: requestMapper.mapHandler(handler);
 		listeners.onUrlMapped(this, handler, url);
 		return url;
 	}
@@ -19,12 +19,15 @@ package org.apache.wicket.request.handler.render;
 import java.util.List;
 
 import org.apache.wicket.Application;
+import org.apache.wicket.Page;
 import org.apache.wicket.Session;
 import org.apache.wicket.core.request.handler.RenderPageRequestHandler;
 import org.apache.wicket.core.request.handler.RenderPageRequestHandler.RedirectPolicy;
 import org.apache.wicket.feedback.FeedbackCollector;
 import org.apache.wicket.feedback.FeedbackMessage;
 import org.apache.wicket.protocol.http.BufferedWebResponse;
+import org.apache.wicket.protocol.http.ResponseStreamedException;
+import org.apache.wicket.protocol.http.StreamingWebResponse;
 import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.request.Request;
@@ -33,6 +36,8 @@ import org.apache.wicket.request.component.IRequestablePage;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.request.http.WebRequest;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.response.filter.IResponseFilter;
+import org.apache.wicket.settings.RequestCycleSettings;
 import org.apache.wicket.util.lang.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -147,6 +152,111 @@ public class WebPageRenderer extends PageRenderer
 		}
 	}
 
+	/**
+	 * Should the page be streamed to the client while being rendered.
+	 * 
+	 * @param requestCycle
+	 * @return {@code true} if streaming is enabled and no response filters are configured
+	 * @see RequestCycleSettings#setStreamingRender(boolean)
+	 */
+	protected boolean shouldStreamPage(RequestCycle requestCycle)
+	{
+		RequestCycleSettings settings = Application.get().getRequestCycleSettings();
+		if (settings.getStreamingRender() == false)
+		{
+			return false;
+		}
+
+		List<IResponseFilter> responseFilters = settings.getResponseFilters();
+		return responseFilters == null || responseFilters.isEmpty();
+	}
+
+	/**
+	 * Renders page to a {@link StreamingWebResponse}, which is streamed to the original response
+	 * while rendering. All URLs in page will be rendered relative to <code>targetUrl</code>.
+	 * <p>
+	 * The response is streamed whenever the page calls its {@link Page#RENDER_FLUSH_HOOK}.
+	 * <p>
+	 * As long as nothing was streamed, a failed render or another scheduled request handler is
+	 * handled as in {@link #renderPage(Url, RequestCycle)}. Afterwards the client already received
+	 * part of the page, so any exception is rethrown as a {@link ResponseStreamedException} and a
+	 * scheduled request handler is ignored, since neither an error page nor another response can
+	 * be written any longer.
+	 * 
+	 * @param targetUrl
+	 * @param requestCycle
+	 */
+	protected void streamPage(Url targetUrl, RequestCycle requestCycle)
+	{
+		// get the page before checking for a scheduled request handler because
+		// the page may call setResponsePage in its constructor
+		IRequestablePage requestablePage = getPage();
+
+		IRequestHandler scheduled = requestCycle.getRequestHandlerScheduledAfterCurrent();
+
+		if (scheduled != null)
+		{
+			// no need to render
+			return;
+		}
+
+		// keep the original response
+		final WebResponse originalResponse = (WebResponse)requestCycle.getResponse();
+
+		StreamingWebResponse response = new StreamingWebResponse(originalResponse);
+
+		// keep the original base URL
+		Url originalBaseUrl = requestCycle.getUrlRenderer().setBaseUrl(targetUrl);
+
+		try
+		{
+			requestCycle.setResponse(response);
+			requestCycle.setMetaData(Page.RENDER_FLUSH_HOOK, () -> {
+				// ignore nested renders into other responses
+				if (requestCycle.getResponse() == response)
+				{
+					response.stream();
+				}
+			});
+			requestablePage.renderPage();
+		}
+		catch (RuntimeException e)
+		{
+			if (response.isStreamed() == false)
+			{
+				// nothing was sent yet, so the exception can be handled as usual
+				throw e;
+			}
+
+			// let the exception be handled without writing an error page
+			throw new ResponseStreamedException(e);
+		}
+		finally
+		{
+			// restore original response, base URL and flush hook
+			requestCycle.setResponse(originalResponse);
+			requestCycle.getUrlRenderer().setBaseUrl(originalBaseUrl);
+			requestCycle.setMetaData(Page.RENDER_FLUSH_HOOK, null);
+		}
+
+		if (requestCycle.getRequestHandlerScheduledAfterCurrent() != null)
+		{
+			if (response.isStreamed() == false)
+			{
+				// see #renderPage()
+				originalResponse.reset();
+				response.writeMetaData(originalResponse);
+				return;
+			}
+
+			logger.warn("Ignoring request handler scheduled after page was partially streamed: {}",
+				requestCycle.getRequestHandlerScheduledAfterCurrent());
+			requestCycle.scheduleRequestHandlerAfterCurrent(null);
+		}
+
+		response.close();
+	}
+
 	/**
 	 * 
 	 * @param url
@@ -192,6 +302,12 @@ public class WebPageRenderer extends PageRenderer
 
 		if (shouldRenderPageAndWriteResponse(requestCycle, currentUrl, targetUrl))
 		{
+			if (shouldStreamPage(requestCycle))
+			{
+				streamPage(currentUrl, requestCycle);
+				return;
+			}
+
 			BufferedWebResponse response = renderPage(currentUrl, requestCycle);
 			if (response != null)
 			{
@@ -22,6 +22,7 @@ import org.apache.wicket.request.ILoggableRequestHandler;
 import org.apache.wicket.request.IRequestCycle;
 import org.apache.wicket.request.IRequestHandler;
 import org.apache.wicket.core.request.handler.logger.ResourceReferenceLogData;
+import org.apache.wicket.request.mapper.IKeyedRequestHandler;
 import org.apache.wicket.request.mapper.parameter.PageParameters;
 import org.apache.wicket.request.resource.IResource;
 import org.apache.wicket.request.resource.ResourceReference;
@@ -32,7 +33,11 @@ import org.apache.wicket.util.lang.Args;
  * 
  * @author Matej Knopp
  */
-public class ResourceReferenceRequestHandler implements IRequestHandler, ILoggableRequestHandler
+public class ResourceReferenceRequestHandler
+	implements
+		IRequestHandler,
+		ILoggableRequestHandler,
+		IKeyedRequestHandler
 {
 	private final ResourceReference resourceReference;
 
@@ -81,6 +86,15 @@ public class ResourceReferenceRequestHandler implements IRequestHandler, ILoggab
 		return pageParameters;
 	}
 
+	/**
+	 * @return the resource reference
+	 */
+	@Override
+	public Object getMappingKey()
+	{
+		return resourceReference;
+	}
+
 	@Override
 	public void detach(IRequestCycle requestCycle)
 	{
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.wicket.request.resource.IResource.Attributes;
+
+/**
+ * Transfers a file with {@link FileChannel#transferTo(long, long, WritableByteChannel)} into the
+ * response's output stream.
+ * <p>
+ * The file is read from the requested position directly, without skipping preceding bytes or
+ * copying through an intermediate input stream.
+ */
+public class ChannelFileTransfer implements IFileTransfer
+{
+	@Override
+	public void transfer(Attributes attributes, Path file, long position, long count)
+		throws IOException
+	{
+		// the channel must not be closed, since it would close the response's output stream
+		WritableByteChannel target = Channels.newChannel(attributes.getResponse()
+			.getOutputStream());
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			long end = Math.min(position + count, channel.size());
+			while (position < end)
+			{
+				long transferred = channel.transferTo(position, end - position, target);
+				if (transferred <= 0)
+				{
+					break;
+				}
+				position += transferred;
+			}
+		}
+	}
+}
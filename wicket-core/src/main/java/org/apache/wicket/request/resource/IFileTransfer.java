@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.resource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.wicket.request.resource.IResource.Attributes;
+
+/**
+ * Transfers a region of a file into the response, used by {@link PartWriterCallback} for
+ * file-backed resources.
+ * <p>
+ * The default {@link ChannelFileTransfer} writes into the response's output stream. An
+ * implementation specific to a servlet container might hand the file over to the container
+ * instead, e.g. to let it use its sendfile support.
+ *
+ * @see org.apache.wicket.settings.ResourceSettings#setFileTransfer(IFileTransfer)
+ */
+public interface IFileTransfer
+{
+	/**
+	 * Transfer a region of a file into the response.
+	 *
+	 * @param attributes
+	 *            the attributes to get the response from
+	 * @param file
+	 *            the file to transfer
+	 * @param position
+	 *            position of the first byte to transfer
+	 * @param count
+	 *            maximum count of bytes to transfer
+	 * @throws IOException
+	 *             if the file cannot be read or the response cannot be written
+	 */
+	void transfer(Attributes attributes, Path file, long position, long count) throws IOException;
+}
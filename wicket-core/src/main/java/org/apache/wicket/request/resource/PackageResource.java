@@ -17,31 +17,43 @@
 package org.apache.wicket.request.resource;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.wicket.Application;
 import org.apache.wicket.IWicketInternalException;
+import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.Session;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.core.util.lang.WicketObjects;
 import org.apache.wicket.core.util.resource.locator.IResourceStreamLocator;
 import org.apache.wicket.javascript.IJavaScriptCompressor;
+import org.apache.wicket.markup.MarkupCache.ICache;
 import org.apache.wicket.markup.html.IPackageResourceGuard;
 import org.apache.wicket.mock.MockWebRequest;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.http.WebRequest;
 import org.apache.wicket.request.resource.caching.IStaticCacheableResource;
 import org.apache.wicket.resource.IScopeAwareTextResourceProcessor;
 import org.apache.wicket.resource.ITextResourceCompressor;
 import org.apache.wicket.response.StringResponse;
+import org.apache.wicket.util.cache.BoundedCache;
 import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.lang.Classes;
 import org.apache.wicket.util.lang.Packages;
 import org.apache.wicket.util.resource.IFixedLocationResourceStream;
@@ -80,6 +92,29 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Content encoding compressed in memory if no pre-compressed variant is available.
+	 */
+	private static final String GZIP = "gzip";
+
+	/**
+	 * Supported content encodings in order of preference, brotli is served pre-compressed only.
+	 */
+	private static final List<String> ENCODINGS = List.of("br", GZIP);
+
+	/**
+	 * Resources smaller than this are not worth compressing.
+	 */
+	private static final int MIN_ENCODED_SIZE = 1024;
+
+	/**
+	 * Key of the application's cache of compressed resources.
+	 */
+	private static final MetaDataKey<ICache<Object, Processed>> PROCESSED_CACHE_KEY = new MetaDataKey<>()
+	{
+		private static final long serialVersionUID = 1L;
+	};
+
 	/**
 	 * Exception thrown when the creation of a package resource is not allowed.
 	 */
@@ -351,21 +386,57 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 			// supports accept range
 			resourceResponse.setAcceptRange(ContentRangeType.BYTES);
 
+			List<String> encodings = Collections.emptyList();
+			if (isEncodable(contentType))
+			{
+				resourceResponse.getHeaders().addHeader("Vary", "Accept-Encoding");
+
+				encodings = getAcceptedEncodings(attributes);
+			}
+
+			IResourceStream dataStream = resourceStream;
 			try
 			{
+				// prefer a pre-compressed variant, served as it is
+				String contentEncoding = null;
+				if (isProcessed() == false)
+				{
+					for (String encoding : encodings)
+					{
+						IResourceStream encoded = locateEncoded(resourceStream, encoding);
+						if (encoded != null)
+						{
+							dataStream = encoded;
+							contentEncoding = encoding;
+							break;
+						}
+					}
+				}
+
 				// read resource data to get the content length
-				InputStream inputStream = resourceStream.getInputStream();
+				InputStream inputStream = dataStream.getInputStream();
 
 				byte[] bytes = null;
 				// send Content-Length header
 				if (readBuffered)
 				{
 					bytes = IOUtils.toByteArray(inputStream);
+					if (contentEncoding == null && encodings.contains(GZIP) &&
+						bytes.length >= MIN_ENCODED_SIZE)
+					{
+						bytes = gzip(bytes);
+						contentEncoding = GZIP;
+					}
 					resourceResponse.setContentLength(bytes.length);
 				}
 				else
 				{
-					resourceResponse.setContentLength(resourceStream.length().bytes());
+					resourceResponse.setContentLength(dataStream.length().bytes());
+				}
+
+				if (contentEncoding != null)
+				{
+					resourceResponse.getHeaders().addHeader("Content-Encoding", contentEncoding);
 				}
 
 				// get content range information
@@ -399,6 +470,10 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 					if (readBuffered)
 					{
 						IOUtils.close(resourceStream);
+						if (dataStream != resourceStream)
+						{
+							IOUtils.close(dataStream);
+						}
 					}
 				}
 				catch (IOException e)
@@ -411,6 +486,171 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 		return resourceResponse;
 	}
 
+	/**
+	 * Can the content of this resource be served with a content encoding, i.e. is it textual?
+	 *
+	 * @param contentType
+	 *            content type, may be {@code null}
+	 * @return {@code true} if encoding is enabled and the content type is compressible
+	 * @see org.apache.wicket.settings.ResourceSettings#getUseCompressedResources()
+	 */
+	protected boolean isEncodable(String contentType)
+	{
+		if (contentType == null || Application.exists() == false ||
+			Application.get().getResourceSettings().getUseCompressedResources() == false)
+		{
+			return false;
+		}
+
+		return contentType.startsWith("text/") || contentType.contains("javascript") ||
+			contentType.contains("json") || contentType.contains("xml");
+	}
+
+	/**
+	 * Get the supported content encodings accepted by the client, in order of preference.
+	 */
+	private static List<String> getAcceptedEncodings(Attributes attributes)
+	{
+		List<String> accepted = new ArrayList<>(ENCODINGS.size());
+
+		if (attributes.getRequest() instanceof WebRequest)
+		{
+			String header = ((WebRequest)attributes.getRequest()).getHeader("Accept-Encoding");
+			if (header != null)
+			{
+				for (String coding : Strings.split(header, ','))
+				{
+					String[] parts = Strings.split(coding, ';');
+					String encoding = parts[0].trim().toLowerCase(Locale.ROOT);
+					if (ENCODINGS.contains(encoding) && isRefused(parts) == false)
+					{
+						accepted.add(encoding);
+					}
+				}
+			}
+		}
+
+		// our preference wins over the client's order
+		accepted.sort(Comparator.comparingInt(ENCODINGS::indexOf));
+		return accepted;
+	}
+
+	/**
+	 * Is a coding refused with a quality of zero?
+	 */
+	private static boolean isRefused(String[] parts)
+	{
+		for (int i = 1; i < parts.length; i++)
+		{
+			String parameter = parts[i].trim();
+			if (parameter.startsWith("q="))
+			{
+				try
+				{
+					return Double.parseDouble(parameter.substring(2)) <= 0;
+				}
+				catch (NumberFormatException ex)
+				{
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Is the content of this resource processed before it is served, i.e. by a compressor?
+	 * <p>
+	 * A pre-compressed variant of a processed resource would bypass the processing, thus it is not
+	 * used.
+	 *
+	 * @return {@code true} if a compressor is applied
+	 */
+	protected boolean isProcessed()
+	{
+		return getCompress() && getCompressor() != null;
+	}
+
+	/**
+	 * Locate a pre-compressed variant of a resource, i.e. a file with an additional {@code .gz} or
+	 * {@code .br} extension next to the located resource.
+	 * <p>
+	 * The variant has to be located at the same location as the resource plus the additional
+	 * extension, so e.g. {@code foo.js.gz} is not served for {@code foo.min.js}.
+	 *
+	 * @param resourceStream
+	 *            located resource
+	 * @param encoding
+	 *            content encoding
+	 * @return the encoded stream or {@code null}
+	 */
+	private IResourceStream locateEncoded(IResourceStream resourceStream, String encoding)
+	{
+		int dot = absolutePath.lastIndexOf('.');
+		if (dot == -1 || absolutePath.indexOf('/', dot) != -1)
+		{
+			return null;
+		}
+
+		if (resourceStream instanceof ProcessingResourceStream)
+		{
+			resourceStream = ((ProcessingResourceStream)resourceStream).getDelegate();
+		}
+		if (resourceStream instanceof IFixedLocationResourceStream == false)
+		{
+			return null;
+		}
+		String location = ((IFixedLocationResourceStream)resourceStream).locationAsString();
+		if (location == null)
+		{
+			return null;
+		}
+
+		String suffix = GZIP.equals(encoding) ? ".gz" : ".br";
+		String extension = absolutePath.substring(dot + 1) + suffix;
+
+		IResourceStream encoded = Application.get()
+			.getResourceSettings()
+			.getResourceStreamLocator()
+			.locate(getScope(), absolutePath.substring(0, dot), resourceStream.getStyle(),
+				resourceStream.getVariation(), resourceStream.getLocale(), extension, true);
+
+		if (encoded instanceof IFixedLocationResourceStream &&
+			(location + suffix).equals(((IFixedLocationResourceStream)encoded).locationAsString()))
+		{
+			return encoded;
+		}
+		IOUtils.closeQuietly(encoded);
+		return null;
+	}
+
+	/**
+	 * Compress with gzip, the result is cached as long as the resource does not change.
+	 */
+	private byte[] gzip(byte[] bytes) throws IOException
+	{
+		ICache<Object, Processed> cache = getProcessedCache();
+		Object key = Arrays.asList(scopeName, absolutePath, getCurrentLocale(), getCurrentStyle(),
+			variation, GZIP);
+		byte[] cached = Processed.lookup(cache, key, bytes);
+		if (cached != null)
+		{
+			return cached;
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out))
+		{
+			gzip.write(bytes);
+		}
+		byte[] compressed = out.toByteArray();
+		if (cache != null)
+		{
+			cache.put(key, new Processed(bytes.clone(), compressed.clone()));
+		}
+		return compressed;
+	}
+
 	/**
 	 * Gives a chance to modify the resource going to be written in the response
 	 * 
@@ -440,9 +680,24 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 
 		if (compressor != null && getCompress())
 		{
+			Charset charset = getProcessingEncoding();
+			final String textEncoding = getTextEncoding();
+
+			// the original content is the version of the cached output, thus changes are detected
+			// without a modification watcher; the output of scope aware processors may depend on
+			// the request (e.g. relative URLs), so it is never cached
+			ICache<Object, Processed> cache = compressor instanceof IScopeAwareTextResourceProcessor
+				? null : getProcessedCache();
+			Object key = Arrays.asList(scopeName, absolutePath, getCurrentLocale(),
+				getCurrentStyle(), variation, compressor.getClass(), charset, textEncoding);
+			byte[] cached = Processed.lookup(cache, key, original);
+			if (cached != null)
+			{
+				return cached;
+			}
+
 			try
 			{
-				Charset charset = getProcessingEncoding();
 				String nonCompressed = new String(original, charset);
 				String output;
 				if (compressor instanceof IScopeAwareTextResourceProcessor)
@@ -454,7 +709,6 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 				{
 					output = compressor.compress(nonCompressed);
 				}
-				final String textEncoding = getTextEncoding();
 				final Charset outputCharset;
 				if (Strings.isEmpty(textEncoding))
 				{
@@ -464,7 +718,12 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 				{
 					outputCharset = Charset.forName(textEncoding);
 				}
-				return output.getBytes(outputCharset);
+				byte[] compressed = output.getBytes(outputCharset);
+				if (cache != null)
+				{
+					cache.put(key, new Processed(original.clone(), compressed.clone()));
+				}
+				return compressed;
 			}
 			catch (Exception e)
 			{
@@ -479,6 +738,53 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 		}
 	}
 
+	/**
+	 * Get the application's cache of compressed resources.
+	 *
+	 * @return cache or {@code null} if disabled
+	 */
+	private static ICache<Object, Processed> getProcessedCache()
+	{
+		if (Application.exists() == false)
+		{
+			return null;
+		}
+		Application application = Application.get();
+
+		ICache<Object, Processed> cache = application.getMetaData(PROCESSED_CACHE_KEY);
+		if (cache == null)
+		{
+			Bytes maxSize = application.getResourceSettings().getProcessedResourceCacheSize();
+			if (maxSize == null || maxSize.bytes() <= 0)
+			{
+				return null;
+			}
+
+			synchronized (PROCESSED_CACHE_KEY)
+			{
+				cache = application.getMetaData(PROCESSED_CACHE_KEY);
+				if (cache == null)
+				{
+					cache = new BoundedCache<>(maxSize)
+					{
+						@Override
+						protected long sizeOf(Object object)
+						{
+							if (object instanceof Processed)
+							{
+								Processed processed = (Processed)object;
+								return processed.original.length + processed.output.length;
+							}
+							return super.sizeOf(object);
+						}
+					};
+					application.setMetaData(PROCESSED_CACHE_KEY, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
 	/**
 	 * @return The charset to use to read the resource
 	 */
@@ -778,6 +1084,41 @@ public class PackageResource extends AbstractResource implements IStaticCacheabl
 		return parentFolderPlaceholder;
 	}
 
+	/**
+	 * The compressed output of a resource along with its original content, i.e. the minified or
+	 * gzipped bytes.
+	 */
+	private static class Processed
+	{
+		private final byte[] original;
+
+		private final byte[] output;
+
+		private Processed(byte[] original, byte[] output)
+		{
+			this.original = original;
+			this.output = output;
+		}
+
+		/**
+		 * Get the cached output for an original content.
+		 *
+		 * @return copy of the output or {@code null} if not cached or the original has changed
+		 */
+		private static byte[] lookup(ICache<Object, Processed> cache, Object key, byte[] original)
+		{
+			if (cache != null)
+			{
+				Processed processed = cache.get(key);
+				if (processed != null && Arrays.equals(processed.original, original))
+				{
+					return processed.output.clone();
+				}
+			}
+			return null;
+		}
+	}
+
 	private static class CacheKey implements Serializable
 	{
 		private final String scopeName;
@@ -19,8 +19,10 @@ package org.apache.wicket.request.resource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 
 import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.wicket.Application;
 import org.apache.wicket.protocol.http.servlet.ResponseIOException;
 import org.apache.wicket.request.resource.AbstractResource.WriteCallback;
 import org.apache.wicket.request.resource.IResource.Attributes;
@@ -43,6 +45,11 @@ public class PartWriterCallback extends WriteCallback
 	 */
 	private final InputStream inputStream;
 
+	/**
+	 * The file to transfer instead of reading an input stream
+	 */
+	private final Path file;
+
 	/**
 	 * The total length to read if {@link #endbyte} is not specified
 	 */
@@ -94,6 +101,32 @@ public class PartWriterCallback extends WriteCallback
 		Long endbyte)
 	{
 		this.inputStream = inputStream;
+		this.file = null;
+		this.contentLength = Args.notNull(contentLength, "contentLength");
+		this.startbyte = startbyte;
+		this.endbyte = endbyte;
+	}
+
+	/**
+	 * Creates a part writer callback for a file.<br>
+	 * <br>
+	 * The requested part of the file is transferred with the application's {@link IFileTransfer},
+	 * without reading it through an input stream.
+	 *
+	 * @param file
+	 *            the file to transfer
+	 * @param contentLength
+	 *            content length of the file. Ignored if <em>endByte</em> is specified
+	 * @param startbyte
+	 *            the start position to transfer from, may be null
+	 * @param endbyte
+	 *            the end position to transfer to, may be null
+	 * @see org.apache.wicket.settings.ResourceSettings#setFileTransfer(IFileTransfer)
+	 */
+	public PartWriterCallback(Path file, Long contentLength, Long startbyte, Long endbyte)
+	{
+		this.inputStream = null;
+		this.file = Args.notNull(file, "file");
 		this.contentLength = Args.notNull(contentLength, "contentLength");
 		this.startbyte = startbyte;
 		this.endbyte = endbyte;
@@ -110,6 +143,12 @@ public class PartWriterCallback extends WriteCallback
 	@Override
 	public void writeData(Attributes attributes) throws IOException
 	{
+		if (file != null)
+		{
+			transferFile(attributes);
+			return;
+		}
+
 		try
 		{
 			OutputStream outputStream = attributes.getResponse().getOutputStream();
@@ -182,6 +221,34 @@ public class PartWriterCallback extends WriteCallback
 		}
 	}
 
+	/**
+	 * Transfers the requested part of the file.
+	 */
+	private void transferFile(Attributes attributes) throws IOException
+	{
+		long position = startbyte != null ? startbyte : 0L;
+		long end = (endbyte == null || endbyte == -1) ? contentLength - 1 : endbyte;
+
+		IFileTransfer transfer = null;
+		if (Application.exists())
+		{
+			transfer = Application.get().getResourceSettings().getFileTransfer();
+		}
+		if (transfer == null)
+		{
+			transfer = new ChannelFileTransfer();
+		}
+
+		try
+		{
+			transfer.transfer(attributes, file, position, end - position + 1);
+		}
+		catch (ResponseIOException e)
+		{
+			// the client has closed the connection
+		}
+	}
+
 	/**
 	 * Sets the buffer size used to send the data to the client
 	 *
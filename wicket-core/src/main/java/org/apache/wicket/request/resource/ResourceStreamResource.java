@@ -18,12 +18,17 @@ package org.apache.wicket.request.resource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.wicket.Application;
+import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.lang.Checks;
+import org.apache.wicket.util.resource.FileResourceStream;
+import org.apache.wicket.util.resource.FileSystemResourceStream;
 import org.apache.wicket.util.resource.IResourceStream;
 import org.apache.wicket.util.resource.IResourceStreamWriter;
 import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
@@ -153,8 +158,10 @@ public class ResourceStreamResource extends AbstractResource
 		// performance check; don't bother to do anything if the resource is still cached by client
 		if (data.dataNeedsToBeWritten(attributes))
 		{
+			final Path file = getFile(resourceStream);
+
 			InputStream inputStream = null;
-			if (resourceStream instanceof IResourceStreamWriter == false)
+			if (file == null && resourceStream instanceof IResourceStreamWriter == false)
 			{
 				try
 				{
@@ -183,7 +190,32 @@ public class ResourceStreamResource extends AbstractResource
 			data.setContentType(contentType);
 			data.setTextEncoding(textEncoding);
 
-			if (resourceStream instanceof IResourceStreamWriter)
+			if (file != null)
+			{
+				// transfer the file directly, supporting ranges
+				data.setAcceptRange(ContentRangeType.BYTES);
+
+				RequestCycle cycle = RequestCycle.get();
+				final PartWriterCallback partWriterCallback = new PartWriterCallback(file,
+					length.bytes(), cycle.getMetaData(CONTENT_RANGE_STARTBYTE),
+					cycle.getMetaData(CONTENT_RANGE_ENDBYTE));
+				data.setWriteCallback(new WriteCallback()
+				{
+					@Override
+					public void writeData(Attributes attributes) throws IOException
+					{
+						try
+						{
+							partWriterCallback.writeData(attributes);
+						}
+						finally
+						{
+							close(resourceStream);
+						}
+					}
+				});
+			}
+			else if (resourceStream instanceof IResourceStreamWriter)
 			{
 				data.setWriteCallback(new WriteCallback()
 				{
@@ -219,6 +251,25 @@ public class ResourceStreamResource extends AbstractResource
 		return data;
 	}
 
+	/**
+	 * Get the file of a stream, if it is read from an existing file as it is.
+	 *
+	 * @return file or {@code null}
+	 */
+	private static Path getFile(IResourceStream stream)
+	{
+		Path file = null;
+		if (stream.getClass() == FileSystemResourceStream.class)
+		{
+			file = ((FileSystemResourceStream)stream).getPath();
+		}
+		else if (stream.getClass() == FileResourceStream.class)
+		{
+			file = ((FileResourceStream)stream).getFile().toPath();
+		}
+		return file != null && Files.isRegularFile(file) ? file : null;
+	}
+
 	private void close(IResourceStream stream)
 	{
 		try
@@ -42,6 +42,30 @@ public class FileSystemResource extends AbstractResource
 {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Whether a class reads the path as it is, i.e. does not override {@link #getInputStream()}.
+	 */
+	private static final ClassValue<Boolean> READS_PATH = new ClassValue<>()
+	{
+		@Override
+		protected Boolean computeValue(Class<?> type)
+		{
+			for (Class<?> c = type; c != FileSystemResource.class; c = c.getSuperclass())
+			{
+				try
+				{
+					c.getDeclaredMethod("getInputStream");
+					return false;
+				}
+				catch (NoSuchMethodException ex)
+				{
+					// not overridden here
+				}
+			}
+			return true;
+		}
+	};
+
 	private LoadableDetachableModel<Path> path;
 
 	/**
@@ -119,8 +143,17 @@ public class FileSystemResource extends AbstractResource
 			RequestCycle cycle = RequestCycle.get();
 			Long startbyte = cycle.getMetaData(CONTENT_RANGE_STARTBYTE);
 			Long endbyte = cycle.getMetaData(CONTENT_RANGE_ENDBYTE);
-			resourceResponse.setWriteCallback(
-				new PartWriterCallback(getInputStream(), size, startbyte, endbyte).setClose(true));
+			if (READS_PATH.get(getClass()))
+			{
+				// transfer the file directly
+				resourceResponse.setWriteCallback(
+					new PartWriterCallback(path, size, startbyte, endbyte));
+			}
+			else
+			{
+				resourceResponse.setWriteCallback(
+					new PartWriterCallback(getInputStream(), size, startbyte, endbyte).setClose(true));
+			}
 			return resourceResponse;
 		}
 		catch (IOException e)
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.response;
+
+import java.nio.charset.Charset;
+
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * Text that is written unchanged on many responses, e.g. the static parts of markup.
+ * <p>
+ * Responses writing bytes might use {@link #getBytes(Charset)} instead of encoding the characters
+ * on each request. The bytes are encoded once and kept for the last requested charset.
+ * 
+ * @see org.apache.wicket.markup.RawMarkup
+ */
+public final class StaticText implements CharSequence
+{
+	private final String text;
+
+	private volatile Encoded encoded;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param text
+	 *            the text
+	 */
+	public StaticText(final String text)
+	{
+		this.text = Args.notNull(text, "text");
+	}
+
+	/**
+	 * Get the bytes of this text in the given charset.
+	 * 
+	 * @param charset
+	 *            charset to encode with
+	 * @return encoded bytes, shared with all callers and thus must not be modified
+	 */
+	public byte[] getBytes(final Charset charset)
+	{
+		Encoded current = encoded;
+		if (current == null || current.charset.equals(charset) == false)
+		{
+			current = new Encoded(charset, text.getBytes(charset));
+			encoded = current;
+		}
+		return current.bytes;
+	}
+
+	@Override
+	public int length()
+	{
+		return text.length();
+	}
+
+	@Override
+	public char charAt(final int index)
+	{
+		return text.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end)
+	{
+		return text.subSequence(start, end);
+	}
+
+	@Override
+	public String toString()
+	{
+		return text;
+	}
+
+	/**
+	 * Bytes encoded in a charset.
+	 */
+	private static class Encoded
+	{
+		private final Charset charset;
+
+		private final byte[] bytes;
+
+		private Encoded(Charset charset, byte[] bytes)
+		{
+			this.charset = charset;
+			this.bytes = bytes;
+		}
+	}
+}
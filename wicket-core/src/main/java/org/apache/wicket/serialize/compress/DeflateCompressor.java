@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.serialize.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.lang.Args;
+
+/**
+ * A compressor using {@link Deflater} with a configurable level and an optional preset dictionary.
+ * <p>
+ * A preset dictionary primes the compressor with content that is expected to occur in the data,
+ * so even the first occurrence of e.g. a class name can be encoded as a back-reference. See
+ * {@link #createDictionary(Class...)} to create a dictionary for pages.
+ * <p>
+ * Note that data can only be decompressed with the same dictionary it was compressed with.
+ */
+public class DeflateCompressor implements ICompressor
+{
+	/**
+	 * Maximum size of a dictionary, i.e. the window size of deflate.
+	 */
+	private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	private final int level;
+
+	private final byte[] dictionary;
+
+	/**
+	 * Compress with {@link Deflater#BEST_SPEED} and no dictionary.
+	 */
+	public DeflateCompressor()
+	{
+		this(Deflater.BEST_SPEED, null);
+	}
+
+	/**
+	 * @param level
+	 *            compression level from {@value Deflater#BEST_SPEED} to
+	 *            {@value Deflater#BEST_COMPRESSION}
+	 * @param dictionary
+	 *            optional preset dictionary
+	 */
+	public DeflateCompressor(int level, byte[] dictionary)
+	{
+		this.level = Args.withinRange(Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION, level,
+			"level");
+		this.dictionary = dictionary;
+	}
+
+	@Override
+	public byte[] compress(byte[] data)
+	{
+		Deflater deflater = new Deflater(level);
+		try
+		{
+			if (dictionary != null)
+			{
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(data);
+			deflater.finish();
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 16);
+			out.write(data.length >>> 24);
+			out.write(data.length >>> 16);
+			out.write(data.length >>> 8);
+			out.write(data.length);
+
+			byte[] buffer = new byte[4096];
+			while (deflater.finished() == false)
+			{
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	@Override
+	public byte[] decompress(byte[] data)
+	{
+		if (data.length < 4)
+		{
+			throw new WicketRuntimeException("Invalid compressed data");
+		}
+		int length = (data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 |
+			(data[3] & 0xFF);
+
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(data, 4, data.length - 4);
+
+			byte[] out = new byte[length];
+			int position = 0;
+			while (position < length)
+			{
+				int count = inflater.inflate(out, position, out.length - position);
+				position += count;
+				if (count == 0)
+				{
+					if (inflater.needsDictionary())
+					{
+						if (dictionary == null)
+						{
+							throw new WicketRuntimeException(
+								"Compressed data requires a dictionary");
+						}
+						inflater.setDictionary(dictionary);
+					}
+					else if (inflater.needsInput() || inflater.finished())
+					{
+						throw new WicketRuntimeException("Invalid compressed data");
+					}
+				}
+			}
+			return out;
+		}
+		catch (DataFormatException e)
+		{
+			throw new WicketRuntimeException("Invalid compressed data", e);
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Create a dictionary from the given classes, containing the names of the classes, their
+	 * superclasses and the names and types of their serializable fields.
+	 * <p>
+	 * Deflate favors close back-references, so the classes should be given in ascending order of
+	 * their expected frequency in the data.
+	 *
+	 * @param classes
+	 *            classes, e.g. the application's pages and components
+	 * @return dictionary of at most 32KB
+	 */
+	public static byte[] createDictionary(Class<?>... classes)
+	{
+		Set<String> strings = new LinkedHashSet<>();
+		for (Class<?> clazz : classes)
+		{
+			for (Class<?> current = clazz; current != null &&
+				current != Object.class; current = current.getSuperclass())
+			{
+				for (Field field : current.getDeclaredFields())
+				{
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers))
+					{
+						continue;
+					}
+					strings.add(field.getName());
+					strings.add(field.getType().getName());
+				}
+				strings.add(current.getName());
+			}
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String string : strings)
+		{
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.write(bytes, 0, bytes.length);
+		}
+		byte[] dictionary = out.toByteArray();
+
+		if (dictionary.length > MAX_DICTIONARY_SIZE)
+		{
+			// keep the most frequent strings at the end
+			byte[] truncated = new byte[MAX_DICTIONARY_SIZE];
+			System.arraycopy(dictionary, dictionary.length - MAX_DICTIONARY_SIZE, truncated, 0,
+				MAX_DICTIONARY_SIZE);
+			dictionary = truncated;
+		}
+		return dictionary;
+	}
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.serialize.compress;
+
+import org.apache.wicket.WicketRuntimeException;
+
+/**
+ * A fast compressor of the LZ77 family.
+ * <p>
+ * Repeated sequences are found via a hash table of their first four bytes and encoded as a
+ * back-reference, without any entropy coding. Thus compression ratio is lower than
+ * {@link DeflateCompressor}'s, but compression and decompression are considerably faster. Serialized
+ * pages contain many repeated class names, field names and references, so they still compress
+ * well.
+ * <p>
+ * The format resembles LZ4's block format, but is not compatible with it: the data is preceded by
+ * its uncompressed length and is followed by a sequence of
+ * <ul>
+ * <li>a token, holding the count of literals in its upper and the length of the following match in
+ * its lower four bits,</li>
+ * <li>additional bytes for the literal count if it exceeds 14,</li>
+ * <li>the literals,</li>
+ * <li>a two-byte offset of the match and</li>
+ * <li>additional bytes for the match length if it exceeds 18.</li>
+ * </ul>
+ * The last sequence consists of literals only.
+ */
+public class LzCompressor implements ICompressor
+{
+	private static final int MIN_MATCH = 4;
+
+	private static final int MAX_OFFSET = 0xFFFF;
+
+	private static final int HASH_BITS = 14;
+
+	private static final int MASK = 0x0F;
+
+	@Override
+	public byte[] compress(byte[] data)
+	{
+		int length = data.length;
+
+		// worst case: all literals
+		byte[] out = new byte[4 + length + length / 255 + 16];
+		int op = writeInt(out, 0, length);
+
+		int[] table = new int[1 << HASH_BITS];
+
+		int anchor = 0;
+		int position = 0;
+		while (position + MIN_MATCH <= length)
+		{
+			int sequence = readInt(data, position);
+			int slot = hash(sequence);
+
+			// positions are stored plus one, so zero marks an empty slot
+			int candidate = table[slot] - 1;
+			table[slot] = position + 1;
+
+			if (candidate >= 0 && position - candidate <= MAX_OFFSET &&
+				readInt(data, candidate) == sequence)
+			{
+				int matchLength = MIN_MATCH;
+				while (position + matchLength < length &&
+					data[candidate + matchLength] == data[position + matchLength])
+				{
+					matchLength++;
+				}
+
+				op = writeSequence(out, op, data, anchor, position - anchor, position - candidate,
+					matchLength);
+
+				position += matchLength;
+				anchor = position;
+			}
+			else
+			{
+				position++;
+			}
+		}
+
+		op = writeLiterals(out, op, data, anchor, length - anchor, 0);
+
+		byte[] result = new byte[op];
+		System.arraycopy(out, 0, result, 0, op);
+		return result;
+	}
+
+	@Override
+	public byte[] decompress(byte[] data)
+	{
+		try
+		{
+			byte[] out = new byte[readInt(data, 0)];
+			int op = 0;
+			int ip = 4;
+			while (true)
+			{
+				int token = data[ip++] & 0xFF;
+
+				int literals = token >>> 4;
+				if (literals == MASK)
+				{
+					int b;
+					do
+					{
+						b = data[ip++] & 0xFF;
+						literals += b;
+					}
+					while (b == 0xFF);
+				}
+				System.arraycopy(data, ip, out, op, literals);
+				ip += literals;
+				op += literals;
+
+				if (ip == data.length)
+				{
+					// last sequence
+					break;
+				}
+
+				int offset = (data[ip++] & 0xFF) | ((data[ip++] & 0xFF) << 8);
+
+				int matchLength = token & MASK;
+				if (matchLength == MASK)
+				{
+					int b;
+					do
+					{
+						b = data[ip++] & 0xFF;
+						matchLength += b;
+					}
+					while (b == 0xFF);
+				}
+				matchLength += MIN_MATCH;
+
+				int reference = op - offset;
+				if (offset >= matchLength)
+				{
+					System.arraycopy(out, reference, out, op, matchLength);
+					op += matchLength;
+				}
+				else
+				{
+					// overlapping match repeats the preceding bytes
+					for (int i = 0; i < matchLength; i++)
+					{
+						out[op++] = out[reference++];
+					}
+				}
+			}
+
+			if (op != out.length)
+			{
+				throw new WicketRuntimeException("Invalid compressed data: unexpected length");
+			}
+			return out;
+		}
+		catch (IndexOutOfBoundsException e)
+		{
+			throw new WicketRuntimeException("Invalid compressed data", e);
+		}
+	}
+
+	private static int hash(int sequence)
+	{
+		return (sequence * 0x9E3779B1) >>> (32 - HASH_BITS);
+	}
+
+	private static int writeSequence(byte[] out, int op, byte[] data, int from, int literals,
+		int offset, int matchLength)
+	{
+		op = writeLiterals(out, op, data, from, literals, matchLength - MIN_MATCH);
+
+		out[op++] = (byte)offset;
+		out[op++] = (byte)(offset >>> 8);
+
+		if (matchLength - MIN_MATCH >= MASK)
+		{
+			op = writeLength(out, op, matchLength - MIN_MATCH - MASK);
+		}
+		return op;
+	}
+
+	private static int writeLiterals(byte[] out, int op, byte[] data, int from, int literals,
+		int matchLength)
+	{
+		out[op++] = (byte)((Math.min(literals, MASK) << 4) | Math.min(matchLength, MASK));
+		if (literals >= MASK)
+		{
+			op = writeLength(out, op, literals - MASK);
+		}
+
+		System.arraycopy(data, from, out, op, literals);
+		return op + literals;
+	}
+
+	private static int writeLength(byte[] out, int op, int length)
+	{
+		while (length >= 0xFF)
+		{
+			out[op++] = (byte)0xFF;
+			length -= 0xFF;
+		}
+		out[op++] = (byte)length;
+		return op;
+	}
+
+	private static int readInt(byte[] bytes, int offset)
+	{
+		return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 |
+			(bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+	}
+
+	private static int writeInt(byte[] bytes, int offset, int value)
+	{
+		bytes[offset] = (byte)(value >>> 24);
+		bytes[offset + 1] = (byte)(value >>> 16);
+		bytes[offset + 2] = (byte)(value >>> 8);
+		bytes[offset + 3] = (byte)value;
+		return offset + 4;
+	}
+}
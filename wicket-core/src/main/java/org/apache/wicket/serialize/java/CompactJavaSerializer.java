@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.serialize.java;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link JavaSerializer} writing compact class descriptors.
+ * <p>
+ * Java serialization writes a full description of each class (including the names and types of all
+ * its fields) into the serialized data of each page. This serializer writes the name and serial
+ * version UID of a class only, and resolves the description from the local class on
+ * deserialization. Resolved descriptions are kept in a dictionary shared by all pages of the
+ * application, so each class is resolved once only.
+ * <p>
+ * Since the serialized data does not describe the fields of a class, classes cannot evolve between
+ * serialization and deserialization - any change to a class has to be accompanied by a change of
+ * its serial version UID. Thus this serializer is suitable for pages, which are usually
+ * deserialized by the same version of an application only.
+ * <p>
+ * To use this serializer, put the following code in your application's init:
+ *
+ * <pre>
+ * getFrameworkSettings().setSerializer(new CompactJavaSerializer(getApplicationKey()));
+ * </pre>
+ */
+public class CompactJavaSerializer extends JavaSerializer
+{
+	/**
+	 * Dictionary of class descriptors by class name.
+	 */
+	private final ConcurrentMap<String, ObjectStreamClass> descriptors = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct.
+	 *
+	 * @param applicationKey
+	 *      the name of the application
+	 */
+	public CompactJavaSerializer(String applicationKey)
+	{
+		super(applicationKey);
+	}
+
+	@Override
+	protected ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException
+	{
+		return new SerializationCheckerObjectOutputStream(out, new CompactObjectOutputStream(out));
+	}
+
+	@Override
+	protected ObjectInputStream newObjectInputStream(InputStream in) throws IOException
+	{
+		return new CompactObjectInputStream(in);
+	}
+
+	/**
+	 * Writes the name and serial version UID of classes only.
+	 */
+	private static class CompactObjectOutputStream extends ObjectOutputStream
+	{
+		private CompactObjectOutputStream(OutputStream out) throws IOException
+		{
+			super(out);
+		}
+
+		@Override
+		protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException
+		{
+			writeUTF(desc.getName());
+			writeLong(desc.getSerialVersionUID());
+		}
+	}
+
+	/**
+	 * Reads class descriptors as written by {@link CompactObjectOutputStream}.
+	 */
+	private class CompactObjectInputStream extends ClassResolverObjectInputStream
+	{
+		private CompactObjectInputStream(InputStream in) throws IOException
+		{
+			super(in);
+		}
+
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException,
+			ClassNotFoundException
+		{
+			String name = readUTF();
+			long serialVersionUID = readLong();
+
+			ObjectStreamClass desc = descriptors.get(name);
+			if (desc == null)
+			{
+				Class<?> clazz = resolveClassByName(name, latestUserDefinedLoader());
+				desc = ObjectStreamClass.lookup(clazz);
+				if (desc == null)
+				{
+					throw new InvalidClassException(name, "class is not serializable");
+				}
+				descriptors.putIfAbsent(name, desc);
+			}
+
+			if (desc.getSerialVersionUID() != serialVersionUID)
+			{
+				throw new InvalidClassException(name,
+					"local class incompatible: stream classdesc serialVersionUID = " +
+						serialVersionUID + ", local class serialVersionUID = " +
+						desc.getSerialVersionUID());
+			}
+
+			return desc;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException,
+			ClassNotFoundException
+		{
+			// descriptors are resolved from local classes already
+			Class<?> clazz = desc.forClass();
+			if (clazz != null)
+			{
+				return clazz;
+			}
+			return super.resolveClass(desc);
+		}
+	}
+}
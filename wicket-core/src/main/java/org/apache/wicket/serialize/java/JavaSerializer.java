@@ -194,7 +194,7 @@ public class JavaSerializer implements ISerializer
 	/**
 	 * Extend {@link ObjectInputStream} to add framework class resolution logic.
 	 */
-	private static class ClassResolverObjectInputStream extends ObjectInputStream
+	static class ClassResolverObjectInputStream extends ObjectInputStream
 	{
 		public ClassResolverObjectInputStream(InputStream in) throws IOException
 		{
@@ -230,7 +230,7 @@ public class JavaSerializer implements ISerializer
 		 * resolves a class by name, first using the default Class.forName, but looking in the
 		 * Wicket ClassResolvers as well.
 		 */
-		private Class<?> resolveClassByName(String className, ClassLoader latestUserDefined)
+		Class<?> resolveClassByName(String className, ClassLoader latestUserDefined)
 			throws ClassNotFoundException
 		{
 			try
@@ -335,7 +335,7 @@ public class JavaSerializer implements ISerializer
 			}
 		}
 
-		private static ClassLoader latestUserDefinedLoader()
+		static ClassLoader latestUserDefinedLoader()
 		{
 			try
 			{
@@ -363,16 +363,22 @@ public class JavaSerializer implements ISerializer
 	 *     This is done so to save some CPU time to make the checks for no reason.
 	 * </p>
 	 */
-	private static class SerializationCheckerObjectOutputStream extends ObjectOutputStream
+	static class SerializationCheckerObjectOutputStream extends ObjectOutputStream
 	{
 		private final OutputStream outputStream;
 
 		private final ObjectOutputStream oos;
 
 		private SerializationCheckerObjectOutputStream(OutputStream outputStream) throws IOException
+		{
+			this(outputStream, new ObjectOutputStream(outputStream));
+		}
+
+		SerializationCheckerObjectOutputStream(OutputStream outputStream, ObjectOutputStream oos)
+			throws IOException
 		{
 			this.outputStream = outputStream;
-			oos = new ObjectOutputStream(outputStream);
+			this.oos = oos;
 		}
 
 		@Override
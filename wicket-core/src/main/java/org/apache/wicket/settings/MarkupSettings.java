@@ -20,6 +20,7 @@ import org.apache.wicket.DefaultMarkupIdGenerator;
 import org.apache.wicket.IMarkupIdGenerator;
 import org.apache.wicket.markup.MarkupFactory;
 import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
 
 /**
  * Class for markup related settings.
@@ -71,6 +72,9 @@ public class MarkupSettings
 	 */
 	private IMarkupIdGenerator markupIdGenerator = new DefaultMarkupIdGenerator();
 
+	/** Maximum size of the markup cache, {@code null} for an unbounded cache */
+	private Bytes markupCacheMaxSize;
+
 	/**
 	 * Construct
 	 */
@@ -273,4 +277,32 @@ public class MarkupSettings
 		this.markupIdGenerator = Args.notNull(markupIdGenerator, "markupIdGenerator");
 		return this;
 	}
+
+	/**
+	 * @return the maximum size of the markup cache, or {@code null} if the cache is unbounded
+	 */
+	public Bytes getMarkupCacheMaxSize()
+	{
+		return markupCacheMaxSize;
+	}
+
+	/**
+	 * Sets the maximum size of the markup cache. If the estimated size of all cached markup exceeds
+	 * this limit, the least recently used markup is evicted from the cache.
+	 * <p>
+	 * The limit applies separately to the cached markup and to the much smaller cache of markup
+	 * keys, so the total size may reach up to twice this limit.
+	 * <p>
+	 * Must be set before the markup cache is created, i.e. in the application's init.
+	 *
+	 * @param markupCacheMaxSize
+	 *            maximum size, {@code null} for an unbounded cache (the default)
+	 * @return {@code this} object for chaining
+	 * @see org.apache.wicket.markup.MarkupCache.BoundedCacheImplementation
+	 */
+	public MarkupSettings setMarkupCacheMaxSize(Bytes markupCacheMaxSize)
+	{
+		this.markupCacheMaxSize = markupCacheMaxSize;
+		return this;
+	}
 }
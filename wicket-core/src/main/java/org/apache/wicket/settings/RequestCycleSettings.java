@@ -172,6 +172,11 @@ public class RequestCycleSettings
 
 	private int exceptionRetryCount = 10;
 
+	/**
+	 * Whether pages rendered directly to the client are streamed, false by default.
+	 */
+	private boolean streamingRender = false;
+
 // ****************************************************************************
 // IRequestCycleSettings Implementation
 // ****************************************************************************
@@ -417,4 +422,39 @@ public class RequestCycleSettings
 	{
 		return exceptionRetryCount;
 	}
+
+	/**
+	 * Sets whether pages rendered directly to the client should be streamed.
+	 * <p>
+	 * By default a page is rendered into a buffer completely, before anything is sent to the client.
+	 * When streaming, the head and each top-level component of a page are sent to the client as soon
+	 * as they are rendered, improving the time to the first byte of large pages. As long as nothing
+	 * was sent yet, exceptions and other request handlers scheduled during render are handled as
+	 * before. Afterwards the client might receive a truncated page only, and headers can no longer
+	 * be changed.
+	 * <p>
+	 * Note that pages are streamed only when they are rendered directly into the response, i.e. not
+	 * when rendered into a buffer for {@link RenderStrategy#REDIRECT_TO_BUFFER}, thus streaming is
+	 * most effective with {@link RenderStrategy#ONE_PASS_RENDER} or
+	 * {@link RenderStrategy#REDIRECT_TO_RENDER}. Pages are not streamed when any
+	 * {@link IResponseFilter} is configured, since filters require the complete response.
+	 *
+	 * @param streamingRender
+	 *            {@code true} if pages should be streamed
+	 * @return {@code this} object for chaining
+	 */
+	public RequestCycleSettings setStreamingRender(boolean streamingRender)
+	{
+		this.streamingRender = streamingRender;
+		return this;
+	}
+
+	/**
+	 * @return whether pages rendered directly to the client are streamed
+	 * @see #setStreamingRender(boolean)
+	 */
+	public boolean getStreamingRender()
+	{
+		return streamingRender;
+	}
 }
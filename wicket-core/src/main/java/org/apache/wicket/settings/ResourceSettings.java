@@ -36,6 +36,8 @@ import org.apache.wicket.markup.head.ResourceAggregator.RecordedHeaderItem;
 import org.apache.wicket.markup.html.IPackageResourceGuard;
 import org.apache.wicket.markup.html.SecurePackageResourceGuard;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.request.resource.ChannelFileTransfer;
+import org.apache.wicket.request.resource.IFileTransfer;
 import org.apache.wicket.request.resource.caching.FilenameWithVersionResourceCachingStrategy;
 import org.apache.wicket.request.resource.caching.IResourceCachingStrategy;
 import org.apache.wicket.request.resource.caching.NoOpResourceCachingStrategy;
@@ -55,6 +57,7 @@ import org.apache.wicket.resource.loader.ValidatorStringResourceLoader;
 import org.apache.wicket.util.file.IFileCleaner;
 import org.apache.wicket.util.file.IResourceFinder;
 import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.lang.Generics;
 import org.apache.wicket.util.resource.IResourceStream;
 import org.apache.wicket.util.watch.IModificationWatcher;
@@ -139,6 +142,11 @@ public class ResourceSettings implements IPropertiesFactoryContext
 	 */
 	private IFileCleaner fileCleaner;
 
+	/**
+	 * Transfers file-backed resources into the response.
+	 */
+	private IFileTransfer fileTransfer = new ChannelFileTransfer();
+
 	/** Chain of string resource loaders to use */
 	private final List<IStringResourceLoader> stringResourceLoaders = Generics.newArrayList(6);
 
@@ -168,6 +176,11 @@ public class ResourceSettings implements IPropertiesFactoryContext
 
 	private boolean useMinifiedResources = true;
 
+	private boolean useCompressedResources = false;
+
+	/** maximum size of processed package resources kept in memory */
+	private Bytes processedResourceCacheSize = Bytes.megabytes(4);
+
 	private Comparator<? super RecordedHeaderItem> headerItemComparator = new PriorityFirstComparator(
 		false);
 
@@ -373,6 +386,28 @@ public class ResourceSettings implements IPropertiesFactoryContext
 		return this;
 	}
 
+	/**
+	 * @return the transfer used to write files into the response
+	 */
+	public IFileTransfer getFileTransfer()
+	{
+		return fileTransfer;
+	}
+
+	/**
+	 * Sets the transfer used to write files into the response, e.g. for
+	 * {@link org.apache.wicket.resource.FileSystemResource}s.
+	 *
+	 * @param fileTransfer
+	 *            the transfer, not <code>null</code>
+	 * @return {@code this} object for chaining
+	 */
+	public ResourceSettings setFileTransfer(IFileTransfer fileTransfer)
+	{
+		this.fileTransfer = Args.notNull(fileTransfer, "fileTransfer");
+		return this;
+	}
+
 	/**
 	 * @return mutable list of all available string resource loaders
 	 */
@@ -717,6 +752,60 @@ public class ResourceSettings implements IPropertiesFactoryContext
 		return useMinifiedResources;
 	}
 
+	/**
+	 * Sets whether textual package resources are served with a content encoding accepted by the
+	 * client. Pre-compressed variants found next to a resource, i.e. with an additional
+	 * {@code .br} or {@code .gz} extension, are served as they are, unless the resource is
+	 * processed by a compressor. Otherwise the resource is compressed with gzip in memory.
+	 * <p>
+	 * Disabled by default, since compression is often done by a proxy or the servlet container
+	 * already.
+	 *
+	 * @param useCompressedResources
+	 *            The new value for the setting
+	 * @return {@code this} object for chaining
+	 */
+	public ResourceSettings setUseCompressedResources(boolean useCompressedResources)
+	{
+		this.useCompressedResources = useCompressedResources;
+		return this;
+	}
+
+	/**
+	 * @return Whether package resources are served compressed.
+	 */
+	public boolean getUseCompressedResources()
+	{
+		return useCompressedResources;
+	}
+
+	/**
+	 * Sets the maximum size of package resources kept in memory after they were processed by a
+	 * compressor or gzipped, so each resource is compressed once only instead of on each request.
+	 * The size includes the original content of each resource, which is compared on each request
+	 * to detect modifications.
+	 * <p>
+	 * Must be set before the first package resource is served.
+	 *
+	 * @param processedResourceCacheSize
+	 *            maximum size, {@code null} or zero to disable the cache
+	 * @return {@code this} object for chaining
+	 * @see org.apache.wicket.request.resource.PackageResource#compressResponse
+	 */
+	public ResourceSettings setProcessedResourceCacheSize(Bytes processedResourceCacheSize)
+	{
+		this.processedResourceCacheSize = processedResourceCacheSize;
+		return this;
+	}
+
+	/**
+	 * @return maximum size of processed package resources kept in memory, may be {@code null}
+	 */
+	public Bytes getProcessedResourceCacheSize()
+	{
+		return processedResourceCacheSize;
+	}
+
 	/**
 	 * @return The comparator used to sort header items.
 	 */
@@ -18,10 +18,15 @@ package org.apache.wicket.settings;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.pageStore.BudgetingPageStore;
+import org.apache.wicket.pageStore.BudgetingPageStore.SessionInfo;
 import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.serialize.compress.ICompressor;
 import org.apache.wicket.util.lang.Args;
 import org.apache.wicket.util.lang.Bytes;
 
@@ -43,14 +48,26 @@ public class StoreSettings
 
 	private Bytes maxSizePerSession = DEFAULT_MAX_SIZE_PER_SESSION;
 
+	private Bytes maxSize = null;
+
+	private Comparator<SessionInfo> evictionPolicy = BudgetingPageStore.LEAST_RECENTLY_USED;
+
+	private Duration evictionInterval = Duration.ofSeconds(30);
+
 	private File fileStoreFolder = null;
 
 	private int asynchronousQueueCapacity = DEFAULT_ASYNCHRONOUS_QUEUE_CAPACITY;
 
+	private int asynchronousThreadCount = 1;
+
+	private Duration asynchronousDelay = Duration.ZERO;
+
 	private boolean asynchronous = true;
 	
 	private boolean encrypted = false;
 
+	private ICompressor compressor = null;
+
 	/**
 	 * Construct.
 	 * 
@@ -86,6 +103,76 @@ public class StoreSettings
 		return this;
 	}
 
+	/**
+	 * @return maximum size of pages of all sessions, may be {@code null}
+	 * @see BudgetingPageStore
+	 */
+	public Bytes getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * Sets the maximum size of pages of all sessions. If exceeded, all pages of sessions are
+	 * evicted according to the {@link #getEvictionPolicy()}.
+	 *
+	 * @param maxSize
+	 *            the maximum size, {@code null} for no limit
+	 * @see BudgetingPageStore
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setMaxSize(final Bytes maxSize)
+	{
+		this.maxSize = maxSize;
+		return this;
+	}
+
+	/**
+	 * @return the policy to evict sessions when the maximum size is exceeded
+	 * @see #getMaxSize()
+	 */
+	public Comparator<SessionInfo> getEvictionPolicy()
+	{
+		return evictionPolicy;
+	}
+
+	/**
+	 * Sets the policy to evict sessions when the maximum size is exceeded.
+	 *
+	 * @param evictionPolicy
+	 *            order of sessions to evict, e.g. {@link BudgetingPageStore#LEAST_RECENTLY_USED}
+	 * @see #getMaxSize()
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setEvictionPolicy(final Comparator<SessionInfo> evictionPolicy)
+	{
+		this.evictionPolicy = Args.notNull(evictionPolicy, "evictionPolicy");
+		return this;
+	}
+
+	/**
+	 * @return the interval of checking the maximum size of pages of all sessions
+	 * @see #getMaxSize()
+	 */
+	public Duration getEvictionInterval()
+	{
+		return evictionInterval;
+	}
+
+	/**
+	 * Sets the interval of checking the maximum size of pages of all sessions.
+	 *
+	 * @param evictionInterval
+	 *            the interval, defaults to 30 seconds
+	 * @see #getMaxSize()
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setEvictionInterval(final Duration evictionInterval)
+	{
+		this.evictionInterval = Args.notNull(evictionInterval, "evictionInterval");
+		return this;
+	}
+
 	/**
 	 * @return the location of the folder where {@link org.apache.wicket.pageStore.DiskPageStore} will store the files with page
 	 *         instances per session
@@ -159,6 +246,60 @@ public class StoreSettings
 		return this;
 	}
 
+	/**
+	 * @return the count of threads storing pages asynchronously
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 */
+	public int getAsynchronousThreadCount()
+	{
+		return asynchronousThreadCount;
+	}
+
+	/**
+	 * Sets the count of threads storing pages asynchronously. Pages of different sessions are
+	 * stored concurrently when more than one thread is used, while all pages of a single session
+	 * are still stored in order.
+	 *
+	 * @param threadCount
+	 *            the count of threads
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setAsynchronousThreadCount(int threadCount)
+	{
+		if (threadCount < 1)
+		{
+			throw new IllegalArgumentException(
+				"The count of asynchronous threads should be at least 1.");
+		}
+		asynchronousThreadCount = threadCount;
+		return this;
+	}
+
+	/**
+	 * @return the minimal duration a page is kept pending before it is stored asynchronously
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 */
+	public Duration getAsynchronousDelay()
+	{
+		return asynchronousDelay;
+	}
+
+	/**
+	 * Sets the minimal duration a page is kept pending before it is stored asynchronously. Repeated
+	 * stores of the same page within this duration are coalesced into a single store.
+	 *
+	 * @param delay
+	 *            the delay, {@link Duration#ZERO} to store pages as soon as possible
+	 * @see org.apache.wicket.pageStore.AsynchronousPageStore
+	 * @return {@code this} object for chaining
+	 */
+	public StoreSettings setAsynchronousDelay(Duration delay)
+	{
+		this.asynchronousDelay = Args.notNull(delay, "delay");
+		return this;
+	}
+
 	/**
 	 * Sets a flag whether to wrap the configured {@link org.apache.wicket.pageStore.IPageStore} with
 	 * {@link org.apache.wicket.pageStore.AsynchronousPageStore}. By doing this the HTTP worker thread will not wait for the
@@ -203,4 +344,28 @@ public class StoreSettings
 	{
 		return encrypted;
 	}
+
+	/**
+	 * Sets the compressor to wrap the configured {@link org.apache.wicket.pageStore.IPageStore}
+	 * with a {@link org.apache.wicket.pageStore.CompressingPageStore}.
+	 *
+	 * @param compressor
+	 *            the compressor, {@code null} to store pages uncompressed
+	 * @return {@code this} object for chaining
+	 * @see org.apache.wicket.serialize.compress.LzCompressor
+	 * @see org.apache.wicket.serialize.compress.DeflateCompressor
+	 */
+	public StoreSettings setCompressor(ICompressor compressor)
+	{
+		this.compressor = compressor;
+		return this;
+	}
+
+	/**
+	 * @return the compressor for pages, may be {@code null}
+	 */
+	public ICompressor getCompressor()
+	{
+		return compressor;
+	}
 }
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.util.cache;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.wicket.markup.MarkupCache.ICache;
+import org.apache.wicket.util.lang.Args;
+import org.apache.wicket.util.lang.Bytes;
+
+/**
+ * A cache limited to a maximum size, evicting the least recently used entries.
+ * <p>
+ * The size of an entry is estimated from its key and value, see {@link #sizeOf(Object)}. Entries
+ * are held in a {@link ConcurrentHashMap}, thus lookups do not lock - they just stamp the entry
+ * with the time of its last access. Once the maximum size is exceeded, a single scan evicts the
+ * least recently used entries in a batch, down to three quarters of the maximum size.
+ * 
+ * @param <K>
+ * @param <V>
+ */
+public class BoundedCache<K, V> implements ICache<K, V>
+{
+	private final ConcurrentHashMap<K, Entry<V>> cache = new ConcurrentHashMap<>();
+
+	private final long maxSize;
+
+	private final AtomicLong size = new AtomicLong();
+
+	private final ReentrantLock evicting = new ReentrantLock();
+
+	/**
+	 * Construct.
+	 * 
+	 * @param maxSize
+	 *            maximum size of all entries
+	 */
+	public BoundedCache(Bytes maxSize)
+	{
+		this.maxSize = Args.notNull(maxSize, "maxSize").bytes();
+	}
+
+	/**
+	 * @return estimated size of all entries in bytes
+	 */
+	public long getSize()
+	{
+		return size.get();
+	}
+
+	/**
+	 * @return maximum size in bytes
+	 */
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+
+	@Override
+	public void clear()
+	{
+		cache.clear();
+		size.set(0);
+	}
+
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		if (key == null)
+		{
+			return false;
+		}
+		return cache.containsKey(key);
+	}
+
+	@Override
+	public V get(final Object key)
+	{
+		if (key == null)
+		{
+			return null;
+		}
+		Entry<V> entry = cache.get(key);
+		if (entry == null)
+		{
+			return null;
+		}
+		entry.accessed = System.nanoTime();
+		return entry.value;
+	}
+
+	@Override
+	public Collection<K> getKeys()
+	{
+		return new View<K>()
+		{
+			@Override
+			protected K get(Map.Entry<K, Entry<V>> entry)
+			{
+				return entry.getKey();
+			}
+		};
+	}
+
+	@Override
+	public Collection<V> getValues()
+	{
+		return new View<V>()
+		{
+			@Override
+			protected V get(Map.Entry<K, Entry<V>> entry)
+			{
+				return entry.getValue().value;
+			}
+		};
+	}
+
+	@Override
+	public void put(K key, V value)
+	{
+		Entry<V> entry = new Entry<>(value, sizeOf(key) + sizeOf(value));
+
+		Entry<V> previous = cache.put(key, entry);
+		size.addAndGet(entry.size - (previous != null ? previous.size : 0));
+
+		if (size.get() > maxSize)
+		{
+			evict();
+		}
+	}
+
+	@Override
+	public boolean remove(K key)
+	{
+		if (key == null)
+		{
+			return false;
+		}
+		Entry<V> entry = cache.remove(key);
+		if (entry == null)
+		{
+			return false;
+		}
+		size.addAndGet(-entry.size);
+		return true;
+	}
+
+	@Override
+	public int size()
+	{
+		return cache.size();
+	}
+
+	@Override
+	public void shutdown()
+	{
+		clear();
+	}
+
+	/**
+	 * Evict the least recently used entries until three quarters of the maximum size are
+	 * reached, so following puts do not have to evict again right away.
+	 * <p>
+	 * The entries are scanned once per eviction only, and only one thread evicts at a time.
+	 */
+	private void evict()
+	{
+		if (evicting.tryLock() == false)
+		{
+			// another thread is already evicting
+			return;
+		}
+
+		try
+		{
+			// copy access times, since they might change while sorting
+			List<Candidate<K, V>> candidates = new ArrayList<>(cache.size());
+			for (Map.Entry<K, Entry<V>> entry : cache.entrySet())
+			{
+				candidates.add(new Candidate<>(entry.getKey(), entry.getValue()));
+			}
+			candidates.sort(Comparator.comparingLong(candidate -> candidate.accessed));
+
+			long target = maxSize - maxSize / 4;
+			for (Candidate<K, V> candidate : candidates)
+			{
+				if (size.get() <= target)
+				{
+					break;
+				}
+
+				// another thread might have removed or replaced it in the meantime
+				if (cache.remove(candidate.key, candidate.entry))
+				{
+					size.addAndGet(-candidate.entry.size);
+
+					onEvicted(candidate.key, candidate.entry.value);
+				}
+			}
+		}
+		finally
+		{
+			evicting.unlock();
+		}
+	}
+
+	/**
+	 * Hook method called after an entry was evicted.
+	 * 
+	 * @param key
+	 *            key of evicted entry
+	 * @param value
+	 *            value of evicted entry
+	 */
+	protected void onEvicted(K key, V value)
+	{
+	}
+
+	/**
+	 * Estimate the size of a key or value, by default from the length of a {@link CharSequence}
+	 * only. Subclasses should override this method for other types.
+	 * 
+	 * @param object
+	 *            key or value
+	 * @return estimated size in bytes
+	 */
+	protected long sizeOf(Object object)
+	{
+		long length = 0;
+		if (object instanceof CharSequence)
+		{
+			length = ((CharSequence)object).length();
+		}
+		return length * 2;
+	}
+
+	/**
+	 * An entry with a copy of its time of last access, to be sorted for eviction.
+	 */
+	private static class Candidate<K, V>
+	{
+		private final K key;
+
+		private final Entry<V> entry;
+
+		private final long accessed;
+
+		private Candidate(K key, Entry<V> entry)
+		{
+			this.key = key;
+			this.entry = entry;
+
+			accessed = entry.accessed;
+		}
+	}
+
+	/**
+	 * A cached value with its size and time of last access.
+	 */
+	private static class Entry<V>
+	{
+		private final V value;
+
+		private final long size;
+
+		private volatile long accessed;
+
+		private Entry(V value, long size)
+		{
+			this.value = value;
+			this.size = size;
+
+			accessed = System.nanoTime();
+		}
+	}
+
+	/**
+	 * View on the keys or values, keeping track of the size on removal.
+	 */
+	private abstract class View<T> extends AbstractCollection<T>
+	{
+		@Override
+		public Iterator<T> iterator()
+		{
+			final Iterator<Map.Entry<K, Entry<V>>> iterator = cache.entrySet().iterator();
+
+			return new Iterator<T>()
+			{
+				private Map.Entry<K, Entry<V>> current;
+
+				@Override
+				public boolean hasNext()
+				{
+					return iterator.hasNext();
+				}
+
+				@Override
+				public T next()
+				{
+					current = iterator.next();
+					return get(current);
+				}
+
+				@Override
+				public void remove()
+				{
+					iterator.remove();
+					size.addAndGet(-current.getValue().size);
+				}
+			};
+		}
+
+		@Override
+		public int size()
+		{
+			return cache.size();
+		}
+
+		protected abstract T get(Map.Entry<K, Entry<V>> entry);
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.core.util.lang.WicketObjects;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ChildMap}.
+ */
+class ChildMapTest extends WicketTestCase
+{
+	@Test
+	void putGetRemove()
+	{
+		ChildMap map = new ChildMap(4);
+
+		List<Component> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+		{
+			Label label = new Label("label" + i);
+			assertNull(map.put(label));
+			expected.add(label);
+		}
+		assertEquals(100, map.size());
+
+		for (Component child : expected)
+		{
+			assertSame(child, map.get(child.getId()));
+		}
+		assertNull(map.get("unknown"));
+
+		// replace keeps position
+		Label replacement = new Label("label50");
+		assertSame(expected.get(50), map.put(replacement));
+		expected.set(50, replacement);
+		assertEquals(expected, map.values());
+
+		// remove every other child
+		for (int i = 0; i < 100; i += 2)
+		{
+			if (i + 2 < 100)
+			{
+				assertSame(expected.get(i + 1), map.previous("label" + (i + 2)));
+			}
+			assertSame(expected.get(i), map.remove("label" + i));
+		}
+		expected.removeIf(child -> Integer.parseInt(child.getId().substring(5)) % 2 == 0);
+		assertEquals(50, map.size());
+		assertNull(map.remove("label0"));
+
+		for (Component child : expected)
+		{
+			assertSame(child, map.get(child.getId()));
+		}
+
+		// compacted on addition
+		for (int i = 100; i < 200; i++)
+		{
+			Label label = new Label("label" + i);
+			map.put(label);
+			expected.add(label);
+		}
+		assertEquals(expected, map.values());
+
+		List<Component> iterated = new ArrayList<>();
+		map.forEach(iterated::add);
+		assertEquals(expected, iterated);
+
+		assertSame(expected.get(0), map.first());
+		assertNull(map.previous(expected.get(0).getId()));
+	}
+
+	@Test
+	void serialize() throws IOException
+	{
+		WebMarkupContainer container = new WebMarkupContainer("container");
+
+		ChildMap map = new ChildMap(4);
+		Map<String, Component> linked = new LinkedHashMap<>();
+		for (int i = 0; i < 100; i++)
+		{
+			Label label = new Label("label" + i);
+			container.add(label);
+			map.put(label);
+			linked.put(label.getId(), label);
+		}
+		map.remove("label50");
+		linked.remove("label50");
+
+		ChildMap clone = WicketObjects.cloneObject(map);
+		assertEquals(99, clone.size());
+		for (Component child : clone)
+		{
+			assertSame(child, clone.get(child.getId()));
+		}
+
+		assertTrue(serializedSize(map) < serializedSize(linked));
+	}
+
+	private int serializedSize(Object object) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(object);
+		}
+		return bytes.size();
+	}
+}
@@ -19,8 +19,10 @@ package org.apache.wicket;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.wicket.ajax.AjaxEventBehavior;
@@ -286,6 +288,57 @@ class ComponentTest extends WicketTestCase
 		assertEquals(3, c.isVisibleCallCount);
 	}
 
+	/**
+	 * Model, metadata and behaviors share the data slots of a component, spare slots are dropped
+	 * on detach.
+	 */
+	@Test
+	void dataSlots()
+	{
+		MetaDataKey<String> key = new MetaDataKey<>()
+		{
+			private static final long serialVersionUID = 1L;
+		};
+
+		Behavior b1 = new Behavior() {};
+		Behavior b2 = new Behavior() {};
+		Behavior b3 = new Behavior() {};
+
+		SpyComponent c = new SpyComponent("test");
+		c.add(b1, b2, b3);
+		c.setMetaData(key, "meta");
+		c.setDefaultModel(Model.of("model"));
+		assertEquals(5, c.data_length());
+
+		c.remove(b2);
+		assertEquals(4, c.data_length());
+		assertEquals(List.of(b1, b3), c.getBehaviors());
+		assertEquals("meta", c.getMetaData(key));
+		assertEquals("model", c.getDefaultModelObject());
+
+		c.setDefaultModel(null);
+		c.setMetaData(key, null);
+		assertEquals(List.of(b1, b3), c.getBehaviors());
+		assertNull(c.getMetaData(key));
+		assertNull(c.getDefaultModel());
+
+		c.add(b2);
+		assertEquals(List.of(b1, b3, b2), c.getBehaviors());
+
+		// a following instance is allocated with the learned capacity
+		SpyComponent other = new SpyComponent("other");
+		other.add(b1, b2);
+		assertTrue(((Object[])other.data).length >= 5);
+
+		other.detach();
+		assertEquals(2, ((Object[])other.data).length);
+		assertEquals(List.of(b1, b2), other.getBehaviors());
+
+		c.remove(b1);
+		c.remove(b2);
+		assertSame(b3, c.data);
+	}
+
 	/**
 	 * Component#FLAG_RESERVED5 (Page's STATELESS_HINT) must be initially set to true
 	 */
@@ -33,7 +33,6 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.stream.Collectors;
 
-import org.apache.commons.collections4.map.LinkedMap;
 import org.apache.wicket.core.util.lang.WicketObjects;
 import org.apache.wicket.markup.IMarkupResourceStreamProvider;
 import org.apache.wicket.markup.html.WebComponent;
@@ -397,28 +396,28 @@ class MarkupContainerTest extends WicketTestCase
 		assertChildrenType(wmc, List.class);
 
 		addNChildren(wmc, 1);
-		assertChildrenType(wmc, LinkedMap.class);
+		assertChildrenType(wmc, ChildMap.class);
 	}
 
 	@Test
-	void childrenBecomesLinkedMapWhenThresholdPassed()
+	void childrenBecomesChildMapWhenThresholdPassed()
 	{
 		WebMarkupContainer wmc = new WebMarkupContainer("id");
 
 		addNChildren(wmc, NUMBER_OF_CHILDREN_FOR_A_MAP + 1);
 
-		assertChildrenType(wmc, LinkedMap.class);
+		assertChildrenType(wmc, ChildMap.class);
 	}
 
 	@Test
-	void linkedMapChildrenBecomesChild()
+	void childMapChildrenBecomesChild()
 	{
 		WebMarkupContainer wmc = new WebMarkupContainer("id");
 
 		addNChildren(wmc, NUMBER_OF_CHILDREN_FOR_A_MAP);
 		wmc.add(new EmptyPanel("panel"));
 
-		assertChildrenType(wmc, LinkedMap.class);
+		assertChildrenType(wmc, ChildMap.class);
 
 		Iterator<Component> iterator = wmc.iterator();
 		removeNChildren(iterator, NUMBER_OF_CHILDREN_FOR_A_MAP);
@@ -23,9 +23,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.wicket.protocol.http.mock.MockHttpServletRequest;
 import org.apache.wicket.protocol.http.mock.MockHttpServletResponse;
+import org.apache.wicket.request.Request;
 import org.apache.wicket.request.resource.IResource;
+import org.apache.wicket.request.resource.IResource.Attributes;
 import org.apache.wicket.request.resource.ResourceStreamResource;
+import org.apache.wicket.response.ByteArrayResponse;
 import org.apache.wicket.util.resource.FileResourceStream;
 import org.apache.wicket.util.resource.IResourceStream;
 import org.apache.wicket.util.resource.StringResourceStream;
@@ -64,6 +68,49 @@ class ResourceTest extends WicketTestCase
 		assertEquals(TEST_STRING.length(), tester.getContentLengthFromResponseHeader());
 	}
 
+	/**
+	 * Files are transferred directly, supporting ranges.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	void fileResourceStreamRange() throws IOException
+	{
+		File testFile = File.createTempFile(ResourceTest.class.getName(), null);
+		try
+		{
+			try (OutputStream out = new FileOutputStream(testFile))
+			{
+				out.write(TEST_STRING.getBytes());
+			}
+			IResource resource = new ResourceStreamResource(new FileResourceStream(
+				new org.apache.wicket.util.file.File(testFile)));
+
+			assertEquals(TEST_STRING, makeRangeRequest(resource, null));
+			assertEquals("Hello", makeRangeRequest(resource, "bytes=0-4"));
+			assertEquals("World!", makeRangeRequest(resource, "bytes=7-"));
+			assertEquals("o, W", makeRangeRequest(resource, "bytes=4-7"));
+		}
+		finally
+		{
+			testFile.delete();
+		}
+	}
+
+	private String makeRangeRequest(IResource resource, String range)
+	{
+		ByteArrayResponse byteResponse = new ByteArrayResponse();
+
+		Request request = tester.getRequestCycle().getRequest();
+		MockHttpServletRequest mockHttpServletRequest = (MockHttpServletRequest)request.getContainerRequest();
+		if (range != null)
+		{
+			mockHttpServletRequest.setHeader("range", range);
+		}
+		resource.respond(new Attributes(request, byteResponse));
+		return new String(byteResponse.getBytes());
+	}
+
 	/**
 	 * testStringResourceStream()
 	 */
@@ -24,6 +24,8 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.apache.wicket.MockPage;
 import org.apache.wicket.core.request.handler.BookmarkableListenerRequestHandler;
 import org.apache.wicket.core.request.handler.BookmarkablePageRequestHandler;
@@ -967,4 +969,72 @@ class MountedMapperTest extends AbstractMapperTest
 			"exactCompatScore should have greater compatibility score than optional one" +
 				" got exact = " + exactCompatScore + " and optional = " + optCompatScore);
 	}
+
+	/**
+	 * The prefix ends at the first placeholder.
+	 */
+	@Test
+	void prefixSegments()
+	{
+		assertEquals(List.of("some", "mount", "path"), encoder.getPrefixSegments());
+		assertEquals(List.of("some"), placeholderEncoder.getPrefixSegments());
+		assertEquals(List.of("some"), optionPlaceholderEncoder.getPrefixSegments());
+		assertEquals(List.of(), new MountedMapper("/${param}/path", MockPage.class).getPrefixSegments());
+	}
+
+	/**
+	 * Mappers possibly accepting other URLs are not prefixed.
+	 */
+	@Test
+	void prefixSegmentsOverridden()
+	{
+		MountedMapper parsing = new MountedMapper("/some/mount/path", MockPage.class)
+		{
+			@Override
+			protected UrlInfo parseRequest(Request request)
+			{
+				return super.parseRequest(request);
+			}
+		};
+		assertEquals(List.of(), parsing.getPrefixSegments());
+
+		MountedMapper scoring = new MountedMapper("/some/mount/path", MockPage.class)
+		{
+			@Override
+			public int getCompatibilityScore(Request request)
+			{
+				return super.getCompatibilityScore(request);
+			}
+		};
+		assertEquals(List.of(), scoring.getPrefixSegments());
+	}
+
+	/**
+	 * Mappers possibly accepting other page classes are not keyed.
+	 */
+	@Test
+	void mappingKey()
+	{
+		assertEquals(MockPage.class.getName(), encoder.getMappingKey());
+
+		MountedMapper checking = new MountedMapper("/some/mount/path", MockPage.class)
+		{
+			@Override
+			protected boolean checkPageClass(Class<? extends IRequestablePage> pageClass)
+			{
+				return true;
+			}
+		};
+		assertNull(checking.getMappingKey());
+
+		MountedMapper mapping = new MountedMapper("/some/mount/path", MockPage.class)
+		{
+			@Override
+			public Url mapHandler(IRequestHandler requestHandler)
+			{
+				return super.mapHandler(requestHandler);
+			}
+		};
+		assertNull(mapping.getMappingKey());
+	}
 }
@@ -98,6 +98,20 @@ class ResourceMapperTest extends WicketTestCase
 		};
 	}
 
+	/**
+	 * The last fixed segment is not part of the prefix, if it can be decorated for caching.
+	 */
+	@Test
+	void prefixSegments()
+	{
+		ResourceReference reference = new SharedResourceReference(SHARED_NAME);
+
+		assertEquals(List.of("test"), ((ResourceMapper)mapper).getPrefixSegments());
+		assertEquals(List.of("test2"), ((ResourceMapper)mapperWithPlaceholder).getPrefixSegments());
+		assertEquals(List.of("test3"),
+			new ResourceMapper("/test3/resource/#{name}", reference).getPrefixSegments());
+	}
+
 	/**
 	 * testInvalidPathIsEmpty()
 	 */
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.wicket.markup.parser.XmlTag.TagType;
+import org.apache.wicket.response.StringResponse;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ComponentTag#writeOutput(org.apache.wicket.request.Response, boolean, String)}.
+ */
+class ComponentTagOutputTest extends WicketTestCase
+{
+	private ComponentTag parse(String markup)
+	{
+		return (ComponentTag)Markup.of(markup).get(0);
+	}
+
+	private String write(ComponentTag tag, boolean stripWicketAttributes)
+	{
+		StringResponse response = new StringResponse();
+		tag.writeOutput(response, stripWicketAttributes, "wicket");
+		return response.toString();
+	}
+
+	@Test
+	void immutable()
+	{
+		ComponentTag tag = parse("<a wicket:id='link' title='a &amp; b' href=\"#\"></a>");
+
+		assertEquals("<a title=\"a &amp; b\" href=\"#\">", write(tag, true));
+		assertEquals("<a title=\"a &amp; b\" href=\"#\">", write(tag, true));
+		assertEquals("<a wicket:id=\"link\" title=\"a &amp; b\" href=\"#\">", write(tag, false));
+	}
+
+	@Test
+	void unmodifiedCopy()
+	{
+		ComponentTag tag = parse("<a wicket:id='link' title='a' href=\"#\"></a>");
+		write(tag, true);
+
+		ComponentTag copy = tag.mutable();
+		assertEquals("<a title=\"a\" href=\"#\">", write(copy, true));
+
+		// same attributes in a different order
+		copy.remove("title");
+		copy.put("title", "a");
+		assertEquals("<a href=\"#\" title=\"a\">", write(copy, true));
+		assertEquals("<a title=\"a\" href=\"#\">", write(tag, true));
+	}
+
+	@Test
+	void modifiedCopy()
+	{
+		ComponentTag tag = parse("<a wicket:id='link' title='a'></a>");
+		write(tag, true);
+
+		ComponentTag copy = tag.mutable();
+		copy.put("title", "b");
+		assertEquals("<a title=\"b\">", write(copy, true));
+
+		copy = tag.mutable();
+		copy.setName("span");
+		assertEquals("<span title=\"a\">", write(copy, true));
+
+		copy = tag.mutable();
+		copy.setType(TagType.OPEN_CLOSE);
+		assertEquals("<a title=\"a\"/>", write(copy, true));
+
+		assertEquals("<a title=\"a\">", write(tag, true));
+	}
+
+	@Test
+	void mutableValue()
+	{
+		StringBuilder title = new StringBuilder("a");
+		ComponentTag tag = new ComponentTag("a", TagType.OPEN);
+		tag.put("title", title);
+		tag.makeImmutable();
+
+		assertEquals("<a title=\"a\">", write(tag, true));
+
+		// value shared with copies
+		title.append("b");
+		assertEquals("<a title=\"ab\">", write(tag.mutable(), true));
+		assertEquals("<a title=\"ab\">", write(tag, true));
+	}
+}
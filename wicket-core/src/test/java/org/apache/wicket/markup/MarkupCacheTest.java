@@ -16,13 +16,18 @@
  */
 package org.apache.wicket.markup;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.markup.MarkupCache.BoundedCacheImplementation;
 import org.apache.wicket.markup.html.panel.Panel;
+import org.apache.wicket.util.lang.Bytes;
 import org.apache.wicket.util.resource.IResourceStream;
 import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.tester.WicketTestCase;
@@ -91,6 +96,106 @@ class MarkupCacheTest extends WicketTestCase
 		assertNull(markup);
 	}
 
+	/**
+	 * Removing a base markup removes its derived markup only.
+	 */
+	@Test
+	void removeDerivedMarkupOnly()
+	{
+		tester.startPage(MarkupInheritanceExtension_1.class);
+		MarkupInheritanceExtension_1 page = (MarkupInheritanceExtension_1)tester.getLastRenderedPage();
+
+		Markup markup = cache.getMarkup(page, null, false);
+		String cacheKey = markup.getMarkupResourceStream().getCacheKey();
+		String baseKey = markup.getMarkupResourceStream().getBaseMarkupResourceStream().getCacheKey();
+		String otherKey = cache.getMarkupCacheKeyProvider(component).getCacheKey(component,
+			component.getClass());
+
+		cache.removeMarkup(baseKey);
+
+		assertNull(cache.getMarkupFromCache(baseKey, page));
+		assertNull(cache.getMarkupFromCache(cacheKey, page));
+		assertNotNull(cache.getMarkupFromCache(otherKey, component));
+
+		// derived markup is loaded again
+		assertNotNull(cache.getMarkup(page, null, false));
+		assertNotNull(cache.getMarkupFromCache(cacheKey, page));
+	}
+
+	/**
+	 * Hits and misses are counted.
+	 */
+	@Test
+	void statistics()
+	{
+		long hits = cache.getHitCount();
+
+		cache.getMarkup(component, null, false);
+
+		assertEquals(hits + 1, cache.getHitCount());
+		assertTrue(cache.getMissCount() > 0);
+	}
+
+	/**
+	 * The least recently used entries are evicted in a batch.
+	 */
+	@Test
+	void boundedCacheEvictsLeastRecentlyUsed()
+	{
+		BoundedCacheImplementation<String, String> bounded = new BoundedCacheImplementation<>(
+			Bytes.bytes(40));
+
+		bounded.put("a", "aaaa");
+		bounded.put("b", "bbbb");
+		bounded.put("c", "cccc");
+		bounded.put("d", "dddd");
+		assertEquals(40, bounded.getSize());
+
+		bounded.get("a");
+		bounded.put("e", "eeee");
+
+		// evicted down to three quarters of the maximum size
+		assertTrue(bounded.containsKey("a"));
+		assertFalse(bounded.containsKey("b"));
+		assertFalse(bounded.containsKey("c"));
+		assertTrue(bounded.containsKey("d"));
+		assertTrue(bounded.containsKey("e"));
+		assertEquals(30, bounded.getSize());
+
+		bounded.getValues().removeIf("aaaa"::equals);
+		assertEquals(20, bounded.getSize());
+	}
+
+	/**
+	 * Derived markup is removed when its base markup is evicted.
+	 */
+	@Test
+	void evictDerivedMarkupWhenBaseMarkupIsEvicted()
+	{
+		long maxSize = Bytes.kilobytes(100).bytes();
+		tester.getApplication().getMarkupSettings().setMarkupCacheMaxSize(Bytes.bytes(maxSize));
+		cache = new MarkupCache();
+
+		tester.startPage(MarkupInheritanceExtension_1.class);
+		MarkupInheritanceExtension_1 page = (MarkupInheritanceExtension_1)tester.getLastRenderedPage();
+
+		Markup markup = cache.getMarkup(page, null, false);
+		String cacheKey = markup.getMarkupResourceStream().getCacheKey();
+		assertNotNull(markup.getMarkupResourceStream().getBaseMarkupResourceStream());
+
+		// evict everything but the derived markup
+		BoundedCacheImplementation<String, Markup> bounded = (BoundedCacheImplementation<String, Markup>)cache
+			.getMarkupCache();
+		long derivedSize = bounded.sizeOf(markup.locationAsString()) + bounded.sizeOf(markup);
+		long evictions = cache.getEvictionCount();
+		Markup filler = Markup.of("x".repeat((int)((maxSize - derivedSize) / 2) - 6));
+		assertEquals(maxSize - derivedSize, bounded.sizeOf("filler") + bounded.sizeOf(filler));
+		bounded.put("filler", filler);
+
+		assertTrue(cache.getEvictionCount() > evictions);
+		assertNull(cache.getMarkupFromCache(cacheKey, page));
+	}
+
 	private static class MarkupCachingAssumingComponent extends Panel
 		implements
 			IMarkupResourceStreamProvider
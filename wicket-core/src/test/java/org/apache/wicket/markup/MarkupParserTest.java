@@ -311,9 +311,9 @@ final class MarkupParserTest extends WicketTestCase
 		assertEquals(0, markup.size());
 
 		markup = new MarkupParser("<div><wicket:remove> <span id=\"test\"/> </wicket:remove></div>").parse();
-		assertEquals(2, markup.size());
-		assertEquals("<div>", markup.get(0).toString());
-		assertEquals("</div>", markup.get(1).toString());
+		// adjacent raw markup is merged
+		assertEquals(1, markup.size());
+		assertEquals("<div></div>", markup.get(0).toString());
 
 		try
 		{
@@ -21,6 +21,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.apache.wicket.markup.parser.XmlTag.TagType;
+import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.tester.WicketTestCase;
 import org.junit.jupiter.api.Test;
 
@@ -163,4 +165,25 @@ class MarkupTest extends WicketTestCase
 		 */
 		assertNull(markup.find("c5"));
 	}
+
+	/**
+	 * Adjacent raw markup is merged.
+	 */
+	@Test
+	void mergeRawMarkup()
+	{
+		Markup markup = new Markup(new MarkupResourceStream(new StringResourceStream("")));
+		markup.addMarkupElement(new RawMarkup("<p>"));
+		markup.addMarkupElement(new RawMarkup("<b>"));
+		markup.addMarkupElement(new ComponentTag("span", TagType.OPEN_CLOSE));
+		markup.addMarkupElement(new RawMarkup("</b>"));
+		markup.addMarkupElement(new RawMarkup("</p>"));
+		markup.addMarkupElement(new RawMarkup("<br/>"));
+		markup.makeImmutable();
+
+		assertEquals(3, markup.size());
+		assertEquals("<p><b>", markup.get(0).toString());
+		assertTrue(markup.get(1) instanceof ComponentTag);
+		assertEquals("</b></p><br/>", markup.get(2).toString());
+	}
 }
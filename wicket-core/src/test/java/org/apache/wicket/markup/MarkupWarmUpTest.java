@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.markup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.request.cycle.IRequestCycleListener;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link MarkupWarmUp}.
+ */
+class MarkupWarmUpTest extends WicketTestCase
+{
+	@Test
+	void warmUpMountedPages()
+	{
+		tester.getApplication().mountPage("inheritance", MarkupInheritancePage_6.class);
+
+		MarkupCache cache = (MarkupCache)MarkupFactory.get().getMarkupCache();
+		cache.clear();
+
+		int count = new MarkupWarmUp(tester.getApplication()).setParallelism(2)
+			.addMountedPages()
+			.warmUp();
+
+		// home page and mounted page
+		assertEquals(2, count);
+
+		Collection<String> locations = cache.getMarkupCache().getKeys();
+		assertTrue(contains(locations, "MarkupInheritancePage_6.html"));
+		assertTrue(contains(locations, "MarkupInheritanceExtensionPanel_6.html"));
+		assertTrue(contains(locations, "MarkupInheritanceBasePanel_6.html"));
+	}
+
+	@Test
+	void failingPageIsSkipped()
+	{
+		int count = new MarkupWarmUp(tester.getApplication()).addPage(FailingPage.class)
+			.addPage(MarkupInheritancePage_6.class)
+			.warmUp();
+
+		assertEquals(1, count);
+	}
+
+	@Test
+	void requestCycleIsDetached()
+	{
+		AtomicInteger detached = new AtomicInteger();
+		tester.getApplication().getRequestCycleListeners().add(new IRequestCycleListener()
+		{
+			@Override
+			public void onDetach(RequestCycle cycle)
+			{
+				detached.incrementAndGet();
+			}
+		});
+		RequestCycle current = RequestCycle.get();
+
+		new MarkupWarmUp(tester.getApplication()).setParallelism(1)
+			.addPage(FailingPage.class)
+			.addPage(MarkupInheritancePage_6.class)
+			.warmUp();
+
+		assertEquals(2, detached.get());
+		assertSame(current, RequestCycle.get());
+	}
+
+	private static boolean contains(Collection<String> locations, String name)
+	{
+		return locations.stream().anyMatch(location -> location.endsWith(name));
+	}
+
+	/**
+	 * A page failing on construction.
+	 */
+	public static class FailingPage extends WebPage
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Construct.
+		 */
+		public FailingPage()
+		{
+			throw new IllegalStateException("failing");
+		}
+	}
+}
@@ -16,21 +16,35 @@
  */
 package org.apache.wicket.markup.html;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.SharedResources;
+import org.apache.wicket.core.util.resource.locator.ResourceStreamLocator;
 import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.protocol.http.mock.MockHttpServletResponse;
 import org.apache.wicket.request.resource.JavaScriptPackageResource;
 import org.apache.wicket.request.resource.PackageResource;
 import org.apache.wicket.request.resource.PackageResourceReference;
 import org.apache.wicket.request.resource.ResourceReference;
+import org.apache.wicket.resource.ITextResourceCompressor;
+import org.apache.wicket.util.io.IOUtils;
 import org.apache.wicket.util.lang.Packages;
+import org.apache.wicket.util.resource.IFixedLocationResourceStream;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.ResourceStreamWrapper;
+import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.tester.WicketTestCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -193,4 +207,165 @@ public class PackageResourceTest extends WicketTestCase
 		final String contentType = tester.getLastResponse().getContentType();
 		assertEquals("text/javascript; charset=" + encoding, contentType);
 	}
+
+	/**
+	 * Textual resources are served with a content encoding accepted by the client.
+	 */
+	@Test
+	void contentEncoding() throws IOException
+	{
+		application.getResourceSettings().setUseCompressedResources(true);
+
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged5.js",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+		};
+
+		tester.startResource(resource);
+		assertNull(tester.getLastResponse().getHeader("Content-Encoding"));
+		byte[] plain = tester.getLastResponse().getBinaryContent();
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip, deflate, br");
+		tester.startResource(resource);
+		MockHttpServletResponse response = tester.getLastResponse();
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", response.getHeader("Vary"));
+		assertArrayEquals(plain, IOUtils.toByteArray(
+			new GZIPInputStream(new ByteArrayInputStream(response.getBinaryContent()))));
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip;q=0");
+		tester.startResource(resource);
+		assertNull(tester.getLastResponse().getHeader("Content-Encoding"));
+
+		// too small to gain from compression
+		PackageResource small = new PackageResource(PackageResourceTest.class, "packaged1.txt",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+		};
+		tester.getRequest().setHeader("Accept-Encoding", "gzip");
+		tester.startResource(small);
+		assertNull(tester.getLastResponse().getHeader("Content-Encoding"));
+	}
+
+	/**
+	 * Pre-compressed variants next to a resource are preferred.
+	 */
+	@Test
+	void preCompressed() throws IOException
+	{
+		application.getResourceSettings().setUseCompressedResources(true);
+		setBrotliLocation("");
+
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged5.js",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+		};
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip, br");
+		tester.startResource(resource);
+		assertEquals("br", tester.getLastResponse().getHeader("Content-Encoding"));
+		assertEquals("brotli", tester.getLastResponseAsString());
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip");
+		tester.startResource(resource);
+		assertEquals("gzip", tester.getLastResponse().getHeader("Content-Encoding"));
+
+		// processed resources are compressed after processing
+		PackageResource processed = new PackageResource(PackageResourceTest.class,
+			"packaged5.js", null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected ITextResourceCompressor getCompressor()
+			{
+				return original -> original.toUpperCase(Locale.ROOT);
+			}
+		};
+		processed.setCompress(true);
+		tester.getRequest().setHeader("Accept-Encoding", "gzip, br");
+		tester.startResource(processed);
+		MockHttpServletResponse response = tester.getLastResponse();
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		String content = new String(IOUtils.toByteArray(
+			new GZIPInputStream(new ByteArrayInputStream(response.getBinaryContent()))),
+			StandardCharsets.UTF_8);
+		assertEquals(content.toUpperCase(Locale.ROOT), content);
+
+		application.getResourceSettings().setUseCompressedResources(false);
+		tester.getRequest().setHeader("Accept-Encoding", "gzip, br");
+		tester.startResource(resource);
+		assertNull(tester.getLastResponse().getHeader("Content-Encoding"));
+		assertNull(tester.getLastResponse().getHeader("Vary"));
+	}
+
+	/**
+	 * Pre-compressed variants of another resource, e.g. of the non-minified resource, are ignored.
+	 */
+	@Test
+	void preCompressedElsewhere()
+	{
+		application.getResourceSettings().setUseCompressedResources(true);
+		setBrotliLocation(".min");
+
+		PackageResource resource = new PackageResource(PackageResourceTest.class, "packaged5.js",
+			null, null, null)
+		{
+			private static final long serialVersionUID = 1L;
+		};
+
+		tester.getRequest().setHeader("Accept-Encoding", "gzip, br");
+		tester.startResource(resource);
+		assertEquals("gzip", tester.getLastResponse().getHeader("Content-Encoding"));
+	}
+
+	/**
+	 * Locate a brotli variant of packaged5.js, at the location of the resource plus the given infix
+	 * and {@code .br}.
+	 */
+	private void setBrotliLocation(final String infix)
+	{
+		application.getResourceSettings().setResourceStreamLocator(
+			new ResourceStreamLocator(application.getResourceSettings().getResourceFinders())
+			{
+				@Override
+				public IResourceStream locate(Class<?> clazz, String path, String style,
+					String variation, Locale locale, String extension, boolean strict)
+				{
+					if ("js.br".equals(extension) && path.endsWith("packaged5"))
+					{
+						IResourceStream original = super.locate(clazz, path, style, variation,
+							locale, "js", strict);
+						return new LocatedResourceStream("brotli",
+							((IFixedLocationResourceStream)original).locationAsString() + infix +
+								".br");
+					}
+					return super.locate(clazz, path, style, variation, locale, extension, strict);
+				}
+			});
+	}
+
+	private static class LocatedResourceStream extends ResourceStreamWrapper
+		implements
+			IFixedLocationResourceStream
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String location;
+
+		LocatedResourceStream(String string, String location)
+		{
+			super(new StringResourceStream(string));
+			this.location = location;
+		}
+
+		@Override
+		public String locationAsString()
+		{
+			return location;
+		}
+	}
 }
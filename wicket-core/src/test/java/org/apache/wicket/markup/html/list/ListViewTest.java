@@ -17,10 +17,12 @@
 package org.apache.wicket.markup.html.list;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.wicket.markup.Markup;
 import org.apache.wicket.markup.html.basic.Label;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.util.ListModel;
@@ -163,4 +165,31 @@ class ListViewTest extends WicketTestCase
 		assertEquals(0, lv.getStartIndex());
 		assertEquals(0, lv.getViewSize());
 	}
+
+	/**
+	 * The markup of the items' children is shared by all items.
+	 */
+	@Test
+	void itemChildMarkupIsShared()
+	{
+		ListView<Integer> lv = new ListView<Integer>("listView", List.of(1, 2, 3))
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void populateItem(final ListItem<Integer> listItem)
+			{
+				listItem.add(new Label("label", listItem.getModel()));
+			}
+		};
+
+		tester.startComponentInPage(lv, Markup.of(
+			"<html><body><ul><li wicket:id='listView'><span wicket:id='label'></span></li></ul></body></html>"));
+		tester.assertContains("<span wicket:id=\"label\">1</span>");
+		tester.assertContains("<span wicket:id=\"label\">3</span>");
+
+		ListItem<?> first = (ListItem<?>)lv.get("0");
+		ListItem<?> last = (ListItem<?>)lv.get("2");
+		assertSame(first.getMarkup(first.get("label")), last.getMarkup(last.get("label")));
+	}
 }
@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.UnsupportedEncodingException;
@@ -286,6 +287,49 @@ class XmlPullParserTest
 		assertNotNull(ex);
 	}
 
+	/**
+	 * Attributes with namespaces, unusual syntax and entities.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	final void attributeSyntax() throws Exception
+	{
+		final XmlPullParser parser = new XmlPullParser();
+		parser.parse("<wicket:panel wicket:message:key=\"a\" @click='b' v-on:input = c>");
+		XmlTag tag = parser.nextTag();
+		assertEquals("wicket", tag.getNamespace());
+		assertEquals("panel", tag.getName());
+		assertEquals(3, tag.getAttributes().size());
+		assertEquals("a", tag.getAttributes().getString("wicket:message:key"));
+		assertEquals("b", tag.getAttributes().getString("@click"));
+		assertEquals("c", tag.getAttributes().getString("v-on:input"));
+
+		parser.parse("<input disabled title=\" a &amp; b \" :class=\"c\">");
+		tag = parser.nextTag();
+		assertNull(tag.getNamespace());
+		assertEquals("input", tag.getName());
+		assertEquals(3, tag.getAttributes().size());
+		assertEquals("", tag.getAttributes().getString("disabled"));
+		assertEquals("a & b", tag.getAttributes().getString("title"));
+		assertEquals("c", tag.getAttributes().getString(":class"));
+
+		// junk is skipped
+		parser.parse("<a href=foo?x=1 id='y'>");
+		tag = parser.nextTag();
+		assertEquals(3, tag.getAttributes().size());
+		assertEquals("foo", tag.getAttributes().getString("href"));
+		assertEquals("1", tag.getAttributes().getString("x"));
+		assertEquals("y", tag.getAttributes().getString("id"));
+
+		// Names are shared between tags
+		parser.parse("<span class='a'></span><span class='b'>");
+		XmlTag first = parser.nextTag();
+		parser.nextTag();
+		XmlTag second = parser.nextTag();
+		assertSame(first.getName(), second.getName());
+	}
+
 	/**
 	 * 
 	 * @throws Exception
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.core.util.lang.WicketObjects;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LazyDeserializingModel}.
+ */
+class LazyDeserializingModelTest extends WicketTestCase
+{
+	private static int deserializations;
+
+	@Test
+	void deserializeOnAccess()
+	{
+		ArrayList<Counting> list = new ArrayList<>();
+		list.add(new Counting("a"));
+		list.add(new Counting("b"));
+
+		LazyDeserializingModel<ArrayList<Counting>> model = LazyDeserializingModel.of(list);
+		assertTrue(model.isDeserialized());
+
+		deserializations = 0;
+		LazyDeserializingModel<ArrayList<Counting>> copy = WicketObjects.cloneObject(model);
+		assertFalse(copy.isDeserialized());
+		assertEquals(0, deserializations);
+
+		// untouched chunk is written as is
+		copy = WicketObjects.cloneObject(copy);
+		assertEquals(0, deserializations);
+
+		assertEquals("b", copy.getObject().get(1).value);
+		assertTrue(copy.isDeserialized());
+		assertEquals(2, deserializations);
+
+		// changes are serialized
+		copy.getObject().add(new Counting("c"));
+		copy = WicketObjects.cloneObject(copy);
+		assertEquals(3, copy.getObject().size());
+	}
+
+	@Test
+	void setObjectDiscardsChunk()
+	{
+		LazyDeserializingModel<String> model = WicketObjects.cloneObject(
+			LazyDeserializingModel.of("foo"));
+		assertFalse(model.isDeserialized());
+
+		model.setObject("bar");
+		assertTrue(model.isDeserialized());
+		assertEquals("bar", WicketObjects.cloneObject(model).getObject());
+	}
+
+	@Test
+	void nullObject()
+	{
+		LazyDeserializingModel<String> model = WicketObjects.cloneObject(
+			new LazyDeserializingModel<String>());
+		assertNull(model.getObject());
+	}
+
+	@Test
+	void componentRejected()
+	{
+		LazyDeserializingModel<Label> model = LazyDeserializingModel.of(new Label("label"));
+
+		assertThrows(WicketRuntimeException.class,
+			() -> new ObjectOutputStream(OutputStream.nullOutputStream()).writeObject(model));
+	}
+
+	private static class Counting implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String value;
+
+		Counting(String value)
+		{
+			this.value = value;
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+		{
+			in.defaultReadObject();
+
+			deserializations++;
+		}
+	}
+}
@@ -17,16 +17,23 @@
 package org.apache.wicket.pageStore;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.RandomUtils;
@@ -348,6 +355,158 @@ public class AsynchronousPageStoreTest
 		assertTrue(sync > 0);
 	}
 
+	/**
+	 * Multiple threads store pages of different sessions concurrently, but keep the order of pages
+	 * in each session.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void storeWithMultipleThreadsKeepsOrderPerSession() throws InterruptedException
+	{
+		int sessions = 10;
+		int pages = 10;
+
+		final CountDownLatch lock = new CountDownLatch(pages * sessions);
+		final Map<String, List<Integer>> added = new ConcurrentHashMap<>();
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+
+		IPageStore store = new MockPageStore()
+		{
+			@Override
+			public void addPage(IPageContext context, IManageablePage page)
+			{
+				maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+				try
+				{
+					Thread.sleep(10);
+				}
+				catch (InterruptedException e)
+				{
+					throw new RuntimeException(e);
+				}
+				concurrent.decrementAndGet();
+
+				added.computeIfAbsent(context.getSessionId(false), key -> new ArrayList<>())
+					.add(page.getPageId());
+				lock.countDown();
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store, pages * sessions, 4);
+
+		for (int pageId = 1; pageId <= pages; pageId++)
+		{
+			for (int i = 1; i <= sessions; i++)
+			{
+				asyncPageStore.addPage(new MockPageContext(String.valueOf(i)),
+					new DummyPage(pageId, 0, 0, String.valueOf(i)));
+			}
+		}
+
+		assertTrue(lock.await(10, TimeUnit.SECONDS));
+		asyncPageStore.destroy();
+
+		assertEquals(0, asyncPageStore.getSynchronousCount());
+		assertTrue(maxConcurrent.get() > 1);
+		assertEquals(sessions, added.size());
+		for (List<Integer> ids : added.values())
+		{
+			assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), ids);
+		}
+	}
+
+	/**
+	 * Pages are added synchronously when the queue is full.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void storeCountsSynchronousAdds() throws InterruptedException
+	{
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		IPageStore store = new MockPageStore()
+		{
+			@Override
+			public void addPage(IPageContext context, IManageablePage page)
+			{
+				if (page.getPageId() == 1)
+				{
+					started.countDown();
+					try
+					{
+						release.await();
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+				super.addPage(context, page);
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store, 1);
+
+		IPageContext context = new MockPageContext();
+		asyncPageStore.addPage(context, new DummyPage(1, 0, 0, "1"));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		asyncPageStore.addPage(context, new DummyPage(2, 0, 0, "1"));
+		asyncPageStore.addPage(context, new DummyPage(3, 0, 0, "1"));
+
+		assertEquals(1, asyncPageStore.getQueueSize());
+		assertEquals(1, asyncPageStore.getSynchronousCount());
+
+		release.countDown();
+		asyncPageStore.destroy();
+	}
+
+	/**
+	 * Repeated adds of the same page within the delay are coalesced.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	void storeCoalescesAddsOfSamePage() throws InterruptedException
+	{
+		final List<IManageablePage> added = new CopyOnWriteArrayList<>();
+		final CountDownLatch lock = new CountDownLatch(2);
+
+		IPageStore store = new MockPageStore()
+		{
+			@Override
+			public void addPage(IPageContext context, IManageablePage page)
+			{
+				added.add(page);
+				super.addPage(context, page);
+				lock.countDown();
+			}
+		};
+
+		AsynchronousPageStore asyncPageStore = new AsynchronousPageStore(store, 100, 1,
+			Duration.ofMillis(500), null);
+
+		IPageContext context = new MockPageContext();
+		DummyPage page1 = new DummyPage(1, 0, 0, "1");
+		DummyPage page1Again = new DummyPage(1, 0, 0, "1");
+		DummyPage page2 = new DummyPage(2, 0, 0, "1");
+		asyncPageStore.addPage(context, page1);
+		asyncPageStore.addPage(context, page2);
+		asyncPageStore.addPage(context, page1Again);
+
+		assertEquals(1, asyncPageStore.getCoalescedCount());
+		assertSame(page1Again, asyncPageStore.getPage(context, 1));
+
+		assertTrue(lock.await(10, TimeUnit.SECONDS));
+		asyncPageStore.destroy();
+
+		assertEquals(Arrays.asList(page1Again, page2), added);
+	}
+
 	private MetaDataKey<Serializable> KEY1 = new MetaDataKey<Serializable>()
 	{
 	};
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.pageStore.BudgetingPageStore.SessionInfo;
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BudgetingPageStore}.
+ */
+public class BudgetingPageStoreTest
+{
+	private BudgetingPageStore store;
+
+	private final List<String> reads = new ArrayList<>();
+
+	private final IPageContext context1 = new MockPageContext("session1");
+
+	private final IPageContext context2 = new MockPageContext("session2");
+
+	private final IPageContext context3 = new MockPageContext("session3");
+
+	@AfterEach
+	void after()
+	{
+		if (store != null)
+		{
+			store.destroy();
+		}
+	}
+
+	private void createStore(Comparator<SessionInfo> policy)
+	{
+		InMemoryPageStore delegate = new InMemoryPageStore("test", 100)
+		{
+			@Override
+			public List<IPersistedPage> getPersistedPages(String sessionIdentifier)
+			{
+				reads.add(sessionIdentifier);
+
+				return super.getPersistedPages(sessionIdentifier);
+			}
+		};
+		store = new BudgetingPageStore(delegate, Bytes.bytes(100), policy, Duration.ZERO);
+	}
+
+	private void add(IPageContext context, int id, int size) throws InterruptedException
+	{
+		store.addPage(context, new SerializedPage(id, "foo", new byte[size]));
+
+		// distinct access times
+		Thread.sleep(5);
+	}
+
+	@Test
+	void leastRecentlyUsed() throws InterruptedException
+	{
+		createStore(BudgetingPageStore.LEAST_RECENTLY_USED);
+
+		add(context1, 1, 40);
+		add(context2, 1, 40);
+		add(context3, 1, 10);
+
+		// within budget
+		store.evict();
+		assertEquals(0, store.getEvictedSessions());
+
+		assertNotNull(store.getPage(context1, 1));
+		Thread.sleep(5);
+		add(context3, 2, 20);
+
+		store.evict();
+		assertNotNull(store.getPage(context1, 1));
+		assertNull(store.getPage(context2, 1));
+		assertNotNull(store.getPage(context3, 1));
+
+		assertEquals(1, store.getEvictedSessions());
+		assertEquals(1, store.getEvictedPages());
+		assertEquals(Bytes.bytes(40), store.getEvictedSize());
+	}
+
+	@Test
+	void oldestSessionFirst() throws InterruptedException
+	{
+		createStore(BudgetingPageStore.OLDEST_SESSION_FIRST);
+
+		add(context1, 1, 40);
+		add(context2, 1, 40);
+		add(context3, 1, 10);
+
+		assertNotNull(store.getPage(context1, 1));
+		add(context3, 2, 20);
+
+		store.evict();
+		assertNull(store.getPage(context1, 1));
+		assertNotNull(store.getPage(context2, 1));
+		assertNotNull(store.getPage(context3, 1));
+	}
+
+	@Test
+	void largestSessionFirst() throws InterruptedException
+	{
+		createStore(BudgetingPageStore.LARGEST_SESSION_FIRST);
+
+		add(context1, 1, 40);
+		add(context2, 1, 30);
+		add(context3, 1, 20);
+		add(context3, 2, 20);
+
+		store.evict();
+		assertNotNull(store.getPage(context1, 1));
+		assertNotNull(store.getPage(context2, 1));
+		assertNull(store.getPage(context3, 1));
+		assertNull(store.getPage(context3, 2));
+
+		assertEquals(1, store.getEvictedSessions());
+		assertEquals(2, store.getEvictedPages());
+		assertEquals(Bytes.bytes(40), store.getEvictedSize());
+	}
+
+	@Test
+	void maxEvictionsPerRun() throws InterruptedException
+	{
+		createStore(BudgetingPageStore.LEAST_RECENTLY_USED);
+		store.setMaxEvictionsPerRun(1);
+
+		add(context1, 1, 60);
+		add(context2, 1, 60);
+		add(context3, 1, 60);
+
+		store.evict();
+		assertEquals(1, store.getEvictedSessions());
+
+		store.evict();
+		assertEquals(2, store.getEvictedSessions());
+		assertNotNull(store.getPage(context3, 1));
+	}
+
+	/**
+	 * Sizes are read from the delegate only for sessions modified since the last run.
+	 */
+	@Test
+	void incremental() throws InterruptedException
+	{
+		createStore(BudgetingPageStore.LEAST_RECENTLY_USED);
+
+		add(context1, 1, 40);
+		add(context2, 1, 40);
+
+		store.evict();
+		assertEquals(2, reads.size());
+
+		reads.clear();
+		assertNotNull(store.getPage(context1, 1));
+		store.evict();
+		assertEquals(0, reads.size());
+
+		add(context2, 2, 10);
+		store.evict();
+		assertEquals(List.of("session2"), reads);
+
+		reads.clear();
+		store.removeAllPages(context2);
+		store.evict();
+		assertEquals(0, reads.size());
+
+		add(context3, 1, 70);
+		store.evict();
+		assertEquals(List.of("session3"), reads);
+		assertNull(store.getPage(context1, 1));
+		assertEquals(1, store.getEvictedSessions());
+	}
+
+	@Test
+	void persistedPages() throws InterruptedException
+	{
+		createStore(BudgetingPageStore.LEAST_RECENTLY_USED);
+
+		add(context1, 1, 40);
+		add(context1, 2, 10);
+
+		assertEquals(Set.of("session1"), store.getSessionIdentifiers());
+		assertEquals(2, store.getPersistedPages("session1").size());
+		assertEquals(Bytes.bytes(50), store.getTotalSize());
+
+		store.removePersistedPages("session1");
+		assertNull(store.getPage(context1, 1));
+	}
+
+	@Test
+	void noSessionIdentifierCreated()
+	{
+		createStore(BudgetingPageStore.LEAST_RECENTLY_USED);
+
+		List<Boolean> binds = new ArrayList<>();
+		IPageContext context = new MockPageContext("session4")
+		{
+			@Override
+			public String getSessionId(boolean bind)
+			{
+				binds.add(bind);
+				return super.getSessionId(bind);
+			}
+		};
+
+		store.removePage(context, new SerializedPage(1, "foo", new byte[0]));
+		store.removeAllPages(context);
+		assertNull(store.getPage(context, 1));
+
+		assertEquals(List.of(), binds);
+	}
+}
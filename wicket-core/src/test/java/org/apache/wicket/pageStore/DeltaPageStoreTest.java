@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.mock.MockPageStore;
+import org.apache.wicket.pageStore.delta.BinaryDelta;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link DeltaPageStore}.
+ */
+public class DeltaPageStoreTest
+{
+	private final Random random = new Random(42);
+
+	private byte[] randomData(int length)
+	{
+		byte[] data = new byte[length];
+		random.nextBytes(data);
+		return data;
+	}
+
+	private byte[] modify(byte[] data)
+	{
+		byte[] modified = new byte[data.length + 10];
+		System.arraycopy(data, 0, modified, 0, 1000);
+		System.arraycopy(randomData(10), 0, modified, 1000, 10);
+		System.arraycopy(data, 1000, modified, 1010, data.length - 1000);
+		modified[5000] ^= 1;
+		return modified;
+	}
+
+	@Test
+	void binaryDelta()
+	{
+		byte[] source = randomData(10000);
+		byte[] target = modify(source);
+
+		byte[] delta = BinaryDelta.create(source, target);
+		assertTrue(delta.length < 100, "delta too large " + delta.length);
+		assertArrayEquals(target, BinaryDelta.apply(source, delta));
+
+		// unrelated
+		target = randomData(100);
+		assertArrayEquals(target, BinaryDelta.apply(source, BinaryDelta.create(source, target)));
+
+		// empty
+		assertArrayEquals(new byte[0], BinaryDelta.apply(source, BinaryDelta.create(source, new byte[0])));
+		assertArrayEquals(source, BinaryDelta.apply(new byte[0], BinaryDelta.create(new byte[0], source)));
+	}
+
+	@Test
+	void storesDeltas()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate, 3);
+
+		IPageContext context = new MockPageContext();
+
+		byte[][] datas = new byte[6][];
+		datas[0] = randomData(10000);
+		for (int p = 0; p < datas.length; p++)
+		{
+			if (p > 0)
+			{
+				datas[p] = modify(datas[p - 1]);
+			}
+			store.addPage(context, new SerializedPage(p, "foo", datas[p]));
+		}
+
+		// 0 base, 1-3 deltas, 4 base, 5 delta
+		for (int p = 0; p < datas.length; p++)
+		{
+			int stored = ((SerializedPage)delegate.getPage(context, p)).getData().length;
+			if (p == 0 || p == 4)
+			{
+				assertTrue(stored > datas[p].length);
+			}
+			else
+			{
+				assertTrue(stored < 200, "delta too large " + stored);
+			}
+
+			SerializedPage page = (SerializedPage)store.getPage(context, p);
+			assertEquals(p, page.getPageId());
+			assertArrayEquals(datas[p], page.getData());
+		}
+
+		// base removed
+		store.removePage(context, new SerializedPage(4, "foo", new byte[0]));
+		assertNull(store.getPage(context, 5));
+
+		// base overwritten, dependent deltas are re-encoded
+		store.addPage(context, new SerializedPage(0, "foo", randomData(10000)));
+		for (int p = 1; p <= 3; p++)
+		{
+			assertArrayEquals(datas[p], ((SerializedPage)store.getPage(context, p)).getData());
+		}
+	}
+
+	@Test
+	void baseAddedAgain()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate);
+
+		IPageContext context = new MockPageContext();
+
+		byte[] a = randomData(10000);
+		byte[] b = modify(a);
+		store.addPage(context, new SerializedPage(0, "foo", a));
+		store.addPage(context, new SerializedPage(1, "foo", b));
+		assertTrue(((SerializedPage)delegate.getPage(context, 1)).getData().length < 200);
+
+		// page of base is stored again with changes
+		byte[] a2 = modify(a);
+		store.addPage(context, new SerializedPage(0, "foo", a2));
+
+		assertArrayEquals(a2, ((SerializedPage)store.getPage(context, 0)).getData());
+		assertArrayEquals(b, ((SerializedPage)store.getPage(context, 1)).getData());
+		assertTrue(((SerializedPage)delegate.getPage(context, 1)).getData().length < 200);
+
+		// following pages are still stored as deltas
+		byte[] c = modify(a2);
+		store.addPage(context, new SerializedPage(2, "foo", c));
+		assertTrue(((SerializedPage)delegate.getPage(context, 2)).getData().length < 200);
+		assertArrayEquals(c, ((SerializedPage)store.getPage(context, 2)).getData());
+	}
+
+	@Test
+	void storesUnrelatedInFull()
+	{
+		MockPageStore delegate = new MockPageStore();
+		DeltaPageStore store = new DeltaPageStore(delegate);
+
+		IPageContext context = new MockPageContext();
+
+		byte[] data0 = randomData(1000);
+		byte[] data1 = randomData(1000);
+		store.addPage(context, new SerializedPage(0, "foo", data0));
+		store.addPage(context, new SerializedPage(1, "foo", data1));
+
+		assertTrue(((SerializedPage)delegate.getPage(context, 1)).getData().length > 1000);
+		assertArrayEquals(data0, ((SerializedPage)store.getPage(context, 0)).getData());
+		assertArrayEquals(data1, ((SerializedPage)store.getPage(context, 1)).getData());
+	}
+}
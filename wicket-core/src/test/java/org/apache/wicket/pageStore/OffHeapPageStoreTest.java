@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.wicket.mock.MockPageContext;
+import org.apache.wicket.page.IManageablePage;
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link OffHeapPageStore}.
+ */
+public class OffHeapPageStoreTest
+{
+	private OffHeapPageStore store = new OffHeapPageStore("test", Bytes.bytes(4 * 16), 16);
+
+	@AfterEach
+	void after()
+	{
+		store.destroy();
+	}
+
+	private byte[] data(int length, int value)
+	{
+		byte[] data = new byte[length];
+		Arrays.fill(data, (byte)value);
+		return data;
+	}
+
+	@Test
+	void storePage()
+	{
+		IPageContext context = new MockPageContext("session1");
+
+		byte[] data = data(40, 1);
+		store.addPage(context, new SerializedPage(1, "foo", data));
+
+		SerializedPage page = (SerializedPage)store.getPage(context, 1);
+		assertEquals("foo", page.getPageType());
+		assertArrayEquals(data, page.getData());
+
+		assertEquals(Bytes.bytes(40), store.getTotalSize());
+		assertEquals(Bytes.bytes(64), store.getAllocatedSize());
+		assertEquals(Collections.singleton(store.getSessionIdentifier(context)),
+			store.getSessionIdentifiers());
+		assertEquals(Bytes.bytes(40),
+			store.getPersistedPages(store.getSessionIdentifier(context)).get(0).getPageSize());
+	}
+
+	@Test
+	void replacePage()
+	{
+		IPageContext context = new MockPageContext("session1");
+
+		store.addPage(context, new SerializedPage(1, "foo", data(40, 1)));
+		store.addPage(context, new SerializedPage(1, "foo", data(20, 2)));
+
+		assertArrayEquals(data(20, 2), ((SerializedPage)store.getPage(context, 1)).getData());
+		assertEquals(Bytes.bytes(20), store.getTotalSize());
+	}
+
+	@Test
+	void evictLeastRecentlyUsedAcrossSessions()
+	{
+		IPageContext context1 = new MockPageContext("session1");
+		IPageContext context2 = new MockPageContext("session2");
+
+		store.addPage(context1, new SerializedPage(1, "foo", data(16, 1)));
+		store.addPage(context2, new SerializedPage(1, "foo", data(16, 2)));
+		store.addPage(context1, new SerializedPage(2, "foo", data(32, 3)));
+
+		// access oldest
+		assertNotNull(store.getPage(context1, 1));
+
+		store.addPage(context2, new SerializedPage(2, "foo", data(16, 4)));
+
+		assertNotNull(store.getPage(context1, 1));
+		assertNull(store.getPage(context2, 1));
+		assertNotNull(store.getPage(context1, 2));
+		assertNotNull(store.getPage(context2, 2));
+
+		store.addPage(context2, new SerializedPage(3, "foo", data(48, 5)));
+
+		assertNull(store.getPage(context1, 1));
+		assertNull(store.getPage(context1, 2));
+		assertNotNull(store.getPage(context2, 2));
+		assertArrayEquals(data(48, 5), ((SerializedPage)store.getPage(context2, 3)).getData());
+
+		assertEquals(Collections.singleton(store.getSessionIdentifier(context2)),
+			store.getSessionIdentifiers());
+		assertEquals(Bytes.bytes(64), store.getTotalSize());
+		assertEquals(Bytes.bytes(64), store.getAllocatedSize());
+	}
+
+	@Test
+	void pageExceedingMaxSize()
+	{
+		IPageContext context = new MockPageContext("session1");
+
+		store.addPage(context, new SerializedPage(1, "foo", data(16, 1)));
+		store.addPage(context, new SerializedPage(2, "foo", data(65, 2)));
+
+		assertNotNull(store.getPage(context, 1));
+		assertNull(store.getPage(context, 2));
+	}
+
+	@Test
+	void removePages()
+	{
+		IPageContext context = new MockPageContext("session1");
+
+		store.addPage(context, new SerializedPage(1, "foo", data(16, 1)));
+		store.addPage(context, new SerializedPage(2, "foo", data(16, 2)));
+
+		store.removePage(context, new SerializedPage(1, "foo", new byte[0]));
+		assertNull(store.getPage(context, 1));
+		assertNotNull(store.getPage(context, 2));
+		assertEquals(Bytes.bytes(16), store.getTotalSize());
+
+		store.removeAllPages(context);
+		assertNull(store.getPage(context, 2));
+		assertEquals(Bytes.bytes(0), store.getTotalSize());
+		assertEquals(0, store.getSessionIdentifiers().size());
+	}
+
+	/**
+	 * Pages are not evicted if not enough blocks can be freed while other pages are being read.
+	 */
+	@Test
+	void evictWhileRead() throws Exception
+	{
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch read = new CountDownLatch(1);
+		store.destroy();
+		store = new OffHeapPageStore("test", Bytes.bytes(4 * 16), 16)
+		{
+			@Override
+			void copy(ByteBuffer block, byte[] data, int offset, int count)
+			{
+				reading.countDown();
+				try
+				{
+					read.await();
+				}
+				catch (InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+				}
+				super.copy(block, data, offset, count);
+			}
+		};
+
+		IPageContext context = new MockPageContext("session1");
+		store.addPage(context, new SerializedPage(1, "foo", data(48, 1)));
+		store.addPage(context, new SerializedPage(2, "foo", data(16, 2)));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<IManageablePage> reader = executor.submit(() -> store.getPage(context, 1));
+			reading.await();
+
+			// only the block of page 2 could be freed
+			store.addPage(context, new SerializedPage(3, "foo", data(32, 3)));
+
+			read.countDown();
+			assertArrayEquals(data(48, 1), ((SerializedPage)reader.get()).getData());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertNotNull(store.getPage(context, 1));
+		assertArrayEquals(data(16, 2), ((SerializedPage)store.getPage(context, 2)).getData());
+		assertNull(store.getPage(context, 3));
+		assertEquals(Bytes.bytes(64), store.getTotalSize());
+	}
+
+	/**
+	 * Blocks of evicted or replaced pages must not be reused while they are copied.
+	 */
+	@Test
+	void concurrentAccess() throws Exception
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++)
+			{
+				IPageContext context = new MockPageContext("session" + t);
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 2000; i++)
+					{
+						store.addPage(context, new SerializedPage(i % 3, "foo", data(40, i)));
+
+						SerializedPage page = (SerializedPage)store.getPage(context, (i + 1) % 3);
+						if (page != null)
+						{
+							byte[] data = page.getData();
+							assertEquals(40, data.length);
+							for (byte b : data)
+							{
+								assertEquals(data[0], b);
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertTrue(store.getTotalSize().bytes() <= 64);
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.pageStore.disk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link IntIntMap}.
+ */
+class IntIntMapTest
+{
+	@Test
+	void putGetRemove()
+	{
+		IntIntMap map = new IntIntMap();
+
+		map.put(1, 10);
+		map.put(-5, 0);
+		assertEquals(10, map.get(1));
+		assertEquals(0, map.get(-5));
+		assertEquals(IntIntMap.NO_VALUE, map.get(2));
+		assertEquals(2, map.size());
+
+		map.put(1, 11);
+		assertEquals(11, map.get(1));
+		assertEquals(2, map.size());
+
+		assertEquals(11, map.remove(1));
+		assertEquals(IntIntMap.NO_VALUE, map.remove(1));
+		assertEquals(IntIntMap.NO_VALUE, map.get(1));
+		assertEquals(1, map.size());
+
+		map.clear();
+		assertEquals(IntIntMap.NO_VALUE, map.get(-5));
+		assertEquals(0, map.size());
+	}
+
+	/**
+	 * Compare random operations with a {@link HashMap}.
+	 */
+	@Test
+	void random()
+	{
+		Random random = new Random(42);
+
+		IntIntMap map = new IntIntMap();
+		Map<Integer, Integer> expected = new HashMap<>();
+
+		for (int i = 0; i < 100000; i++)
+		{
+			int key = random.nextInt(2000) - 1000;
+			if (random.nextInt(3) == 0)
+			{
+				Integer value = expected.remove(key);
+				assertEquals(value == null ? IntIntMap.NO_VALUE : value, map.remove(key));
+			}
+			else
+			{
+				int value = random.nextInt(Integer.MAX_VALUE);
+				expected.put(key, value);
+				map.put(key, value);
+			}
+		}
+
+		assertEquals(expected.size(), map.size());
+		for (int key = -1000; key < 1000; key++)
+		{
+			Integer value = expected.get(key);
+			assertEquals(value == null ? IntIntMap.NO_VALUE : value, map.get(key));
+		}
+	}
+}
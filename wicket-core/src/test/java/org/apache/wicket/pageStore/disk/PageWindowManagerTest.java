@@ -184,6 +184,44 @@ public class PageWindowManagerTest
 		assertWindow(window, 8, 50, 10);
 	}
 
+	/**
+	 * Index stays consistent with many windows, including wrap-around and resizing.
+	 */
+	@Test
+	void manyWindows()
+	{
+		PageWindowManager manager = new PageWindowManager(5000);
+
+		for (int id = 0; id < 1000; id++)
+		{
+			manager.createPageWindow(id, "foo", 10);
+		}
+		assertEquals(5000, manager.getTotalSize());
+
+		for (int id = 0; id < 500; id++)
+		{
+			assertNull(manager.getPageWindow(id));
+		}
+		for (int id = 500; id < 1000; id++)
+		{
+			assertWindow(manager.getPageWindow(id), id, (id - 500) * 10, 10);
+		}
+
+		// merges with the following windows
+		FileWindow window = manager.createPageWindow(1000, "foo", 25);
+		assertWindow(window, 1000, 0, 25);
+		assertNull(manager.getPageWindow(500));
+		assertNull(manager.getPageWindow(501));
+		assertNull(manager.getPageWindow(502));
+		assertWindow(manager.getPageWindow(503), 503, 30, 10);
+		assertWindow(manager.getPageWindow(999), 999, 4990, 10);
+
+		manager.removePage(999);
+		assertNull(manager.getPageWindow(999));
+		assertEquals(4990, manager.getTotalSize());
+		assertEquals(497, manager.getFileWindows().size());
+	}
+
 
 	private void assertWindow(FileWindow window, int pageId, int filePartOffset, int filePartSize)
 	{
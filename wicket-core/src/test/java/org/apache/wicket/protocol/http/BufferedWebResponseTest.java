@@ -17,11 +17,23 @@
 package org.apache.wicket.protocol.http;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.RuntimeConfigurationType;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.mock.MockApplication;
 import org.apache.wicket.mock.MockWebResponse;
 import org.apache.wicket.request.http.WebResponse;
+import org.apache.wicket.response.StaticText;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.tester.WicketTestCase;
 import org.junit.jupiter.api.Test;
 
@@ -30,6 +42,22 @@ import org.junit.jupiter.api.Test;
  */
 public class BufferedWebResponseTest extends WicketTestCase
 {
+	/**
+	 * Deployment mode does not add any response filter.
+	 */
+	@Override
+	protected WebApplication newApplication()
+	{
+		return new MockApplication()
+		{
+			@Override
+			public RuntimeConfigurationType getConfigurationType()
+			{
+				return RuntimeConfigurationType.DEPLOYMENT;
+			}
+		};
+	}
+
 	enum TestAction {
 		SET_CONTENT_LENGTH, WRITE_RESPONSE, DISABLE_CACHING
 	}
@@ -74,4 +102,92 @@ public class BufferedWebResponseTest extends WicketTestCase
 		assertEquals(1, actionsSequence.indexOf(TestAction.DISABLE_CACHING));
 		assertEquals(2, actionsSequence.indexOf(TestAction.WRITE_RESPONSE));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Static text is passed on as is, so it can be written pre-encoded.
+	 */
+	@Test
+	void staticText()
+	{
+		final List<CharSequence> written = new ArrayList<>();
+		WebResponse originalResponse = new MockWebResponse()
+		{
+			@Override
+			public void write(CharSequence sequence)
+			{
+				written.add(sequence);
+			}
+		};
+
+		StaticText open = new StaticText("<p>");
+		StaticText close = new StaticText("</p>");
+
+		BufferedWebResponse response = new BufferedWebResponse(originalResponse);
+		response.write(open);
+		response.write("a");
+		response.write("b");
+		response.write(close);
+		assertEquals("<p>ab</p>", response.toString());
+
+		response.writeTo(originalResponse);
+		assertEquals(3, written.size());
+		assertSame(open, written.get(0));
+		assertEquals("ab", written.get(1).toString());
+		assertSame(close, written.get(2));
+
+		// text can be changed as before
+		written.clear();
+		response = new BufferedWebResponse(originalResponse);
+		response.write(open);
+		response.write("a");
+		((StringBuilder)response.getText()).append("b");
+		response.write(close);
+		response.writeTo(originalResponse);
+		assertEquals(2, written.size());
+		assertEquals("<p>ab", written.get(0).toString());
+		assertSame(close, written.get(1));
+	}
+
+	/**
+	 * Static markup is written pre-encoded, dynamic text is encoded by the response.
+	 */
+	@Test
+	void renderPage()
+	{
+		tester.getApplication().getMarkupSettings().setDefaultMarkupEncoding("UTF-8");
+
+		tester.startPage(new EncodingPage());
+
+		tester.assertContains("<p>\u00e4\u00f6\u00fc <span>\u00df</span></p>");
+
+		// written to the output stream
+		assertEquals(tester.getLastResponseAsString(),
+			new String(tester.getLastResponse().getBinaryContent(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Page with non-ASCII markup.
+	 */
+	public static class EncodingPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Construct.
+		 */
+		public EncodingPage()
+		{
+			add(new Label("label", "\u00df"));
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			StringResourceStream stream = new StringResourceStream(
+				"<html><body><p>\u00e4\u00f6\u00fc <span wicket:id=\"label\"></span></p></body></html>");
+			stream.setCharset(StandardCharsets.UTF_8);
+			return stream;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.protocol.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.RuntimeConfigurationType;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.behavior.Behavior;
+import org.apache.wicket.markup.IMarkupResourceStreamProvider;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.html.WebComponent;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.mock.MockWebResponse;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.cycle.IRequestCycleListener;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.settings.RequestCycleSettings.RenderStrategy;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StreamingWebResponse}.
+ */
+class StreamingWebResponseTest extends WicketTestCase
+{
+	/**
+	 * Deployment mode does not add any response filter.
+	 */
+	@Override
+	protected WebApplication newApplication()
+	{
+		return new MockApplication()
+		{
+			@Override
+			public RuntimeConfigurationType getConfigurationType()
+			{
+				return RuntimeConfigurationType.DEPLOYMENT;
+			}
+		};
+	}
+
+	@BeforeEach
+	void enableStreaming()
+	{
+		tester.getApplication().getRequestCycleSettings()
+			.setRenderStrategy(RenderStrategy.ONE_PASS_RENDER)
+			.setStreamingRender(true);
+	}
+
+	@Test
+	void bufferedUntilStreamed()
+	{
+		MockWebResponse originalResponse = new MockWebResponse();
+
+		StreamingWebResponse response = new StreamingWebResponse(originalResponse);
+
+		response.addHeader("key1", "value1");
+		response.write("first");
+
+		assertNull(originalResponse.getHeader("key1"));
+		assertNull(originalResponse.getTextResponse());
+
+		response.stream();
+
+		assertTrue(response.isStreamed());
+		assertEquals("value1", originalResponse.getHeader("key1"));
+		assertEquals("first", originalResponse.getTextResponse().toString());
+
+		response.write("second");
+
+		assertEquals("firstsecond", originalResponse.getTextResponse().toString());
+
+		assertThrows(IllegalStateException.class, response::reset);
+	}
+
+	@Test
+	void redirectIsNotStreamed()
+	{
+		MockWebResponse originalResponse = new MockWebResponse();
+
+		StreamingWebResponse response = new StreamingWebResponse(originalResponse);
+
+		response.sendRedirect("elsewhere");
+		response.stream();
+
+		assertFalse(response.isStreamed());
+		assertNull(originalResponse.getRedirectUrl());
+
+		response.reset();
+		response.close();
+
+		assertNull(originalResponse.getRedirectUrl());
+	}
+
+	@Test
+	void streamPage()
+	{
+		tester.startPage(new TestPage(false));
+
+		tester.assertContains("<head>");
+		tester.assertContains("<span>label</span>");
+		tester.assertContains("<span>streamed</span>");
+	}
+
+	@Test
+	void notStreamedWithResponseFilter()
+	{
+		tester.getApplication().getRequestCycleSettings()
+			.addResponseFilter(buffer -> buffer);
+
+		tester.startPage(new TestPage(false));
+
+		tester.assertContains("<span>buffered</span>");
+	}
+
+	@Test
+	void exceptionAfterStreamIsRethrown()
+	{
+		assertThrows(ResponseStreamedException.class, () -> tester.startPage(new TestPage(true)));
+	}
+
+	@Test
+	void exceptionAfterStreamTruncatesResponse()
+	{
+		final List<Exception> exceptions = new ArrayList<>();
+		tester.getApplication().getRequestCycleListeners().add(new IRequestCycleListener()
+		{
+			@Override
+			public IRequestHandler onException(RequestCycle cycle, Exception ex)
+			{
+				exceptions.add(ex);
+				return null;
+			}
+		});
+		tester.setExposeExceptions(false);
+
+		tester.startPage(new TestPage(true));
+
+		tester.assertContains("<span>label</span>");
+		tester.assertContains("<span>streamed</span>");
+		assertFalse(tester.getLastResponseAsString().contains("failing"));
+
+		assertEquals(1, exceptions.size());
+		assertTrue(exceptions.get(0) instanceof ResponseStreamedException);
+	}
+
+	@Test
+	void exceptionBeforeStreamIsHandled()
+	{
+		TestPage page = new TestPage(false);
+		page.add(new Behavior()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void renderHead(Component component, IHeaderResponse response)
+			{
+				throw new WicketRuntimeException("failing");
+			}
+		});
+
+		assertThrows(WicketRuntimeException.class, () -> tester.startPage(page));
+	}
+
+	/**
+	 * Page reporting whether it is streamed.
+	 */
+	public static class TestPage extends WebPage implements IMarkupResourceStreamProvider
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Construct.
+		 * 
+		 * @param fail
+		 *            whether to fail after the check
+		 */
+		public TestPage(boolean fail)
+		{
+			add(new Label("label", "label"));
+			add(new Label("check", () -> getResponse() instanceof StreamingWebResponse &&
+				((StreamingWebResponse)getResponse()).isStreamed() ? "streamed" : "buffered"));
+			if (fail)
+			{
+				add(new FailingComponent("failing"));
+			}
+			else
+			{
+				add(new Label("failing", "").setVisible(false));
+			}
+		}
+
+		@Override
+		public IResourceStream getMarkupResourceStream(MarkupContainer container,
+			Class<?> containerClass)
+		{
+			return new StringResourceStream(
+				"<html><head><title>test</title></head><body>" +
+					"<span wicket:id=\"label\"></span><span wicket:id=\"check\"></span>" +
+					"<span wicket:id=\"failing\"></span></body></html>");
+		}
+	}
+
+	private static class FailingComponent extends WebComponent
+	{
+		private static final long serialVersionUID = 1L;
+
+		FailingComponent(String id)
+		{
+			super(id);
+		}
+
+		@Override
+		protected void onRender()
+		{
+			throw new WicketRuntimeException("failing");
+		}
+	}
+}
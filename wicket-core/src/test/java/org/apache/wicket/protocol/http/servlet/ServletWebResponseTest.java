@@ -17,14 +17,20 @@
 package org.apache.wicket.protocol.http.servlet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -34,6 +40,8 @@ import org.apache.wicket.protocol.http.mock.MockHttpServletResponse;
 import org.apache.wicket.request.Url;
 import org.apache.wicket.request.UrlRenderer;
 import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.response.StaticText;
+import org.apache.wicket.util.string.AppendingStringBuffer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 
@@ -214,4 +222,137 @@ class ServletWebResponseTest
 		ServletWebResponse webResponse = new ServletWebResponse(webRequest, httpServletResponse);
 		assertEquals(url + ";foo", webResponse.encodeRedirectURL(url));
 	}
+
+	/**
+	 * Buffers are written without conversion to a string.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	void writeCharSequences() throws IOException
+	{
+		HttpServletResponse httpServletResponse = mock(HttpServletResponse.class);
+		StringWriter writer = new StringWriter();
+		when(httpServletResponse.getWriter()).thenReturn(new PrintWriter(writer));
+
+		ServletWebResponse webResponse = new ServletWebResponse(mock(ServletWebRequest.class),
+			httpServletResponse);
+
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 10000; i++)
+		{
+			builder.append(i % 10);
+		}
+
+		webResponse.write("a");
+		webResponse.write(new AppendingStringBuffer("b"));
+		webResponse.write(builder);
+		webResponse.write(new StringBuilder());
+		webResponse.write(new StringBuffer("c"));
+
+		assertEquals("ab" + builder + "c", writer.toString());
+	}
+
+	/**
+	 * Static text is written as pre-encoded bytes, all following text is encoded onto the output
+	 * stream too.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	void writeStaticText() throws IOException
+	{
+		HttpServletResponse httpServletResponse = mock(HttpServletResponse.class);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		when(httpServletResponse.getCharacterEncoding()).thenReturn("UTF-8");
+		when(httpServletResponse.getOutputStream()).thenReturn(outputStream(bytes));
+
+		ServletWebResponse webResponse = new ServletWebResponse(mock(ServletWebRequest.class),
+			httpServletResponse);
+
+		StaticText text = new StaticText("<p>\u00e4");
+		webResponse.write(text);
+		webResponse.write("\u00fc");
+		webResponse.write(new StringBuilder("\u00f6"));
+		webResponse.write(new StaticText("</p>"));
+
+		assertEquals("<p>\u00e4\u00fc\u00f6</p>", bytes.toString(StandardCharsets.UTF_8));
+		verify(httpServletResponse, never()).getWriter();
+
+		// encoded once
+		assertSame(text.getBytes(StandardCharsets.UTF_8), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Static text is written to the writer, if it was obtained already.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	void writeStaticTextAfterWriter() throws IOException
+	{
+		HttpServletResponse httpServletResponse = mock(HttpServletResponse.class);
+		StringWriter writer = new StringWriter();
+		when(httpServletResponse.getWriter()).thenReturn(new PrintWriter(writer));
+
+		ServletWebResponse webResponse = new ServletWebResponse(mock(ServletWebRequest.class),
+			httpServletResponse);
+
+		webResponse.write("a");
+		webResponse.write(new StaticText("b"));
+
+		assertEquals("ab", writer.toString());
+		verify(httpServletResponse, never()).getOutputStream();
+	}
+
+	/**
+	 * An Ajax redirect after static text is written to the output stream too, encoded with the
+	 * servlet default if no encoding is set.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	void sendRedirectAjaxAfterStaticText() throws IOException
+	{
+		ServletWebRequest webRequest = mock(ServletWebRequest.class);
+		when(webRequest.isAjax()).thenReturn(Boolean.TRUE);
+		when(webRequest.getContainerRequest()).thenReturn(mock(HttpServletRequest.class));
+
+		HttpServletResponse httpServletResponse = mock(HttpServletResponse.class);
+		when(httpServletResponse.encodeRedirectURL(ArgumentMatchers.anyString())).thenReturn("x");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		when(httpServletResponse.getOutputStream()).thenReturn(outputStream(bytes));
+
+		ServletWebResponse webResponse = new ServletWebResponse(webRequest, httpServletResponse);
+		webResponse.write(new StaticText("\u00e4"));
+		webResponse.sendRedirect("x");
+
+		String content = bytes.toString(StandardCharsets.ISO_8859_1);
+		assertTrue(content.startsWith("\u00e4<ajax-response><redirect><![CDATA["), content);
+		assertTrue(content.endsWith("x]]></redirect></ajax-response>"), content);
+		verify(httpServletResponse, never()).getWriter();
+	}
+
+	private static ServletOutputStream outputStream(ByteArrayOutputStream bytes)
+	{
+		return new ServletOutputStream()
+		{
+			@Override
+			public void write(int b)
+			{
+				bytes.write(b);
+			}
+
+			@Override
+			public boolean isReady()
+			{
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener)
+			{
+			}
+		};
+	}
 }
@@ -17,8 +17,11 @@
 package org.apache.wicket.request.cycle;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.apache.wicket.core.request.handler.BookmarkablePageRequestHandler;
@@ -53,6 +56,8 @@ class RequestCycleUrlForTest
 	private static final String RESOURCE_URL = "res";
 
 	private RequestCycle requestCycle;
+
+	private IRequestMapper mapper;
 	
 	@BeforeEach
 	void before()
@@ -68,7 +73,7 @@ class RequestCycleUrlForTest
 				return url + JSESSIONID;
 			}
 		};
-		IRequestMapper mapper = mock(IRequestMapper.class);
+		mapper = mock(IRequestMapper.class);
 
 		Url bookmarkablePageUrl = Url.parse(BOOKMARKABLE_PAGE_URL);
 		when(mapper.mapHandler(argThat(new ExactClassMatcher<BookmarkablePageRequestHandler>(BookmarkablePageRequestHandler.class)))).thenReturn(bookmarkablePageUrl);
@@ -98,6 +103,29 @@ class RequestCycleUrlForTest
 		assertEquals("./bookmarkablePage"+JSESSIONID, url);
 	}
 
+	/**
+	 * Urls of equal bookmarkable handlers are mapped once only while cached.
+	 */
+	@Test
+	void mappedUrlIsCached()
+	{
+		try (MappedUrlCache cache = new MappedUrlCache(requestCycle))
+		{
+			Url first = requestCycle.mapUrlFor(MockHomePage.class, new PageParameters().set("a", "b"));
+			first.getSegments().add("modified");
+
+			Url second = requestCycle.mapUrlFor(MockHomePage.class, new PageParameters().set("a", "b"));
+			assertEquals(BOOKMARKABLE_PAGE_URL, second.toString());
+			verify(mapper, times(1)).mapHandler(any(BookmarkablePageRequestHandler.class));
+
+			requestCycle.mapUrlFor(MockHomePage.class, new PageParameters().set("a", "c"));
+			verify(mapper, times(2)).mapHandler(any(BookmarkablePageRequestHandler.class));
+		}
+
+		requestCycle.mapUrlFor(MockHomePage.class, new PageParameters().set("a", "b"));
+		verify(mapper, times(3)).mapHandler(any(BookmarkablePageRequestHandler.class));
+	}
+
 	/**
 	 * ResourceReference with IStaticCacheableResource should not have the jsessionid encoded in the url
 	 *
@@ -36,6 +36,7 @@ class TestPageRenderer extends WebPageRenderer
 	public boolean pageStateless;
 	public boolean redirectToBuffer;
 	public boolean sessionTemporary;
+	public boolean streamPage;
 
 	public TestPageRenderer(RenderPageRequestHandler handler)
 	{
@@ -50,6 +51,12 @@ class TestPageRenderer extends WebPageRenderer
 		return webResponse;
 	}
 
+	@Override
+	protected boolean shouldStreamPage(RequestCycle requestCycle)
+	{
+		return streamPage;
+	}
+
 	@Override
 	protected RedirectPolicy getRedirectPolicy()
 	{
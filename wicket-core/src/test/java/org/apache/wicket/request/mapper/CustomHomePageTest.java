@@ -16,7 +16,12 @@
  */
 package org.apache.wicket.request.mapper;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.apache.wicket.Application;
+import org.apache.wicket.Page;
 import org.apache.wicket.protocol.http.WebApplication;
 import org.apache.wicket.protocol.http.mock.MockHttpServletRequest;
 import org.apache.wicket.resource.DummyApplication;
@@ -74,6 +79,35 @@ class CustomHomePageTest
 		tester.destroy();
 	}
 
+	/**
+	 * The home page is mapped by the home page mapper, even if it changes at runtime.
+	 */
+	@Test
+	void changingHomePage()
+	{
+		final AtomicReference<Class<? extends Page>> homePage = new AtomicReference<>(
+			DummyHomePage.class);
+		final WebApplication dummyApplication = new DummyApplication()
+		{
+			@Override
+			public Class<? extends Page> getHomePage()
+			{
+				return homePage.get();
+			}
+		};
+		final WicketTester tester = new WicketTester(dummyApplication);
+
+		tester.startPage(DummyHomePage.class);
+		assertEquals("./", tester.getRequestCycle().urlFor(DummyHomePage.class, null).toString());
+
+		homePage.set(CustomHomePage.class);
+		assertEquals("./", tester.getRequestCycle().urlFor(CustomHomePage.class, null).toString());
+
+		requestHomePage(tester);
+		tester.assertRenderedPage(CustomHomePage.class);
+		tester.destroy();
+	}
+
 	private void requestHomePage(final WicketTester tester)
 	{
 		MockHttpServletRequest request = tester.getRequest();
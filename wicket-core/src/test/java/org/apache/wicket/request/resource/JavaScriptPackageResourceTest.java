@@ -20,11 +20,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.IOException;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.wicket.javascript.IJavaScriptCompressor;
 import org.apache.wicket.markup.html.PackageResourceTest;
 import org.apache.wicket.mock.MockApplication;
 import org.apache.wicket.protocol.http.WebApplication;
+import org.apache.wicket.resource.IScopeAwareTextResourceProcessor;
 import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
 import org.apache.wicket.util.tester.WicketTestCase;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,8 @@ class JavaScriptPackageResourceTest extends WicketTestCase
 
 	private static final String RESOURCE_COMPRESSED = "RESOURCE_COMPRESSED";
 
+	private final AtomicInteger compressions = new AtomicInteger();
+
 	@Override
 	protected WebApplication newApplication()
 	{
@@ -53,6 +57,7 @@ class JavaScriptPackageResourceTest extends WicketTestCase
 					@Override
 					public String compress(String original)
 					{
+						compressions.incrementAndGet();
 						return APP_COMPRESSED;
 					}
 				});
@@ -152,4 +157,63 @@ class JavaScriptPackageResourceTest extends WicketTestCase
 		tester.startResource(resource);
 		assertEquals("TEST", tester.getLastResponseAsString());
 	}
+
+	/**
+	 * The output of the compressor is cached, as long as the original content doesn't change.
+	 */
+	@Test
+	void compressedOnce()
+	{
+		JavaScriptPackageResource resource = new JavaScriptPackageResource(
+			PackageResourceTest.class, "packaged1.txt", null, null, null);
+
+		tester.startResource(resource);
+		assertEquals(APP_COMPRESSED, tester.getLastResponseAsString());
+		tester.startResource(resource);
+		assertEquals(APP_COMPRESSED, tester.getLastResponseAsString());
+		assertEquals(1, compressions.get());
+
+		tester.getApplication().getResourceSettings().setJavaScriptCompressor(
+			original -> original.trim().toLowerCase());
+		tester.startResource(resource);
+		assertEquals("test", tester.getLastResponseAsString());
+	}
+
+	/**
+	 * The output of a scope aware processor might depend on the request, so it is not cached.
+	 */
+	@Test
+	void scopeAwareNotCached()
+	{
+		tester.getApplication().getResourceSettings().setJavaScriptCompressor(
+			new ScopeAwareCompressor());
+
+		JavaScriptPackageResource resource = new JavaScriptPackageResource(
+			PackageResourceTest.class, "packaged1.txt", null, null, null);
+
+		tester.startResource(resource);
+		assertEquals(APP_COMPRESSED, tester.getLastResponseAsString());
+		tester.startResource(resource);
+		assertEquals(APP_COMPRESSED, tester.getLastResponseAsString());
+		assertEquals(2, compressions.get());
+	}
+
+	private class ScopeAwareCompressor
+		implements
+			IJavaScriptCompressor,
+			IScopeAwareTextResourceProcessor
+	{
+		@Override
+		public String process(String input, Class<?> scope, String name)
+		{
+			compressions.incrementAndGet();
+			return APP_COMPRESSED;
+		}
+
+		@Override
+		public String compress(String original)
+		{
+			return process(original, null, null);
+		}
+	}
 }
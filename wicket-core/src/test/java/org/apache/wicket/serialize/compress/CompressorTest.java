@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.serialize.compress;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LzCompressor} and {@link DeflateCompressor}.
+ */
+class CompressorTest
+{
+	private static final ICompressor[] COMPRESSORS = { new LzCompressor(),
+			new DeflateCompressor(), new DeflateCompressor(9, null), new DeflateCompressor(1,
+				DeflateCompressor.createDictionary(Label.class, WebPage.class)) };
+
+	@Test
+	void empty()
+	{
+		roundtrip(new byte[0]);
+	}
+
+	@Test
+	void small()
+	{
+		roundtrip(new byte[] { 1 });
+		roundtrip(new byte[] { 1, 2, 3, 4, 5 });
+	}
+
+	@Test
+	void random()
+	{
+		Random random = new Random(42);
+		for (int length : new int[] { 15, 16, 300, 70000 })
+		{
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			roundtrip(data);
+		}
+	}
+
+	@Test
+	void repetitive()
+	{
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 5000; i++)
+		{
+			builder.append("org.apache.wicket.markup.html.basic.Label").append(i % 7);
+		}
+		byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+		for (ICompressor compressor : COMPRESSORS)
+		{
+			assertTrue(compressor.compress(data).length < data.length / 10);
+		}
+		roundtrip(data);
+	}
+
+	@Test
+	void overlapping()
+	{
+		// long runs are encoded as matches overlapping themselves
+		byte[] data = new byte[100000];
+		for (int i = 0; i < data.length; i++)
+		{
+			data[i] = (byte)(i < 1000 ? 7 : i % 3);
+		}
+		roundtrip(data);
+	}
+
+	@Test
+	void corrupt()
+	{
+		byte[] compressed = new LzCompressor().compress(new byte[1000]);
+		compressed[0] = 1;
+		assertThrows(WicketRuntimeException.class,
+			() -> new LzCompressor().decompress(compressed));
+	}
+
+	@Test
+	void dictionaryRequired()
+	{
+		byte[] data = "org.apache.wicket.markup.html.basic.Label".getBytes(StandardCharsets.UTF_8);
+
+		byte[] compressed = new DeflateCompressor(1, DeflateCompressor.createDictionary(
+			Label.class)).compress(data);
+		assertThrows(WicketRuntimeException.class,
+			() -> new DeflateCompressor().decompress(compressed));
+	}
+
+	@Test
+	void dictionaryIsLimited()
+	{
+		assertTrue(DeflateCompressor.createDictionary(Label.class, WebPage.class).length <= 32 *
+			1024);
+	}
+
+	private void roundtrip(byte[] data)
+	{
+		for (ICompressor compressor : COMPRESSORS)
+		{
+			assertArrayEquals(data, compressor.decompress(compressor.compress(data)),
+				compressor.getClass().getSimpleName());
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.serialize.java;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.wicket.MockPageWithLinkAndComponent;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.model.CompoundPropertyModel;
+import org.apache.wicket.model.Model;
+import org.apache.wicket.util.tester.WicketTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CompactJavaSerializer}.
+ */
+class CompactJavaSerializerTest extends WicketTestCase
+{
+	@Test
+	void roundtrip()
+	{
+		CompactJavaSerializer serializer = new CompactJavaSerializer("CompactJavaSerializerTest");
+
+		Object[] objects = { "string", 42, TimeUnit.SECONDS, new int[] { 1, 2 },
+				Arrays.asList("a", "b"), null };
+		Object[] deserialized = (Object[])serializer.deserialize(serializer.serialize(objects));
+
+		assertArrayEquals(objects, deserialized);
+	}
+
+	@Test
+	void page()
+	{
+		MockPageWithLinkAndComponent page = new MockPageWithLinkAndComponent();
+		WebMarkupContainer container = new WebMarkupContainer("container",
+			new CompoundPropertyModel<>(Model.of("value")));
+		page.add(container);
+		for (int i = 0; i < 10; i++)
+		{
+			container.add(new Label("label" + i, Model.of(i)));
+		}
+
+		JavaSerializer javaSerializer = new JavaSerializer("CompactJavaSerializerTest");
+		CompactJavaSerializer compactSerializer = new CompactJavaSerializer(
+			"CompactJavaSerializerTest");
+
+		byte[] java = javaSerializer.serialize(page);
+		byte[] compact = compactSerializer.serialize(page);
+		assertTrue(compact.length < java.length,
+			"compact " + compact.length + " not smaller than " + java.length);
+
+		MockPageWithLinkAndComponent deserialized = (MockPageWithLinkAndComponent)compactSerializer
+			.deserialize(compact);
+		assertEquals(page.getPageId(), deserialized.getPageId());
+		assertEquals(9, deserialized.get("container:label9").getDefaultModelObject());
+		assertEquals("value", deserialized.get("container").getDefaultModelObject());
+
+		// serialized data of an equal page is identical
+		assertArrayEquals(compact, compactSerializer.serialize(deserialized));
+	}
+
+	@Test
+	void notSerializable()
+	{
+		CompactJavaSerializer serializer = new CompactJavaSerializer("CompactJavaSerializerTest");
+
+		assertNull(serializer.serialize(new Object[] { new Object() }));
+	}
+}
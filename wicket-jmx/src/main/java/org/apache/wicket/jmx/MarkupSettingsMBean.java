@@ -55,6 +55,29 @@ public interface MarkupSettingsMBean
 	 */
 	boolean getStripComments();
 
+	/**
+	 * @return the maximum size of the markup cache, or {@code null} if the cache is unbounded
+	 * @see org.apache.wicket.settings.MarkupSettings#setMarkupCacheMaxSize(org.apache.wicket.util.lang.Bytes)
+	 */
+	String getMarkupCacheMaxSize();
+
+	/**
+	 * @return count of requests for markup found in the cache, or -1 if not supported by the
+	 *         markup cache
+	 */
+	long getMarkupCacheHitCount();
+
+	/**
+	 * @return count of requests for markup not found in the cache, or -1 if not supported by the
+	 *         markup cache
+	 */
+	long getMarkupCacheMissCount();
+
+	/**
+	 * @return count of markup evicted from the cache, or -1 if not supported by the markup cache
+	 */
+	long getMarkupCacheEvictionCount();
+
 	/**
 	 * Gets whether to remove wicket tags from the output.
 	 * 
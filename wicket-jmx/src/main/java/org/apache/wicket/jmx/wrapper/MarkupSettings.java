@@ -20,6 +20,9 @@ import java.io.UnsupportedEncodingException;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.jmx.MarkupSettingsMBean;
+import org.apache.wicket.markup.IMarkupCache;
+import org.apache.wicket.markup.MarkupCache;
+import org.apache.wicket.util.lang.Bytes;
 
 
 /**
@@ -77,6 +80,55 @@ public class MarkupSettings implements MarkupSettingsMBean
 		return application.getMarkupSettings().getStripComments();
 	}
 
+	/**
+	 * @see org.apache.wicket.jmx.MarkupSettingsMBean#getMarkupCacheMaxSize()
+	 */
+	@Override
+	public String getMarkupCacheMaxSize()
+	{
+		Bytes maxSize = application.getMarkupSettings().getMarkupCacheMaxSize();
+		return maxSize != null ? maxSize.toString() : null;
+	}
+
+	/**
+	 * @see org.apache.wicket.jmx.MarkupSettingsMBean#getMarkupCacheHitCount()
+	 */
+	@Override
+	public long getMarkupCacheHitCount()
+	{
+		MarkupCache cache = getMarkupCache();
+		return cache != null ? cache.getHitCount() : -1;
+	}
+
+	/**
+	 * @see org.apache.wicket.jmx.MarkupSettingsMBean#getMarkupCacheMissCount()
+	 */
+	@Override
+	public long getMarkupCacheMissCount()
+	{
+		MarkupCache cache = getMarkupCache();
+		return cache != null ? cache.getMissCount() : -1;
+	}
+
+	/**
+	 * @see org.apache.wicket.jmx.MarkupSettingsMBean#getMarkupCacheEvictionCount()
+	 */
+	@Override
+	public long getMarkupCacheEvictionCount()
+	{
+		MarkupCache cache = getMarkupCache();
+		return cache != null ? cache.getEvictionCount() : -1;
+	}
+
+	/**
+	 * @return the markup cache if it keeps statistics
+	 */
+	private MarkupCache getMarkupCache()
+	{
+		IMarkupCache cache = application.getMarkupSettings().getMarkupFactory().getMarkupCache();
+		return cache instanceof MarkupCache ? (MarkupCache)cache : null;
+	}
+
 	/**
 	 * @see org.apache.wicket.jmx.MarkupSettingsMBean#getStripWicketTags()
 	 */
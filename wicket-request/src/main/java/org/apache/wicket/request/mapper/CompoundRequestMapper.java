@@ -17,9 +17,12 @@
 package org.apache.wicket.request.mapper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.wicket.request.IRequestHandler;
@@ -34,6 +37,11 @@ import org.slf4j.LoggerFactory;
  * Thread safe compound {@link IRequestMapper}. The mappers are searched depending on their
  * compatibility score and the orders they were registered. If two or more {@link IRequestMapper}s
  * have the same compatibility score, the last registered mapper has highest priority.
+ * <p>
+ * {@link IPrefixedRequestMapper}s are indexed by their prefix, so for each request only the
+ * mappers with a prefix matching the request's URL (and all mappers without a prefix) are
+ * considered. Accordingly {@link IKeyedRequestHandler}s are passed to the
+ * {@link IKeyedRequestMapper}s of the same key only (and all mappers without a key).
  * 
  * @author igor.vaynberg
  * @author Matej Knopp
@@ -97,26 +105,59 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 
 	private final List<IRequestMapper> mappers = new CopyOnWriteArrayList<>();
 
+	/**
+	 * Index of the mappers, built lazily after changes.
+	 */
+	private volatile Index index;
+
 	@Override
 	public CompoundRequestMapper add(final IRequestMapper mapper)
 	{
-		mappers.add(0, mapper);
+		synchronized (mappers)
+		{
+			mappers.add(0, mapper);
+			index = null;
+		}
 		return this;
 	}
 
 	@Override
 	public CompoundRequestMapper remove(final IRequestMapper mapper)
 	{
-		mappers.remove(mapper);
+		synchronized (mappers)
+		{
+			mappers.remove(mapper);
+			index = null;
+		}
 		return this;
 	}
 
+	private Index getIndex()
+	{
+		Index current = index;
+		if (current == null)
+		{
+			synchronized (mappers)
+			{
+				current = index;
+				if (current == null)
+				{
+					current = new Index(mappers);
+					index = current;
+				}
+			}
+		}
+		return current;
+	}
+
 	/**
 	 * Searches the registered {@link IRequestMapper}s to find one that can map the {@link Request}.
 	 * Each registered {@link IRequestMapper} is asked to provide its compatibility score. Then the
 	 * mappers are asked to map the request in order depending on the provided compatibility
 	 * score.
 	 * <p>
+	 * {@link IPrefixedRequestMapper}s whose prefix does not match the request's URL are skipped.
+	 * <p>
 	 * The mapper with highest compatibility score which can map the request is returned.
 	 * 
 	 * @param request
@@ -126,9 +167,11 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	@Override
 	public IRequestHandler mapRequest(final Request request)
 	{
-		List<MapperWithScore> list = new ArrayList<>(mappers.size());
+		List<IRequestMapper> candidates = getIndex().getCandidates(request.getUrl());
 
-		for (IRequestMapper mapper : this)
+		List<MapperWithScore> list = new ArrayList<>(candidates.size());
+
+		for (IRequestMapper mapper : candidates)
 		{
 			int score = mapper.getCompatibilityScore(request);
 			list.add(new MapperWithScore(mapper, score));
@@ -198,6 +241,9 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	 * <p>
 	 * The mappers are searched in reverse order as they have been registered. More recently
 	 * registered mappers have bigger priority.
+	 * <p>
+	 * {@link IKeyedRequestMapper}s with a key different to the one of an
+	 * {@link IKeyedRequestHandler} are skipped.
 	 * 
 	 * @param handler
 	 * @return Url for the handler or <code>null</code> if no mapper for the handler is found.
@@ -205,7 +251,7 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	@Override
 	public Url mapHandler(final IRequestHandler handler)
 	{
-		for (IRequestMapper mapper : this)
+		for (IRequestMapper mapper : getIndex().getCandidates(handler))
 		{
 			Url url = mapper.mapHandler(handler);
 			if (url != null)
@@ -237,4 +283,169 @@ public class CompoundRequestMapper implements ICompoundRequestMapper
 	{
 		return mappers.iterator();
 	}
+
+	/**
+	 * Normalize a segment for comparison ignoring case: any two segments being
+	 * {@link String#equalsIgnoreCase(String) equal ignoring case} have the same normalized form.
+	 */
+	static String normalize(final String segment)
+	{
+		StringBuilder normalized = null;
+		for (int i = 0; i < segment.length();)
+		{
+			int c = segment.codePointAt(i);
+			int n = Character.toLowerCase(Character.toUpperCase(c));
+			if (n != c && normalized == null)
+			{
+				normalized = new StringBuilder(segment.length());
+				normalized.append(segment, 0, i);
+			}
+			if (normalized != null)
+			{
+				normalized.appendCodePoint(n);
+			}
+			i += Character.charCount(c);
+		}
+		return normalized == null ? segment : normalized.toString();
+	}
+
+	/**
+	 * Immutable index of the mappers: a trie by their prefix segments and candidates by their
+	 * mapping key.
+	 */
+	private static class Index
+	{
+		private final IRequestMapper[] mappers;
+
+		private final Node root = new Node();
+
+		/**
+		 * Mappers without a key.
+		 */
+		private final List<IRequestMapper> unkeyed = new ArrayList<>();
+
+		/**
+		 * Candidates for each key, in order of registration.
+		 */
+		private final Map<Object, List<IRequestMapper>> keyed = new HashMap<>();
+
+		Index(final List<IRequestMapper> list)
+		{
+			mappers = list.toArray(new IRequestMapper[0]);
+
+			for (IRequestMapper mapper : mappers)
+			{
+				Object key = mapper instanceof IKeyedRequestMapper
+					? ((IKeyedRequestMapper)mapper).getMappingKey() : null;
+				if (key == null)
+				{
+					unkeyed.add(mapper);
+					keyed.values().forEach(candidates -> candidates.add(mapper));
+				}
+				else
+				{
+					keyed.computeIfAbsent(key, k -> new ArrayList<>(unkeyed)).add(mapper);
+				}
+			}
+
+			for (int position = 0; position < mappers.length; position++)
+			{
+				Node node = root;
+				if (mappers[position] instanceof IPrefixedRequestMapper)
+				{
+					List<String> prefix = ((IPrefixedRequestMapper)mappers[position]).getPrefixSegments();
+					for (String segment : new Url(prefix, Collections.emptyList()).canonical()
+						.getSegments())
+					{
+						node = node.children.computeIfAbsent(normalize(segment), k -> new Node());
+					}
+				}
+				node.add(position);
+			}
+		}
+
+		/**
+		 * Get the mappers possibly able to map the given handler.
+		 * 
+		 * @param handler
+		 * @return candidates in order of registration
+		 */
+		List<IRequestMapper> getCandidates(final IRequestHandler handler)
+		{
+			if (handler instanceof IKeyedRequestHandler)
+			{
+				Object key = ((IKeyedRequestHandler)handler).getMappingKey();
+				if (key != null)
+				{
+					return keyed.getOrDefault(key, unkeyed);
+				}
+			}
+			return Arrays.asList(mappers);
+		}
+
+		/**
+		 * Get the mappers possibly able to map the given URL. Both the URL and the prefixes are
+		 * compared in their {@link Url#canonical() canonical} form.
+		 * 
+		 * @param url
+		 * @return candidates in order of registration
+		 */
+		List<IRequestMapper> getCandidates(final Url url)
+		{
+			List<String> segments = url == null ? Collections.emptyList()
+				: url.canonical().getSegments();
+			if (segments.isEmpty())
+			{
+				return Arrays.asList(mappers);
+			}
+
+			int count = root.size;
+			Node[] nodes = new Node[segments.size()];
+			Node node = root;
+			for (int i = 0; i < nodes.length; i++)
+			{
+				node = node.children.get(normalize(segments.get(i)));
+				if (node == null)
+				{
+					break;
+				}
+				nodes[i] = node;
+				count += node.size;
+			}
+
+			int[] positions = Arrays.copyOf(root.positions, count);
+			int offset = root.size;
+			for (int i = 0; i < nodes.length && nodes[i] != null; i++)
+			{
+				System.arraycopy(nodes[i].positions, 0, positions, offset, nodes[i].size);
+				offset += nodes[i].size;
+			}
+			Arrays.sort(positions);
+
+			List<IRequestMapper> candidates = new ArrayList<>(count);
+			for (int position : positions)
+			{
+				candidates.add(mappers[position]);
+			}
+			return candidates;
+		}
+	}
+
+	private static class Node
+	{
+		private final Map<String, Node> children = new HashMap<>();
+
+		private int[] positions = new int[0];
+
+		private int size;
+
+		void add(int position)
+		{
+			if (size == positions.length)
+			{
+				positions = Arrays.copyOf(positions, Math.max(4, size * 2));
+			}
+			positions[size++] = position;
+		}
+	}
 }
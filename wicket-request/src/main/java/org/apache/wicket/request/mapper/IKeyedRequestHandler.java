@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.mapper;
+
+import org.apache.wicket.request.IRequestHandler;
+
+/**
+ * A {@link IRequestHandler} with a key identifying its target, allowing
+ * {@link CompoundRequestMapper} to find the {@link IKeyedRequestMapper}s able to map it to a URL
+ * directly.
+ * 
+ * @see IKeyedRequestMapper
+ */
+public interface IKeyedRequestHandler extends IRequestHandler
+{
+	/**
+	 * Get the key of this handler's target, e.g. the name of a page class.
+	 * 
+	 * @return key or <code>null</code> if any mapper may map this handler
+	 */
+	Object getMappingKey();
+}
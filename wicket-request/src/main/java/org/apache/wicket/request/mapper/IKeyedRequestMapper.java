@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.mapper;
+
+import org.apache.wicket.request.IRequestMapper;
+
+/**
+ * A {@link IRequestMapper} mapping the handlers of a single key to URLs only, e.g. the handlers
+ * for the page class it is mounted for.
+ * <p>
+ * {@link CompoundRequestMapper} indexes its mappers by their key, so handlers with a different
+ * {@link IKeyedRequestHandler#getMappingKey() key} are not passed to
+ * {@link #mapHandler(org.apache.wicket.request.IRequestHandler)}.
+ * 
+ * @see IKeyedRequestHandler
+ */
+public interface IKeyedRequestMapper extends IRequestMapper
+{
+	/**
+	 * Get the key of all {@link IKeyedRequestHandler}s this mapper is able to map.
+	 * <p>
+	 * The key must not change while the mapper is registered.
+	 * 
+	 * @return key or <code>null</code> if this mapper may map handlers of any key
+	 */
+	Object getMappingKey();
+}
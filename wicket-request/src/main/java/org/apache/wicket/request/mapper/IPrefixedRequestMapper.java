@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.wicket.request.mapper;
+
+import java.util.List;
+
+import org.apache.wicket.request.IRequestMapper;
+
+/**
+ * A {@link IRequestMapper} mapping requests to URLs with a static prefix only, e.g. to its mount
+ * path.
+ * <p>
+ * {@link CompoundRequestMapper} indexes its mappers by their prefix, so a mapper is neither asked
+ * for its compatibility score nor to map a request, when the request's URL does not start with the
+ * mapper's prefix.
+ * 
+ * @see CompoundRequestMapper
+ */
+public interface IPrefixedRequestMapper extends IRequestMapper
+{
+	/**
+	 * Get the leading segments of all URLs this mapper is able to map.
+	 * <p>
+	 * Note that URLs without any segments (i.e. requests to the home page) are passed to all
+	 * mappers regardless of their prefix. Segments are compared ignoring case, thus a mapper may
+	 * still decide to map URLs whose segments differ in case only. The prefix is matched against
+	 * the {@link org.apache.wicket.request.Url#canonical() canonical} URL, i.e. with '.' and '..'
+	 * segments resolved.
+	 * <p>
+	 * The prefix must not change while the mapper is registered.
+	 * 
+	 * @return prefix segments, may be empty
+	 */
+	List<String> getPrefixSegments();
+}
@@ -17,8 +17,18 @@
 package org.apache.wicket.request.mapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.wicket.request.IRequestCycle;
+import org.apache.wicket.request.IRequestHandler;
+import org.apache.wicket.request.Request;
+import org.apache.wicket.request.Url;
 import org.apache.wicket.request.mapper.CompoundRequestMapper.MapperWithScore;
 import org.junit.jupiter.api.Test;
 
@@ -45,8 +55,277 @@ class CompoundRequestMapperTest
 		assertTrue(score(Integer.MAX_VALUE).compareTo(score(10)) < 0);
 	}
 
+	/**
+	 * Only mappers with a matching prefix are asked to map a request.
+	 */
+	@Test
+	void prefixedMappers()
+	{
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		TestMapper[] mounted = new TestMapper[5000];
+		for (int i = 0; i < mounted.length; i++)
+		{
+			mounted[i] = new TestMapper(List.of("mount", "page" + i));
+			compound.add(mounted[i]);
+		}
+		TestMapper unprefixed = new TestMapper(null);
+		compound.add(unprefixed);
+
+		assertSame(mounted[4711].handler, compound.mapRequest(request("mount/page4711/more")));
+		assertEquals(1, mounted[4711].scored);
+		assertEquals(1, unprefixed.scored);
+		assertEquals(0, mounted[4712].scored);
+
+		// segments are indexed ignoring case
+		assertSame(unprefixed.handler, compound.mapRequest(request("MOUNT/Page4711")));
+		assertEquals(2, mounted[4711].scored);
+		assertEquals(0, mounted[4712].scored);
+
+		// requests to the home page are passed to all mappers
+		assertSame(unprefixed.handler, compound.mapRequest(request("")));
+		assertEquals(3, mounted[4711].scored);
+		assertEquals(1, mounted[4712].scored);
+
+		compound.remove(mounted[4711]);
+		assertSame(unprefixed.handler, compound.mapRequest(request("mount/page4711")));
+		assertEquals(3, mounted[4711].scored);
+	}
+
+	/**
+	 * Candidates keep their priority by score and order of registration.
+	 */
+	@Test
+	void prefixedMappersPriority()
+	{
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		TestMapper first = new TestMapper(List.of("a"));
+		TestMapper second = new TestMapper(List.of("a", "b"));
+		TestMapper other = new TestMapper(List.of("c"));
+		compound.add(first).add(second).add(other);
+
+		assertSame(second.handler, compound.mapRequest(request("a/b")));
+		assertSame(first.handler, compound.mapRequest(request("a/c")));
+
+		first.score = 2;
+		assertSame(first.handler, compound.mapRequest(request("a/b")));
+
+		TestMapper unprefixed = new TestMapper(List.of());
+		unprefixed.score = 3;
+		compound.add(unprefixed);
+		assertSame(unprefixed.handler, compound.mapRequest(request("a/b")));
+	}
+
+	/**
+	 * Prefixes are matched against the canonical URL.
+	 */
+	@Test
+	void prefixedMappersCanonical()
+	{
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		TestMapper mounted = new TestMapper(List.of("a", "b"));
+		TestMapper other = new TestMapper(List.of("c"));
+		compound.add(mounted).add(other);
+
+		assertSame(mounted.handler, compound.mapRequest(request("c/../a/./b")));
+		assertEquals(1, mounted.scored);
+		assertEquals(0, other.scored);
+
+		assertSame(other.handler, compound.mapRequest(request("a/../c")));
+		assertEquals(1, mounted.scored);
+		assertEquals(1, other.scored);
+	}
+
+	/**
+	 * Keyed handlers are passed to mappers with the same key only.
+	 */
+	@Test
+	void keyedMappers()
+	{
+		CompoundRequestMapper compound = new CompoundRequestMapper();
+		KeyedMapper unkeyed = new KeyedMapper(null);
+		compound.add(unkeyed);
+		KeyedMapper[] mounted = new KeyedMapper[5000];
+		for (int i = 0; i < mounted.length; i++)
+		{
+			mounted[i] = new KeyedMapper("key" + i);
+			compound.add(mounted[i]);
+		}
+
+		assertEquals(Url.parse("key4711"), compound.mapHandler(new KeyedHandler("key4711")));
+		assertEquals(1, mounted[4711].mapped);
+		assertEquals(0, mounted[4712].mapped);
+		assertEquals(0, unkeyed.mapped);
+
+		// unknown key
+		assertEquals(Url.parse("unkeyed"), compound.mapHandler(new KeyedHandler("other")));
+		assertEquals(1, unkeyed.mapped);
+		assertEquals(0, mounted[4712].mapped);
+
+		// handlers without key are passed to all mappers
+		assertEquals(Url.parse("unkeyed"), compound.mapHandler(requestCycle -> {
+		}));
+		assertEquals(2, unkeyed.mapped);
+		assertEquals(1, mounted[4712].mapped);
+	}
+
 	private MapperWithScore score(int score)
 	{
 		return new MapperWithScore(null, score);
 	}
+
+	private static Request request(final String url)
+	{
+		return new Request()
+		{
+			@Override
+			public Url getUrl()
+			{
+				return Url.parse(url);
+			}
+
+			@Override
+			public Locale getLocale()
+			{
+				return null;
+			}
+
+			@Override
+			public Charset getCharset()
+			{
+				return StandardCharsets.UTF_8;
+			}
+
+			@Override
+			public Url getClientUrl()
+			{
+				return getUrl();
+			}
+
+			@Override
+			public Object getContainerRequest()
+			{
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Maps all requests starting with its prefix.
+	 */
+	private static class TestMapper implements IPrefixedRequestMapper
+	{
+		private final List<String> prefix;
+
+		private final IRequestHandler handler = requestCycle -> {
+		};
+
+		private int score = 1;
+
+		private int scored;
+
+		private TestMapper(List<String> prefix)
+		{
+			this.prefix = prefix;
+		}
+
+		@Override
+		public List<String> getPrefixSegments()
+		{
+			return prefix == null ? List.of() : prefix;
+		}
+
+		@Override
+		public int getCompatibilityScore(Request request)
+		{
+			scored++;
+			return score;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(Request request)
+		{
+			List<String> segments = request.getUrl().canonical().getSegments();
+			if (prefix != null &&
+				(segments.size() < prefix.size() || !segments.subList(0, prefix.size()).equals(prefix)))
+			{
+				return null;
+			}
+			return handler;
+		}
+
+		@Override
+		public Url mapHandler(IRequestHandler requestHandler)
+		{
+			return null;
+		}
+	}
+
+	private static class KeyedHandler implements IKeyedRequestHandler
+	{
+		private final String key;
+
+		private KeyedHandler(String key)
+		{
+			this.key = key;
+		}
+
+		@Override
+		public Object getMappingKey()
+		{
+			return key;
+		}
+
+		@Override
+		public void respond(IRequestCycle requestCycle)
+		{
+		}
+	}
+
+	/**
+	 * Maps handlers of its key, or all handlers if it has no key.
+	 */
+	private static class KeyedMapper implements IKeyedRequestMapper
+	{
+		private final String key;
+
+		private int mapped;
+
+		private KeyedMapper(String key)
+		{
+			this.key = key;
+		}
+
+		@Override
+		public Object getMappingKey()
+		{
+			return key;
+		}
+
+		@Override
+		public Url mapHandler(IRequestHandler requestHandler)
+		{
+			mapped++;
+			if (key == null)
+			{
+				return Url.parse("unkeyed");
+			}
+			if (requestHandler instanceof KeyedHandler && key.equals(((KeyedHandler)requestHandler).key))
+			{
+				return Url.parse(key);
+			}
+			return null;
+		}
+
+		@Override
+		public IRequestHandler mapRequest(Request request)
+		{
+			return null;
+		}
+
+		@Override
+		public int getCompatibilityScore(Request request)
+		{
+			return 0;
+		}
+	}
 }
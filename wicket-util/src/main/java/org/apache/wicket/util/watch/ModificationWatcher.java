@@ -152,18 +152,38 @@ public class ModificationWatcher implements IModificationWatcher
 	{
 		for (Entry entry : modifiableToEntry.values())
 		{
-			// If the modifiable has been modified after the last known
-			// modification time
-			final Instant modifiableLastModified = entry.modifiable.lastModifiedTime();
-			if ((modifiableLastModified != null) &&
-					modifiableLastModified.isAfter(entry.lastModifiedTime))
-			{
-				// Notify all listeners that the modifiable was modified
-				entry.listeners.notifyListeners(entry.modifiable);
+			checkModified(entry);
+		}
+	}
 
-				// Update timestamp
-				entry.lastModifiedTime = modifiableLastModified;
-			}
+	/**
+	 * Checks whether a single IModifiable was modified and notifies its listeners
+	 * 
+	 * @param modifiable
+	 *            the modifiable to check, ignored if not watched
+	 */
+	protected final void checkModified(final IModifiable modifiable)
+	{
+		final Entry entry = modifiableToEntry.get(modifiable);
+		if (entry != null)
+		{
+			checkModified(entry);
+		}
+	}
+
+	private void checkModified(final Entry entry)
+	{
+		// If the modifiable has been modified after the last known
+		// modification time
+		final Instant modifiableLastModified = entry.modifiable.lastModifiedTime();
+		if ((modifiableLastModified != null) &&
+				modifiableLastModified.isAfter(entry.lastModifiedTime))
+		{
+			// Notify all listeners that the modifiable was modified
+			entry.listeners.notifyListeners(entry.modifiable);
+
+			// Update timestamp
+			entry.lastModifiedTime = modifiableLastModified;
 		}
 	}
 